@@ -0,0 +1,96 @@
+package com.spribe.tz.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spribe.tz.controller.dto.CurrencyRateDTO;
+import com.spribe.tz.service.impl.CurrencyRateRenderer;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import com.spribe.tz.service.impl.model.RateRepresentation;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import com.spribe.tz.service.impl.model.RenderedCurrencyRates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures steps of a cold {@code GET /currencies/{currencyCode}/rates} request separately: building
+ * {@link CurrencyRateDTO} of a base currency from a snapshot (what {@code getCurrencyRates} does), its JSON
+ * serialization, and rendering of all memoized formats. Warm requests only look the rendered rates up,
+ * see {@link SnapshotContentionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyRatesBenchmark {
+
+    @Param({"10", "50", "170"})
+    private int currenciesCount;
+
+    @Param({"DECIMAL", "FIXED_POINT"})
+    private RateRepresentation representation;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final CurrencyRateRenderer renderer = new CurrencyRateRenderer(objectMapper);
+
+    private RateSnapshot snapshot;
+    private String currencyCode;
+    private CurrencyRateDTO currencyRate;
+
+    @Setup
+    public void setUp() {
+        snapshot = RateSnapshot.EMPTY.next(buildBaseExchangeRates(currenciesCount), Instant.EPOCH, representation);
+        // rates of a non-base currency are cross rates, the expensive case
+        currencyCode = currencyCode(1);
+        currencyRate = renderer.toCurrencyRateDTO(currencyCode, snapshot);
+    }
+
+    @Benchmark
+    public CurrencyRateDTO buildRatesMap() {
+        return renderer.toCurrencyRateDTO(currencyCode, snapshot);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(currencyRate);
+    }
+
+    @Benchmark
+    public RenderedCurrencyRates buildAndRender() {
+        return renderer.render(renderer.toCurrencyRateDTO(currencyCode, snapshot));
+    }
+
+    static BaseExchangeRates buildBaseExchangeRates(final int currenciesCount) {
+        List<String> codes = new ArrayList<>();
+        BigDecimal[] rates = new BigDecimal[currenciesCount];
+        for (int id = 0; id < currenciesCount; id++) {
+            codes.add(currencyCode(id));
+            rates[id] = id == 0 ? BigDecimal.ONE : BigDecimal.valueOf(1 + id * 0.731);
+        }
+
+        return new BaseExchangeRates(codes.get(0), Instant.EPOCH, CurrencyIndex.of(codes), rates);
+    }
+
+    static String currencyCode(final int i) {
+        return new String(new char[] {(char) ('A' + i / 676), (char) ('A' + i / 26 % 26), (char) ('A' + i % 26)});
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.spribe.tz.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spribe.tz.service.impl.FixerIoResponseParser;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.spribe.tz.benchmark.CurrencyRatesBenchmark.currencyCode;
+
+/**
+ * Compares mapping fixer.io response through {@code Map<String, BigDecimal>} data binding with
+ * {@link FixerIoResponseParser}. Run with {@code ./gradlew jmh}, the gc profiler reports allocation per call.
+ * Half of the returned rates belong to currencies that were not requested.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FixerIoResponseParserBenchmark {
+
+    @Param({"10", "50", "170"})
+    private int currenciesCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private byte[] body;
+    private CurrencyIndex currencies;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> requested = new ArrayList<>();
+        StringBuilder rates = new StringBuilder();
+        for (int i = 0; i < currenciesCount * 2; i++) {
+            String currencyCode = currencyCode(i);
+            if (i % 2 == 0) {
+                requested.add(currencyCode);
+            }
+            rates.append(rates.isEmpty() ? "" : ",")
+                 .append('"').append(currencyCode).append("\":")
+                 .append(1 + i * 0.731);
+        }
+
+        currencies = CurrencyIndex.of(requested);
+        body = """
+            {"success":true,"timestamp":1700000000,"base":"EUR","date":"2023-11-14","rates":{%s}}"""
+            .formatted(rates)
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public BaseExchangeRates dataBinding() throws IOException {
+        MapResponse response = objectMapper.readValue(body, MapResponse.class);
+
+        BigDecimal[] rates = new BigDecimal[currencies.size()];
+        response.rates().forEach((currencyCode, rate) -> {
+            int id = currencies.idOf(currencyCode);
+            if (id >= 0) {
+                rates[id] = rate;
+            }
+        });
+
+        return new BaseExchangeRates(response.base(), Instant.ofEpochSecond(response.timestamp()), currencies, rates);
+    }
+
+    @Benchmark
+    public BaseExchangeRates streamingParser() throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            return FixerIoResponseParser.parse(parser, currencies).orElseThrow();
+        }
+    }
+
+    private record MapResponse(boolean success, Long timestamp, String base, String date, Map<String, BigDecimal> rates) {}
+
+}
@@ -0,0 +1,108 @@
+package com.spribe.tz.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.spribe.tz.controller.dto.CurrencyRateDTO;
+import com.spribe.tz.service.impl.CurrencyRateRenderer;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import com.spribe.tz.service.impl.model.RateRepresentation;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static com.spribe.tz.benchmark.CurrencyRatesBenchmark.currencyCode;
+
+/**
+ * Compares serialization time of {@link CurrencyRateDTO} as JSON, gzipped JSON and CBOR. Payload size of every
+ * format is reported next to its timing as the {@code bytes} secondary result, so it lands in the JMH results file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param({"10", "50", "170"})
+    private int currenciesCount;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+
+    private CurrencyRateDTO currencyRate;
+
+    @Setup
+    public void setUp() {
+        List<String> codes = new ArrayList<>();
+        BigDecimal[] rates = new BigDecimal[currenciesCount];
+        for (int id = 0; id < currenciesCount; id++) {
+            codes.add(currencyCode(id));
+            rates[id] = id == 0 ? BigDecimal.ONE : BigDecimal.valueOf(1 + id * 0.731);
+        }
+
+        RateSnapshot snapshot = RateSnapshot.EMPTY.next(new BaseExchangeRates(codes.get(0), Instant.EPOCH, CurrencyIndex.of(codes), rates),
+            Instant.EPOCH, RateRepresentation.DECIMAL);
+        // cross rates of a non-base currency carry all 16 significant digits
+        currencyRate = new CurrencyRateRenderer(objectMapper).toCurrencyRateDTO(codes.get(1), snapshot);
+    }
+
+    @Benchmark
+    public byte[] json(final PayloadSize payloadSize) throws IOException {
+        return payloadSize.record(objectMapper.writeValueAsBytes(currencyRate));
+    }
+
+    @Benchmark
+    public byte[] gzippedJson(final PayloadSize payloadSize) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(result)) {
+            objectMapper.writeValue(gzipStream, currencyRate);
+        }
+
+        return payloadSize.record(result.toByteArray());
+    }
+
+    @Benchmark
+    public byte[] cbor(final PayloadSize payloadSize) throws IOException {
+        return payloadSize.record(cborMapper.writeValueAsBytes(currencyRate));
+    }
+
+    /**
+     * Size of the last payload, the same for every invocation. Public fields of an auxiliary counters state
+     * are reported by JMH as secondary results.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long bytes;
+
+        private byte[] record(final byte[] payload) {
+            bytes = payload.length;
+            return payload;
+        }
+
+    }
+
+}
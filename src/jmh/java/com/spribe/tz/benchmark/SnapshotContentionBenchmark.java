@@ -0,0 +1,104 @@
+package com.spribe.tz.benchmark;
+
+import com.spribe.tz.service.impl.CurrencyRateRenderer;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.RateRepresentation;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import com.spribe.tz.service.impl.model.RenderedCurrencyRates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Readers of rendered rates while a writer keeps publishing snapshots, the way {@code CurrencyRateServiceImpl}
+ * publishes refreshes. Every publish drops memoized documents, so readers of the {@code readWhilePublishing}
+ * group hit the render path far more often than in production, where a refresh comes once per
+ * {@code currencyRate.fetch.frequency}. {@code writerPauseTokens} ({@link Blackhole#consumeCPU(long)}) spaces
+ * publishes out to show how quickly readers get back to the memoized path; the {@code readOnly} group is the baseline
+ * without a writer.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotContentionBenchmark {
+
+    private static final int READERS = 7;
+
+    @Param({"170"})
+    private int currenciesCount;
+
+    @Param({"0", "250000"})
+    private long writerPauseTokens;
+
+    private final CurrencyRateRenderer renderer = new CurrencyRateRenderer(Jackson2ObjectMapperBuilder.json().build());
+    private final AtomicReference<RateSnapshot> currencyRates = new AtomicReference<>(RateSnapshot.EMPTY);
+
+    private BaseExchangeRates fetchedRates;
+    private String[] currencyCodes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fetchedRates = CurrencyRatesBenchmark.buildBaseExchangeRates(currenciesCount);
+        currencyCodes = fetchedRates.currencies().codes().toArray(String[]::new);
+        publish();
+    }
+
+    @Benchmark
+    @Group("readWhilePublishing")
+    @GroupThreads(READERS)
+    public RenderedCurrencyRates reader() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readWhilePublishing")
+    @GroupThreads(1)
+    public RateSnapshot writer() {
+        if (writerPauseTokens > 0) {
+            Blackhole.consumeCPU(writerPauseTokens);
+        }
+
+        return publish();
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(READERS)
+    public RenderedCurrencyRates readerWithoutWriter() {
+        return read();
+    }
+
+    private RenderedCurrencyRates read() {
+        RateSnapshot snapshot = currencyRates.get();
+        String currencyCode = currencyCodes[ThreadLocalRandom.current().nextInt(currencyCodes.length)];
+
+        return snapshot.getRenderedRates(currencyCode,
+            code -> renderer.render(renderer.toCurrencyRateDTO(code, snapshot)));
+    }
+
+    private RateSnapshot publish() {
+        return currencyRates.updateAndGet(snapshot -> snapshot.next(fetchedRates, Instant.now(), RateRepresentation.DECIMAL));
+    }
+
+}
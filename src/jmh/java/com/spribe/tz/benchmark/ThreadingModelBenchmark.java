@@ -0,0 +1,207 @@
+package com.spribe.tz.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spribe.tz.controller.dto.CurrencyRateDTO;
+import com.spribe.tz.controller.dto.RateDTO;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CrossRates;
+import com.spribe.tz.service.impl.model.CurrencyExchangeRate;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import com.spribe.tz.service.impl.model.RateRepresentation;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares Tomcat-like fixed pool of platform threads with a virtual thread per request.
+ * <p>
+ * One operation is a burst of {@code concurrency} simultaneous requests. Each request blocks for
+ * {@code blockingMillis} (stand-in for a JDBC or provider call) and serializes exchange rates of a currency.
+ * Throughput mode reports bursts per second (multiply by {@code concurrency} for requests per second),
+ * sample time mode reports the time to complete a whole burst, which is bounded by its slowest request
+ * including the time it was queued. {@link #requestLatency(RequestLatency)} runs the same bursts and reports latency
+ * of single requests, from submission to completion, as {@code p50Micros}, {@code p99Micros} and {@code maxMicros}
+ * secondary results of every iteration.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadingModelBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final List<String> CURRENCIES = List.of("AUD", "CAD", "CHF", "CNY", "EUR", "GBP", "JPY", "PLN", "UAH", "USD");
+
+    public enum ThreadingModel {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private ThreadingModel threadingModel;
+
+    @Param({"1000", "10000"})
+    private int concurrency;
+
+    @Param({"5"})
+    private int blockingMillis;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private ExecutorService executor;
+    private CrossRates rates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = threadingModel == ThreadingModel.PLATFORM
+            ? Executors.newFixedThreadPool(TOMCAT_MAX_THREADS)
+            : Executors.newVirtualThreadPerTaskExecutor();
+
+        BigDecimal[] providerRates = new BigDecimal[CURRENCIES.size()];
+        for (int id = 0; id < providerRates.length; id++) {
+            providerRates[id] = BigDecimal.valueOf(1 + id * 0.731);
+        }
+        rates = CrossRates.of(new BaseExchangeRates("EUR", Instant.EPOCH, CurrencyIndex.of(CURRENCIES), providerRates),
+            RateRepresentation.DECIMAL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long burst() throws Exception {
+        List<Future<byte[]>> requests = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            String currencyCode = CURRENCIES.get(i % CURRENCIES.size());
+            requests.add(executor.submit(() -> handleRequest(currencyCode)));
+        }
+
+        long bytes = 0;
+        for (Future<byte[]> request : requests) {
+            bytes += request.get().length;
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long requestLatency(final RequestLatency requestLatency) throws Exception {
+        long[] latencies = requestLatency.reserve(concurrency);
+        int offset = requestLatency.count - concurrency;
+
+        List<Future<byte[]>> requests = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            String currencyCode = CURRENCIES.get(i % CURRENCIES.size());
+            int slot = offset + i;
+            long submittedAt = System.nanoTime();
+            requests.add(executor.submit(() -> {
+                byte[] response = handleRequest(currencyCode);
+                latencies[slot] = System.nanoTime() - submittedAt;
+                return response;
+            }));
+        }
+
+        // completed futures publish the latencies written by their requests
+        long bytes = 0;
+        for (Future<byte[]> request : requests) {
+            bytes += request.get().length;
+        }
+        return bytes;
+    }
+
+    private byte[] handleRequest(final String currencyCode) throws Exception {
+        Thread.sleep(blockingMillis);
+
+        Map<String, RateDTO> ratesMap = rates.getExchangeRates(currencyCode).stream()
+                                             .collect(Collectors.toMap(CurrencyExchangeRate::anotherCurrency,
+                                                 rate -> new RateDTO(rate.rate(), rate.doubleConversion())));
+
+        return objectMapper.writeValueAsBytes(new CurrencyRateDTO(currencyCode, ratesMap, 1L, Instant.EPOCH));
+    }
+
+    /**
+     * Latencies of all requests of an iteration. Public methods of an auxiliary counters state are reported by JMH
+     * as secondary results once the iteration ends, so percentiles are not computed within measured operations.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RequestLatency {
+
+        private long[] latencies = new long[0];
+        private int count;
+        private boolean sorted;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            count = 0;
+            sorted = false;
+        }
+
+        public long p50Micros() {
+            return percentileMicros(0.5);
+        }
+
+        public long p99Micros() {
+            return percentileMicros(0.99);
+        }
+
+        public long maxMicros() {
+            return percentileMicros(1.0);
+        }
+
+        /**
+         * @return array with {@code requests} slots reserved at its {@code count - requests} offset
+         */
+        private long[] reserve(final int requests) {
+            if (latencies.length < count + requests) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + requests));
+            }
+            count += requests;
+            return latencies;
+        }
+
+        private long percentileMicros(final double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            if (!sorted) {
+                Arrays.sort(latencies, 0, count);
+                sorted = true;
+            }
+
+            int rank = Math.max(1, (int) Math.ceil(quantile * count));
+            return TimeUnit.NANOSECONDS.toMicros(latencies[rank - 1]);
+        }
+
+    }
+
+}
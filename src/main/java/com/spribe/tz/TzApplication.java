@@ -1,12 +1,18 @@
 package com.spribe.tz;
 
+import com.spribe.tz.service.impl.IntegrationHttpInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @SpringBootApplication
 @EnableJpaAuditing
 @EnableScheduling
@@ -16,9 +22,25 @@ public class TzApplication {
 		SpringApplication.run(TzApplication.class, args);
 	}
 
+	/**
+	 * JDK {@link HttpClient} keeps connections alive and reuses them between calls, negotiating HTTP/2 where the server supports it.
+	 */
 	@Bean
-	public RestTemplate restTemplate() {
-		return new RestTemplate();
+	public RestTemplate restTemplate(@Value("${integration.exchangeRates.http.connectTimeout}") final Duration connectTimeout,
+									 @Value("${integration.exchangeRates.http.readTimeout}") final Duration readTimeout,
+									 final IntegrationHttpInterceptor integrationHttpInterceptor) {
+		HttpClient httpClient = HttpClient.newBuilder()
+										  .version(HttpClient.Version.HTTP_2)
+										  .connectTimeout(connectTimeout)
+										  .followRedirects(HttpClient.Redirect.NORMAL)
+										  .build();
+
+		JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+		requestFactory.setReadTimeout(readTimeout);
+
+		RestTemplate restTemplate = new RestTemplate(requestFactory);
+		restTemplate.getInterceptors().add(integrationHttpInterceptor);
+		return restTemplate;
 	}
 
 }
@@ -1,22 +1,50 @@
 package com.spribe.tz.controller;
 
 import com.spribe.tz.controller.dto.AddCurrencyRequestDTO;
+import com.spribe.tz.controller.dto.ConversionRequestDTO;
+import com.spribe.tz.controller.dto.ConversionsDTO;
 import com.spribe.tz.controller.dto.CurrencyRateDTO;
+import com.spribe.tz.controller.dto.CurrencyStatusDTO;
+import com.spribe.tz.controller.dto.PairRateDTO;
+import com.spribe.tz.controller.dto.RateHistoryDTO;
+import com.spribe.tz.controller.dto.RateRollupsDTO;
+import com.spribe.tz.dao.model.RollupInterval;
+import com.spribe.tz.service.CurrencyConversionService;
 import com.spribe.tz.service.CurrencyRateService;
+import com.spribe.tz.service.RateHistoryService;
+import com.spribe.tz.service.RateStreamService;
+import com.spribe.tz.service.impl.model.RateHistory;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import com.spribe.tz.service.impl.model.RenderedCurrencyRates;
+import com.spribe.tz.service.impl.model.ResponseFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
 import java.util.List;
 
 @RestController
@@ -24,7 +52,14 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CurrencyController {
 
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String RATES_STALE_HEADER = "X-Rates-Stale";
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     private final CurrencyRateService currencyRateService;
+    private final RateHistoryService rateHistoryService;
+    private final CurrencyConversionService currencyConversionService;
+    private final RateStreamService rateStreamService;
 
     @Operation(summary = "Add new currency for getting exchange rates")
     @PostMapping
@@ -36,18 +71,193 @@ public class CurrencyController {
         currencyRateService.addCurrency(request.currencyCode());
     }
 
+    @Operation(summary = "Get onboarding status of a currency")
+    @GetMapping("/{currencyCode}/status")
+    public CurrencyStatusDTO getCurrencyStatus(
+        @Parameter(description = "Currency code (e.g. \"USD\")")
+        @PathVariable("currencyCode") final String currencyCode) {
+        return currencyRateService.getCurrencyStatus(currencyCode);
+    }
+
     @Operation(summary = "Get a list of currencies used in the project")
     @GetMapping
     public List<String> getUsedCurrencies() {
         return currencyRateService.getUsedCurrencies();
     }
 
-    @Operation(summary = "Get exchange rates for a currency")
-    @GetMapping("/{currencyCode}/rates")
-    public CurrencyRateDTO getCurrencyRates(
+    @Operation(summary = "Get exchange rates for a currency",
+               description = "`X-Rates-Stale: true` header means the provider is failing and rates of the last successful fetch are served, `Age` header holds seconds since they were fetched.",
+               responses = @ApiResponse(responseCode = "200", content = {
+                   @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = CurrencyRateDTO.class)),
+                   @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = CurrencyRateDTO.class))}))
+    @GetMapping(path = "/{currencyCode}/rates", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<byte[]> getCurrencyRates(
         @Parameter(description = "Base currency code (e.g. \"USD\")")
-        @PathVariable("currencyCode") final String currencyCode) {
-        return currencyRateService.getCurrencyRates(currencyCode);
+        @PathVariable("currencyCode") final String currencyCode,
+        @RequestHeader(name = HttpHeaders.ACCEPT, required = false) final String accept,
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding) {
+        RenderedCurrencyRates rates = currencyRateService.getRenderedCurrencyRates(currencyCode);
+        ResponseFormat format = negotiateFormat(accept);
+        ResponseEntity.BodyBuilder response = ratesResponse().contentType(toMediaType(format))
+                                                             .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+
+        if (format == ResponseFormat.CBOR) {
+            return response.eTag(rates.cborETag())
+                           .body(rates.cbor());
+        }
+
+        return acceptEncoding != null && acceptEncoding.contains(GZIP_ENCODING)
+            ? response.eTag(rates.gzippedETag())
+                      .header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING)
+                      .body(rates.gzippedJson())
+            : response.eTag(rates.eTag())
+                      .body(rates.json());
+    }
+
+    @Operation(summary = "Get exchange rates for several base currencies",
+               description = "All rates are taken from the same fetch. `X-Rates-Stale: true` header means the provider is failing and rates of the last successful fetch are served, `Age` header holds seconds since they were fetched.",
+               responses = @ApiResponse(responseCode = "200", content = {
+                   @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = CurrencyRateDTO.class))),
+                   @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, array = @ArraySchema(schema = @Schema(implementation = CurrencyRateDTO.class)))}))
+    @GetMapping(path = "/rates", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<byte[]> getCurrenciesRates(
+        @Parameter(description = "Comma separated base currency codes (e.g. \"USD,EUR,GBP\")")
+        @RequestParam("bases") final List<String> currencyCodes,
+        @RequestHeader(name = HttpHeaders.ACCEPT, required = false) final String accept) {
+        ResponseFormat format = negotiateFormat(accept);
+        byte[] rates = currencyRateService.getRenderedCurrencyRates(currencyCodes, format);
+
+        return ratesResponse().contentType(toMediaType(format))
+                              .varyBy(HttpHeaders.ACCEPT)
+                              .body(rates);
+    }
+
+    @Operation(summary = "Get exchange rate of a currency pair",
+               description = "`X-Rates-Stale: true` header means the provider is failing and rate of the last successful fetch is served, `Age` header holds seconds since it was fetched. "
+                             + "Served as JSON or CBOR depending on `Accept` header.")
+    @GetMapping("/{currencyCode}/rates/{anotherCurrencyCode}")
+    public ResponseEntity<PairRateDTO> getPairRate(
+        @Parameter(description = "Base currency code (e.g. \"USD\")")
+        @PathVariable("currencyCode") final String currencyCode,
+        @Parameter(description = "Another currency code (e.g. \"EUR\")")
+        @PathVariable("anotherCurrencyCode") final String anotherCurrencyCode) {
+        PairRateDTO pairRate = currencyRateService.getPairRate(currencyCode, anotherCurrencyCode);
+
+        return ratesResponse().body(pairRate);
+    }
+
+    @Operation(summary = "Subscribe to exchange rates updates of a currency",
+               description = "Server-Sent Events stream. The first `snapshot` event holds all rates, every next `delta` event holds only rates changed "
+                             + "since the previous event (`null` for rates which are not available anymore). Event id is the fetch time of the rates "
+                             + "on the serving node in epoch milliseconds, reconnecting clients resume from the `Last-Event-ID` event "
+                             + "while the node retains it and get all rates otherwise.")
+    @GetMapping(path = "/{currencyCode}/rates/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToCurrencyRates(
+        @Parameter(description = "Base currency code (e.g. \"USD\")")
+        @PathVariable("currencyCode") final String currencyCode,
+        @Parameter(description = "Id of the last received event")
+        @RequestHeader(name = LAST_EVENT_ID_HEADER, required = false) final Long lastEventId) {
+        return rateStreamService.subscribe(currencyCode, lastEventId);
+    }
+
+    @Operation(summary = "Convert amounts between currencies",
+               description = "Items are converted in request order with rates of the same fetch, `convertedAmount` is `null` when rate of the pair is not available, "
+                             + "items that are not objects or hold values of the wrong type get an `error` entry. "
+                             + "Request and response are streamed, so batches of any size can be sent.",
+               responses = @ApiResponse(responseCode = "200", content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                                                                  schema = @Schema(implementation = ConversionsDTO.class))))
+    @PostMapping(path = "/convert", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> convert(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Amounts to be converted", required = true,
+                                                              content = @Content(array = @ArraySchema(schema = @Schema(implementation = ConversionRequestDTO.class)),
+                                                                                 examples = @ExampleObject(value = "[ { \"from\": \"USD\", \"to\": \"EUR\", \"amount\": 10.5 } ]")))
+        final InputStream requestBody) {
+        RateSnapshot snapshot = currencyRateService.getCurrentSnapshot();
+
+        return ratesResponse().contentType(MediaType.APPLICATION_JSON)
+                              .body(outputStream -> currencyConversionService.convert(snapshot, requestBody, outputStream));
+    }
+
+    @Operation(summary = "Get exchange rates history of a currency pair",
+               description = "Rates are ordered by date time. Pass `nextCursor` of the previous page as `cursor` to get the next page.",
+               responses = @ApiResponse(responseCode = "200", content = {
+                   @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = RateHistoryDTO.class)),
+                   @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = RateHistoryDTO.class))}))
+    @GetMapping(path = "/{currencyCode}/history", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<StreamingResponseBody> getRateHistory(
+        @Parameter(description = "Base currency code (e.g. \"USD\")")
+        @PathVariable("currencyCode") final String currencyCode,
+        @Parameter(description = "Another currency code (e.g. \"EUR\")")
+        @RequestParam("to") final String anotherCurrencyCode,
+        @Parameter(description = "Range start, inclusive (e.g. \"2024-01-01T00:00:00Z\")")
+        @RequestParam(name = "from", required = false) final Instant from,
+        @Parameter(description = "Range end, exclusive. Current time by default")
+        @RequestParam(name = "until", required = false) final Instant until,
+        @Parameter(description = "Cursor of the next page")
+        @RequestParam(name = "cursor", required = false) final String cursor,
+        @Parameter(description = "Maximum number of rates in a page")
+        @RequestParam(name = "limit", defaultValue = "1000") final int limit,
+        @RequestHeader(name = HttpHeaders.ACCEPT, required = false) final String accept) {
+        RateHistory rateHistory = rateHistoryService.getRateHistory(currencyCode, anotherCurrencyCode, from, until, cursor, limit);
+        ResponseFormat format = negotiateFormat(accept);
+
+        return ResponseEntity.ok()
+                             .contentType(toMediaType(format))
+                             .varyBy(HttpHeaders.ACCEPT)
+                             .body(outputStream -> rateHistoryService.writeRateHistory(rateHistory, format, outputStream));
+    }
+
+    @Operation(summary = "Get hourly or daily open/high/low/close exchange rates of a currency pair")
+    @GetMapping("/{currencyCode}/rollups")
+    public RateRollupsDTO getRateRollups(
+        @Parameter(description = "Base currency code (e.g. \"USD\")")
+        @PathVariable("currencyCode") final String currencyCode,
+        @Parameter(description = "Another currency code (e.g. \"EUR\")")
+        @RequestParam("to") final String anotherCurrencyCode,
+        @Parameter(description = "Rollup interval")
+        @RequestParam(name = "interval", defaultValue = "DAY") final RollupInterval interval,
+        @Parameter(description = "Range start, inclusive (e.g. \"2024-01-01T00:00:00Z\")")
+        @RequestParam("from") final Instant from,
+        @Parameter(description = "Range end, exclusive. Current time by default")
+        @RequestParam(name = "until", required = false) final Instant until) {
+        return rateHistoryService.getRateRollups(currencyCode, anotherCurrencyCode, interval, from, until);
+    }
+
+    /**
+     * Marks served rates with their freshness: whether the provider is failing and how old they are in seconds.
+     * Called once the served rates are fetched, so a refresh triggered by a cold cache is reflected.
+     */
+    private ResponseEntity.BodyBuilder ratesResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                                                            .header(RATES_STALE_HEADER, String.valueOf(currencyRateService.isStale()));
+        Duration ratesAge = currencyRateService.getRatesAge();
+
+        return ratesAge == null
+            ? response
+            : response.header(HttpHeaders.AGE, String.valueOf(ratesAge.toSeconds()));
+    }
+
+    /**
+     * Picks the acceptable media type with the highest quality, JSON unless CBOR is requested explicitly.
+     */
+    private static ResponseFormat negotiateFormat(final String accept) {
+        if (accept == null) {
+            return ResponseFormat.JSON;
+        }
+
+        return MediaType.parseMediaTypes(accept).stream()
+                        .filter(mediaType -> mediaType.isCompatibleWith(MediaType.APPLICATION_JSON) || mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR))
+                        .max(Comparator.comparingDouble(MediaType::getQualityValue))
+                        .filter(mediaType -> mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR))
+                        .map(mediaType -> ResponseFormat.CBOR)
+                        .orElse(ResponseFormat.JSON);
+    }
+
+    private static MediaType toMediaType(final ResponseFormat format) {
+        return switch (format) {
+            case JSON -> MediaType.APPLICATION_JSON;
+            case CBOR -> MediaType.APPLICATION_CBOR;
+        };
     }
 
 }
@@ -0,0 +1,17 @@
+package com.spribe.tz.controller.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+/**
+ * Converted amount of a single conversion request item. {@code convertedAmount} is {@code null}
+ * when the item is incomplete or rate of the pair is not available.
+ */
+@Builder
+public record ConversionDTO(
+    String from,
+    String to,
+    BigDecimal amount,
+    BigDecimal convertedAmount
+) {}
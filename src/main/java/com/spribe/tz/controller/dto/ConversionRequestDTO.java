@@ -0,0 +1,9 @@
+package com.spribe.tz.controller.dto;
+
+import java.math.BigDecimal;
+
+public record ConversionRequestDTO(
+    String from,
+    String to,
+    BigDecimal amount
+) {}
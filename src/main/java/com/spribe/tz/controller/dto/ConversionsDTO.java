@@ -0,0 +1,16 @@
+package com.spribe.tz.controller.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Results of a batch conversion in order of request items, all calculated with rates of the same fetch.
+ */
+@Builder
+public record ConversionsDTO(
+    long version,
+    Instant fetchedAt,
+    List<ConversionDTO> conversions
+) {}
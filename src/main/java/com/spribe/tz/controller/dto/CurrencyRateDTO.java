@@ -2,10 +2,13 @@ package com.spribe.tz.controller.dto;
 
 import lombok.Builder;
 
+import java.time.Instant;
 import java.util.Map;
 
 @Builder
 public record CurrencyRateDTO(
     String baseCurrency,
-    Map<String, RateDTO> rates
+    Map<String, RateDTO> rates,
+    long version,
+    Instant fetchedAt
 ) {}
@@ -0,0 +1,18 @@
+package com.spribe.tz.controller.dto;
+
+import java.time.Instant;
+
+public record CurrencyStatusDTO(
+    String currencyCode,
+    CurrencyStatus status,
+    Long version,
+    Instant fetchedAt
+) {
+
+    public enum CurrencyStatus {
+        NOT_TRACKED,
+        PENDING,
+        AVAILABLE
+    }
+
+}
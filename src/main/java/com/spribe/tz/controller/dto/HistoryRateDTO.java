@@ -0,0 +1,13 @@
+package com.spribe.tz.controller.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Builder
+public record HistoryRateDTO(
+    BigDecimal rate,
+    Instant dateTime,
+    boolean doubleConversion
+) {}
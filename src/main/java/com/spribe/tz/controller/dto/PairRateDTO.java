@@ -0,0 +1,16 @@
+package com.spribe.tz.controller.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Builder
+public record PairRateDTO(
+    String baseCurrency,
+    String anotherCurrency,
+    BigDecimal rate,
+    boolean doubleConversion,
+    long version,
+    Instant fetchedAt
+) {}
@@ -0,0 +1,16 @@
+package com.spribe.tz.controller.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Page of currency pair rates history. {@code nextCursor} is {@code null} on the last page.
+ */
+@Builder
+public record RateHistoryDTO(
+    String baseCurrency,
+    String anotherCurrency,
+    List<HistoryRateDTO> rates,
+    String nextCursor
+) {}
@@ -0,0 +1,15 @@
+package com.spribe.tz.controller.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Builder
+public record RateRollupDTO(
+    Instant bucketStart,
+    BigDecimal open,
+    BigDecimal high,
+    BigDecimal low,
+    BigDecimal close
+) {}
@@ -0,0 +1,14 @@
+package com.spribe.tz.controller.dto;
+
+import com.spribe.tz.dao.model.RollupInterval;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record RateRollupsDTO(
+    String baseCurrency,
+    String anotherCurrency,
+    RollupInterval interval,
+    List<RateRollupDTO> rollups
+) {}
@@ -0,0 +1,20 @@
+package com.spribe.tz.controller.dto;
+
+import lombok.Builder;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Rates update pushed to subscribers. {@code fromVersion} is {@code null} when all rates of the base currency
+ * are sent, otherwise only rates changed since that version are sent and rates which are not available
+ * anymore are {@code null}.
+ */
+@Builder
+public record RateUpdateDTO(
+    String baseCurrency,
+    Long fromVersion,
+    long version,
+    Instant fetchedAt,
+    Map<String, RateDTO> rates
+) {}
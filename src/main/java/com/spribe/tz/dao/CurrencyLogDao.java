@@ -1,20 +1,65 @@
 package com.spribe.tz.dao;
 
 import com.spribe.tz.dao.entity.CurrencyLog;
+import com.spribe.tz.dao.model.CurrencyLogEntry;
 import com.spribe.tz.dao.repo.CurrencyLogRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class CurrencyLogDao {
 
     private final CurrencyLogRepository currencyLogRepository;
+    private final CurrencyRateRollupDao currencyRateRollupDao;
 
+    /**
+     * Saves currency logs and folds them into rate rollups in the same transaction.
+     */
+    @Transactional
     public Collection<CurrencyLog> saveAll(final Collection<CurrencyLog> currencyLogs) {
-        return currencyLogRepository.saveAll(currencyLogs);
+        List<CurrencyLog> savedLogs = currencyLogRepository.saveAll(currencyLogs);
+        currencyRateRollupDao.updateRollups(savedLogs);
+
+        return savedLogs;
+    }
+
+    /**
+     * @return rates of the base currency written by the most recent refresh, empty when none were written
+     */
+    @Transactional(readOnly = true)
+    public List<CurrencyLog> findLatestRates(final String baseCurrencyCode) {
+        return currencyLogRepository.findFirstByBaseCurrencyCodeOrderByIdDesc(baseCurrencyCode)
+                                    .map(latest -> currencyLogRepository.findByBaseCurrencyCodeAndRateDateTime(
+                                        baseCurrencyCode, latest.getRateDateTime()))
+                                    .orElse(List.of());
+    }
+
+    /**
+     * Passes up to {@code limit} rates of the currency pair after {@code (afterDateTime, afterId)} and before
+     * {@code untilDateTime} to the consumer, ordered by rate date time and id. Rows are read through a database
+     * cursor, so the page is never held in memory as a whole.
+     */
+    @Transactional(readOnly = true)
+    public void streamHistory(final String baseCurrencyCode,
+                              final String anotherCurrencyCode,
+                              final Instant afterDateTime,
+                              final long afterId,
+                              final Instant untilDateTime,
+                              final int limit,
+                              final Consumer<CurrencyLogEntry> consumer) {
+        try (Stream<CurrencyLogEntry> history = currencyLogRepository.streamHistory(
+            baseCurrencyCode, anotherCurrencyCode, afterDateTime, afterId, untilDateTime, Limit.of(limit))) {
+            history.forEach(consumer);
+        }
     }
 
 }
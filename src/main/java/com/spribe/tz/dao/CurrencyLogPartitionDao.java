@@ -0,0 +1,105 @@
+package com.spribe.tz.dao;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Manages monthly range partitions of {@code CURRENCY_LOG} named {@code CURRENCY_LOG_YYYY_MM}.
+ * Month bounds are UTC, as {@code RATE_DATE_TIME} holds UTC wall-clock time.
+ */
+@Service
+@RequiredArgsConstructor
+public class CurrencyLogPartitionDao {
+
+    private static final String PARTITION_PREFIX = "currency_log_";
+    private static final DateTimeFormatter PARTITION_MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return months of existing monthly partitions in ascending order, default partition is not included
+     */
+    public List<YearMonth> getPartitionMonths() {
+        return jdbcTemplate.queryForList("""
+                                             SELECT C.RELNAME
+                                             FROM PG_INHERITS I
+                                             JOIN PG_CLASS C ON C.OID = I.INHRELID
+                                             WHERE I.INHPARENT = 'currency_log'::REGCLASS
+                                             """, String.class).stream()
+                           .map(CurrencyLogPartitionDao::toPartitionMonth)
+                           .filter(Objects::nonNull)
+                           .sorted()
+                           .toList();
+    }
+
+    /**
+     * Postgres rejects a new partition while the default partition holds rows of its range, such rows are
+     * moved into the new partition with the default partition detached for the duration of the transaction.
+     *
+     * @return number of rows moved from the default partition
+     */
+    @Transactional
+    public long createPartition(final YearMonth month) {
+        String partitionName = toPartitionName(month);
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime until = month.plusMonths(1).atDay(1).atStartOfDay();
+        String createPartitionQuery = "CREATE TABLE IF NOT EXISTS %s PARTITION OF CURRENCY_LOG FOR VALUES FROM ('%s') TO ('%s')"
+            .formatted(partitionName, from, until);
+
+        Boolean defaultPartitionHasRows = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM CURRENCY_LOG_DEFAULT WHERE RATE_DATE_TIME >= ? AND RATE_DATE_TIME < ?)",
+            Boolean.class, from, until);
+        if (!Boolean.TRUE.equals(defaultPartitionHasRows)) {
+            jdbcTemplate.execute(createPartitionQuery);
+            return 0;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE CURRENCY_LOG DETACH PARTITION CURRENCY_LOG_DEFAULT");
+        jdbcTemplate.execute(createPartitionQuery);
+        int movedRows = jdbcTemplate.update(
+            "INSERT INTO %s SELECT * FROM CURRENCY_LOG_DEFAULT WHERE RATE_DATE_TIME >= ? AND RATE_DATE_TIME < ?".formatted(partitionName),
+            from, until);
+        jdbcTemplate.update("DELETE FROM CURRENCY_LOG_DEFAULT WHERE RATE_DATE_TIME >= ? AND RATE_DATE_TIME < ?", from, until);
+        jdbcTemplate.execute("ALTER TABLE CURRENCY_LOG ATTACH PARTITION CURRENCY_LOG_DEFAULT DEFAULT");
+
+        return movedRows;
+    }
+
+    /**
+     * Rows outside of monthly partitions are kept in the default partition, they expire the same way.
+     *
+     * @return number of deleted rows
+     */
+    public int deleteDefaultPartitionRowsBefore(final YearMonth month) {
+        return jdbcTemplate.update("DELETE FROM CURRENCY_LOG_DEFAULT WHERE RATE_DATE_TIME < ?", month.atDay(1).atStartOfDay());
+    }
+
+    /**
+     * Drops the whole partition, which is a catalog operation regardless of the number of rows in it.
+     */
+    public void dropPartition(final YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS %s".formatted(toPartitionName(month)));
+    }
+
+    private static String toPartitionName(final YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_MONTH_FORMAT);
+    }
+
+    private static YearMonth toPartitionMonth(final String partitionName) {
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_MONTH_FORMAT);
+        } catch (DateTimeParseException | IndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.spribe.tz.dao;
+
+import com.spribe.tz.dao.entity.CurrencyLog;
+import com.spribe.tz.dao.model.CurrencyRateRollup;
+import com.spribe.tz.dao.model.RollupInterval;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hourly and daily OHLC rollups of currency logs, maintained incrementally on every write.
+ * Buckets are truncated in UTC, on the same UTC wall-clock values {@code DATE_TRUNC} sees in the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class CurrencyRateRollupDao {
+
+    private static final String UPSERT_ROLLUP_QUERY = """
+        INSERT INTO %s AS R (BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, BUCKET_START,
+                             OPEN_RATE, HIGH_RATE, LOW_RATE, CLOSE_RATE, OPEN_DATE_TIME, CLOSE_DATE_TIME)
+        VALUES (:baseCurrencyCode, :anotherCurrencyCode, :bucketStart,
+                :openRate, :highRate, :lowRate, :closeRate, :openDateTime, :closeDateTime)
+        ON CONFLICT (BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, BUCKET_START) DO UPDATE SET
+            OPEN_RATE = CASE WHEN EXCLUDED.OPEN_DATE_TIME < R.OPEN_DATE_TIME THEN EXCLUDED.OPEN_RATE ELSE R.OPEN_RATE END,
+            OPEN_DATE_TIME = LEAST(R.OPEN_DATE_TIME, EXCLUDED.OPEN_DATE_TIME),
+            HIGH_RATE = GREATEST(R.HIGH_RATE, EXCLUDED.HIGH_RATE),
+            LOW_RATE = LEAST(R.LOW_RATE, EXCLUDED.LOW_RATE),
+            CLOSE_RATE = CASE WHEN EXCLUDED.CLOSE_DATE_TIME >= R.CLOSE_DATE_TIME THEN EXCLUDED.CLOSE_RATE ELSE R.CLOSE_RATE END,
+            CLOSE_DATE_TIME = GREATEST(R.CLOSE_DATE_TIME, EXCLUDED.CLOSE_DATE_TIME)
+        """;
+
+    private static final String SELECT_ROLLUPS_QUERY = """
+        SELECT BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, BUCKET_START,
+               OPEN_RATE, HIGH_RATE, LOW_RATE, CLOSE_RATE, OPEN_DATE_TIME, CLOSE_DATE_TIME
+        FROM %s
+        WHERE BASE_CURRENCY_CODE = :baseCurrencyCode
+          AND ANOTHER_CURRENCY_CODE = :anotherCurrencyCode
+          AND BUCKET_START >= :from
+          AND BUCKET_START < :until
+        ORDER BY BUCKET_START
+        """;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Folds currency logs into rollups of every interval. Logs are pre-aggregated per bucket,
+     * so each rollup row is upserted once per call. Upsert is idempotent for already folded logs.
+     */
+    public void updateRollups(final Collection<CurrencyLog> currencyLogs) {
+        for (RollupInterval interval : RollupInterval.values()) {
+            SqlParameterSource[] parameters = aggregate(currencyLogs, interval).stream()
+                                                                               .map(CurrencyRateRollupDao::toParameters)
+                                                                               .toArray(SqlParameterSource[]::new);
+
+            namedParameterJdbcTemplate.batchUpdate(UPSERT_ROLLUP_QUERY.formatted(interval.tableName()), parameters);
+        }
+    }
+
+    public List<CurrencyRateRollup> getRollups(final String baseCurrencyCode,
+                                               final String anotherCurrencyCode,
+                                               final RollupInterval interval,
+                                               final Instant from,
+                                               final Instant until) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+            .addValue("baseCurrencyCode", baseCurrencyCode)
+            .addValue("anotherCurrencyCode", anotherCurrencyCode)
+            .addValue("from", UtcTimestamps.toUtc(from))
+            .addValue("until", UtcTimestamps.toUtc(until));
+
+        return namedParameterJdbcTemplate.query(SELECT_ROLLUPS_QUERY.formatted(interval.tableName()), parameters,
+            (resultSet, rowNumber) -> toRollup(resultSet));
+    }
+
+    private static Collection<CurrencyRateRollup> aggregate(final Collection<CurrencyLog> currencyLogs,
+                                                            final RollupInterval interval) {
+        Map<List<Object>, CurrencyRateRollup> rollups = new LinkedHashMap<>();
+        for (CurrencyLog currencyLog : currencyLogs) {
+            // Instant truncation is UTC
+            Instant bucketStart = currencyLog.getRateDateTime().truncatedTo(interval.unit());
+            CurrencyRateRollup rollup = CurrencyRateRollup.builder()
+                                                          .baseCurrencyCode(currencyLog.getBaseCurrencyCode())
+                                                          .anotherCurrencyCode(currencyLog.getAnotherCurrencyCode())
+                                                          .bucketStart(bucketStart)
+                                                          .openRate(currencyLog.getRate())
+                                                          .highRate(currencyLog.getRate())
+                                                          .lowRate(currencyLog.getRate())
+                                                          .closeRate(currencyLog.getRate())
+                                                          .openDateTime(currencyLog.getRateDateTime())
+                                                          .closeDateTime(currencyLog.getRateDateTime())
+                                                          .build();
+
+            rollups.merge(List.of(currencyLog.getBaseCurrencyCode(), currencyLog.getAnotherCurrencyCode(), bucketStart),
+                rollup, CurrencyRateRollup::merge);
+        }
+
+        return rollups.values();
+    }
+
+    private static SqlParameterSource toParameters(final CurrencyRateRollup rollup) {
+        return new MapSqlParameterSource()
+            .addValue("baseCurrencyCode", rollup.baseCurrencyCode())
+            .addValue("anotherCurrencyCode", rollup.anotherCurrencyCode())
+            .addValue("bucketStart", UtcTimestamps.toUtc(rollup.bucketStart()))
+            .addValue("openRate", rollup.openRate())
+            .addValue("highRate", rollup.highRate())
+            .addValue("lowRate", rollup.lowRate())
+            .addValue("closeRate", rollup.closeRate())
+            .addValue("openDateTime", UtcTimestamps.toUtc(rollup.openDateTime()))
+            .addValue("closeDateTime", UtcTimestamps.toUtc(rollup.closeDateTime()));
+    }
+
+    private static CurrencyRateRollup toRollup(final ResultSet resultSet) throws SQLException {
+        return CurrencyRateRollup.builder()
+                                 .baseCurrencyCode(resultSet.getString("BASE_CURRENCY_CODE"))
+                                 .anotherCurrencyCode(resultSet.getString("ANOTHER_CURRENCY_CODE"))
+                                 .bucketStart(UtcTimestamps.fromUtc(resultSet.getObject("BUCKET_START", LocalDateTime.class)))
+                                 .openRate(resultSet.getBigDecimal("OPEN_RATE"))
+                                 .highRate(resultSet.getBigDecimal("HIGH_RATE"))
+                                 .lowRate(resultSet.getBigDecimal("LOW_RATE"))
+                                 .closeRate(resultSet.getBigDecimal("CLOSE_RATE"))
+                                 .openDateTime(UtcTimestamps.fromUtc(resultSet.getObject("OPEN_DATE_TIME", LocalDateTime.class)))
+                                 .closeDateTime(UtcTimestamps.fromUtc(resultSet.getObject("CLOSE_DATE_TIME", LocalDateTime.class)))
+                                 .build();
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.spribe.tz.dao;
+
+import com.spribe.tz.dao.entity.CurrencyRateSnapshot;
+import com.spribe.tz.dao.model.SnapshotPairEntry;
+import com.spribe.tz.dao.repo.CurrencyRateSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+public class CurrencyRateSnapshotDao {
+
+    private static final int FETCH_SIZE = 1000;
+
+    /**
+     * Extracts only two rates of the pair from each snapshot vector and skips snapshots missing any of them.
+     */
+    private static final String SELECT_PAIR_HISTORY_QUERY = """
+        SELECT ID, RATE_DATE_TIME, PROVIDER_BASE, BASE_RATE, ANOTHER_RATE
+        FROM (
+            SELECT ID,
+                   RATE_DATE_TIME,
+                   PROVIDER_BASE,
+                   RATES[ARRAY_POSITION(CURRENCY_CODES, ?::VARCHAR)] AS BASE_RATE,
+                   RATES[ARRAY_POSITION(CURRENCY_CODES, ?::VARCHAR)] AS ANOTHER_RATE
+            FROM CURRENCY_RATE_SNAPSHOT
+            WHERE RATE_DATE_TIME >= ?
+              AND RATE_DATE_TIME < ?
+              AND (RATE_DATE_TIME > ? OR ID > ?)
+        ) S
+        WHERE BASE_RATE IS NOT NULL
+          AND ANOTHER_RATE IS NOT NULL
+        ORDER BY RATE_DATE_TIME, ID
+        LIMIT ?
+        """;
+
+    private final CurrencyRateSnapshotRepository currencyRateSnapshotRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Saves the provider rates vector only, pair rates and their rollups are derived from it on read.
+     */
+    @Transactional
+    public CurrencyRateSnapshot save(final CurrencyRateSnapshot snapshot) {
+        return currencyRateSnapshotRepository.save(snapshot);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<CurrencyRateSnapshot> findLatest() {
+        return currencyRateSnapshotRepository.findFirstByOrderByIdDesc();
+    }
+
+    /**
+     * Passes up to {@code limit} provider rates of the currency pair after {@code (afterDateTime, afterId)}
+     * and before {@code untilDateTime} to the consumer, ordered by rate date time and snapshot id.
+     */
+    @Transactional(readOnly = true)
+    public void streamPairHistory(final String baseCurrencyCode,
+                                  final String anotherCurrencyCode,
+                                  final Instant afterDateTime,
+                                  final long afterId,
+                                  final Instant untilDateTime,
+                                  final int limit,
+                                  final Consumer<SnapshotPairEntry> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_PAIR_HISTORY_QUERY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setString(1, baseCurrencyCode);
+            statement.setString(2, anotherCurrencyCode);
+            statement.setObject(3, UtcTimestamps.toUtc(afterDateTime));
+            statement.setObject(4, UtcTimestamps.toUtc(untilDateTime));
+            statement.setObject(5, UtcTimestamps.toUtc(afterDateTime));
+            statement.setLong(6, afterId);
+            statement.setInt(7, limit);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(new SnapshotPairEntry(
+            resultSet.getLong("ID"),
+            UtcTimestamps.fromUtc(resultSet.getObject("RATE_DATE_TIME", LocalDateTime.class)),
+            resultSet.getString("PROVIDER_BASE"),
+            resultSet.getBigDecimal("BASE_RATE"),
+            resultSet.getBigDecimal("ANOTHER_RATE"))));
+    }
+
+}
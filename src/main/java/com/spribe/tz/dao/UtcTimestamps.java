@@ -0,0 +1,24 @@
+package com.spribe.tz.dao;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * {@code TIMESTAMP} columns hold UTC wall-clock time, the same as Hibernate writes with
+ * {@code hibernate.jdbc.time_zone: UTC}. Unlike {@link java.sql.Timestamp} these conversions do not depend
+ * on the JVM time zone, so partition bounds and rollup buckets line up with stored values.
+ */
+final class UtcTimestamps {
+
+    private UtcTimestamps() {}
+
+    static LocalDateTime toUtc(final Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    static Instant fromUtc(final LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC);
+    }
+
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -28,7 +29,8 @@ import java.time.Instant;
 @Builder
 public class CurrencyLog {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "currency_log_seq")
+    @SequenceGenerator(name = "currency_log_seq", sequenceName = "CURRENCY_LOG_SEQ", allocationSize = 500)
     private Long id;
     private String baseCurrencyCode;
     private String anotherCurrencyCode;
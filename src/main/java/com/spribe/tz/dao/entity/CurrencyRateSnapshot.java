@@ -0,0 +1,44 @@
+package com.spribe.tz.dao.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@Entity
+@Table(name = "CURRENCY_RATE_SNAPSHOT")
+@EntityListeners(AuditingEntityListener.class)
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CurrencyRateSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String providerBase;
+    private Instant rateDateTime;
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private String[] currencyCodes;
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private BigDecimal[] rates;
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private Instant creationDate;
+}
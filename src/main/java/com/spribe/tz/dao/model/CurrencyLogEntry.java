@@ -0,0 +1,14 @@
+package com.spribe.tz.dao.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Read-only projection of {@link com.spribe.tz.dao.entity.CurrencyLog}, not attached to persistence context.
+ */
+public record CurrencyLogEntry(
+    Long id,
+    BigDecimal rate,
+    Instant rateDateTime,
+    Boolean doubleConversion
+) {}
@@ -0,0 +1,41 @@
+package com.spribe.tz.dao.model;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Open/high/low/close rates of a currency pair within an interval starting at {@code bucketStart}.
+ */
+@Builder(toBuilder = true)
+public record CurrencyRateRollup(
+    String baseCurrencyCode,
+    String anotherCurrencyCode,
+    Instant bucketStart,
+    BigDecimal openRate,
+    BigDecimal highRate,
+    BigDecimal lowRate,
+    BigDecimal closeRate,
+    Instant openDateTime,
+    Instant closeDateTime
+) {
+
+    /**
+     * Combines two rollups of the same bucket.
+     */
+    public CurrencyRateRollup merge(final CurrencyRateRollup another) {
+        boolean anotherOpensEarlier = another.openDateTime.isBefore(openDateTime);
+        boolean anotherClosesLater = !another.closeDateTime.isBefore(closeDateTime);
+
+        return toBuilder()
+            .openRate(anotherOpensEarlier ? another.openRate : openRate)
+            .openDateTime(anotherOpensEarlier ? another.openDateTime : openDateTime)
+            .highRate(highRate.max(another.highRate))
+            .lowRate(lowRate.min(another.lowRate))
+            .closeRate(anotherClosesLater ? another.closeRate : closeRate)
+            .closeDateTime(anotherClosesLater ? another.closeDateTime : closeDateTime)
+            .build();
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.spribe.tz.dao.model;
+
+import java.time.temporal.ChronoUnit;
+
+public enum RollupInterval {
+    HOUR("CURRENCY_RATE_HOURLY", ChronoUnit.HOURS),
+    DAY("CURRENCY_RATE_DAILY", ChronoUnit.DAYS);
+
+    private final String tableName;
+    private final ChronoUnit unit;
+
+    RollupInterval(final String tableName, final ChronoUnit unit) {
+        this.tableName = tableName;
+        this.unit = unit;
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    public ChronoUnit unit() {
+        return unit;
+    }
+}
@@ -0,0 +1,15 @@
+package com.spribe.tz.dao.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Provider rates of a currency pair extracted from a single {@link com.spribe.tz.dao.entity.CurrencyRateSnapshot}.
+ */
+public record SnapshotPairEntry(
+    Long id,
+    Instant rateDateTime,
+    String providerBase,
+    BigDecimal baseRate,
+    BigDecimal anotherRate
+) {}
@@ -1,6 +1,49 @@
 package com.spribe.tz.dao.repo;
 
 import com.spribe.tz.dao.entity.CurrencyLog;
+import com.spribe.tz.dao.model.CurrencyLogEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface CurrencyLogRepository extends JpaRepository<CurrencyLog, Long> {}
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface CurrencyLogRepository extends JpaRepository<CurrencyLog, Long> {
+
+    /**
+     * Seeks rates of the currency pair following {@code (afterDateTime, afterId)} position
+     * in {@code (rateDateTime, id)} order.
+     */
+    @Query("""
+        SELECT new com.spribe.tz.dao.model.CurrencyLogEntry(l.id, l.rate, l.rateDateTime, l.doubleConversion)
+        FROM CurrencyLog l
+        WHERE l.baseCurrencyCode = :baseCurrencyCode
+          AND l.anotherCurrencyCode = :anotherCurrencyCode
+          AND l.rateDateTime >= :afterDateTime
+          AND l.rateDateTime < :untilDateTime
+          AND (l.rateDateTime > :afterDateTime OR l.id > :afterId)
+        ORDER BY l.rateDateTime, l.id
+        """)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<CurrencyLogEntry> streamHistory(@Param("baseCurrencyCode") String baseCurrencyCode,
+                                           @Param("anotherCurrencyCode") String anotherCurrencyCode,
+                                           @Param("afterDateTime") Instant afterDateTime,
+                                           @Param("afterId") long afterId,
+                                           @Param("untilDateTime") Instant untilDateTime,
+                                           Limit limit);
+
+    Optional<CurrencyLog> findFirstByBaseCurrencyCodeOrderByIdDesc(String baseCurrencyCode);
+
+    List<CurrencyLog> findByBaseCurrencyCodeAndRateDateTime(String baseCurrencyCode, Instant rateDateTime);
+
+}
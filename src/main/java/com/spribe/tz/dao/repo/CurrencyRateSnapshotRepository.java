@@ -0,0 +1,12 @@
+package com.spribe.tz.dao.repo;
+
+import com.spribe.tz.dao.entity.CurrencyRateSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface CurrencyRateSnapshotRepository extends JpaRepository<CurrencyRateSnapshot, Long> {
+
+    Optional<CurrencyRateSnapshot> findFirstByOrderByIdDesc();
+
+}
@@ -0,0 +1,13 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.service.impl.model.RateSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface CurrencyConversionService {
+
+    void convert(RateSnapshot snapshot, InputStream requestBody, OutputStream outputStream) throws IOException;
+
+}
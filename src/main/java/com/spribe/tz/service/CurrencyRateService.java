@@ -1,15 +1,48 @@
 package com.spribe.tz.service;
 
 import com.spribe.tz.controller.dto.CurrencyRateDTO;
+import com.spribe.tz.controller.dto.CurrencyStatusDTO;
+import com.spribe.tz.controller.dto.PairRateDTO;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import com.spribe.tz.service.impl.model.RenderedCurrencyRates;
+import com.spribe.tz.service.impl.model.ResponseFormat;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 
 public interface CurrencyRateService {
 
     void addCurrency(String currencyCode);
 
+    CurrencyStatusDTO getCurrencyStatus(String currencyCode);
+
     List<String> getUsedCurrencies();
 
     CurrencyRateDTO getCurrencyRates(String currencyCode);
 
+    RenderedCurrencyRates getRenderedCurrencyRates(String currencyCode);
+
+    /**
+     * @return array of {@link CurrencyRateDTO} of every requested base currency, all taken from the same snapshot
+     */
+    byte[] getRenderedCurrencyRates(Collection<String> currencyCodes, ResponseFormat format);
+
+    PairRateDTO getPairRate(String baseCurrency, String anotherCurrency);
+
+    /**
+     * @return snapshot to serve rates from, fetched first when no rates are cached yet
+     */
+    RateSnapshot getCurrentSnapshot();
+
+    /**
+     * @return time since the served rates were fetched, {@code null} when no rates are cached yet
+     */
+    Duration getRatesAge();
+
+    /**
+     * @return {@code true} when the latest refresh failed and served rates may be outdated
+     */
+    boolean isStale();
+
 }
@@ -1,16 +1,14 @@
 package com.spribe.tz.service;
 
-import com.spribe.tz.service.impl.model.CurrencyExchangeRate;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
 
 import java.util.Collection;
-import java.util.List;
-import java.util.Map;
 
 public interface ExchangeRateIntegrationService {
 
-    Map<String, List<CurrencyExchangeRate>> getExchangeRateForCurrencies(Collection<String> currenciesCodes);
+    BaseExchangeRates getExchangeRateForCurrencies(Collection<String> currenciesCodes);
 
-    Map<String, List<CurrencyExchangeRate>> getExchangeRateForCurrencies(Collection<String> currenciesCodes,
-                                                                         String baseCurrencyCode);
+    BaseExchangeRates getExchangeRateForCurrencies(Collection<String> currenciesCodes,
+                                                   String baseCurrencyCode);
 
 }
@@ -0,0 +1,11 @@
+package com.spribe.tz.service;
+
+/**
+ * Single source of exchange rates. All registered providers are combined by
+ * {@link com.spribe.tz.service.impl.HedgedExchangeRateService}.
+ */
+public interface ExchangeRateProvider extends ExchangeRateIntegrationService {
+
+    String getName();
+
+}
@@ -0,0 +1,26 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.controller.dto.RateRollupsDTO;
+import com.spribe.tz.dao.model.RollupInterval;
+import com.spribe.tz.service.impl.model.RateHistory;
+import com.spribe.tz.service.impl.model.ResponseFormat;
+import com.spribe.tz.service.impl.model.StoredExchangeRates;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RateHistoryService {
+
+    RateHistory getRateHistory(String baseCurrency, String anotherCurrency,
+                               Instant from, Instant until, String cursor, int limit);
+
+    void writeRateHistory(RateHistory rateHistory, ResponseFormat format, OutputStream outputStream) throws IOException;
+
+    RateRollupsDTO getRateRollups(String baseCurrency, String anotherCurrency,
+                                  RollupInterval interval, Instant from, Instant until);
+
+    Optional<StoredExchangeRates> getLatestExchangeRates(String providerBase);
+
+}
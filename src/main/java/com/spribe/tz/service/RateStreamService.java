@@ -0,0 +1,15 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface RateStreamService {
+
+    /**
+     * @param lastEventId id of the last received update to resume from, {@code null} to start with all rates
+     */
+    SseEmitter subscribe(String currencyCode, Long lastEventId);
+
+    void publish(RateSnapshot snapshot);
+
+}
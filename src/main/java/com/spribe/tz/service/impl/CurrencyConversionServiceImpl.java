@@ -0,0 +1,122 @@
+package com.spribe.tz.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spribe.tz.controller.dto.ConversionRequestDTO;
+import com.spribe.tz.service.CurrencyConversionService;
+import com.spribe.tz.service.impl.model.CrossRates;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+@Service
+@RequiredArgsConstructor
+public class CurrencyConversionServiceImpl implements CurrencyConversionService {
+
+    private static final String NOT_AN_OBJECT = "Conversion item should be a {from, to, amount} object.";
+    private static final String INVALID_ITEM = "Conversion item should have text from and to and a numeric amount.";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Reads {@link ConversionRequestDTO} items one by one and writes {@link com.spribe.tz.controller.dto.ConversionsDTO}
+     * JSON as they are converted, so neither the request nor the response is held in memory. All items are converted
+     * with rates of the given snapshot, the one the response headers describe. Every array element gets an entry in
+     * request order, elements that are not objects or whose values can not be bound get an {@code error} entry instead
+     * of a conversion. Only malformed JSON ends the response early.
+     */
+    @Override
+    public void convert(final RateSnapshot snapshot, final InputStream requestBody, final OutputStream outputStream) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(requestBody);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("Conversion request should be a JSON array of {from, to, amount} items.");
+            }
+
+            generator.writeStartObject();
+            generator.writeNumberField("version", snapshot.version());
+            generator.writeObjectField("fetchedAt", snapshot.fetchedAt());
+            generator.writeArrayFieldStart("conversions");
+
+            JsonStreamContext items = parser.getParsingContext();
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token == null) {
+                    throw new RuntimeException("Conversion request array is not closed.");
+                }
+                // the response is already committed, so an item that is not an object is answered in place
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    writeError(generator, NOT_AN_OBJECT);
+                    continue;
+                }
+
+                ConversionRequestDTO item;
+                try {
+                    item = parser.readValueAs(ConversionRequestDTO.class);
+                } catch (JsonMappingException e) {
+                    skipToNextItem(parser, items);
+                    writeError(generator, INVALID_ITEM);
+                    continue;
+                }
+
+                generator.writeStartObject();
+                generator.writeStringField("from", item.from());
+                generator.writeStringField("to", item.to());
+                generator.writeNumberField("amount", item.amount());
+                generator.writeNumberField("convertedAmount", convert(snapshot.rates(), item));
+                generator.writeEndObject();
+            }
+
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeError(final JsonGenerator generator, final String error) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("error", error);
+        generator.writeEndObject();
+    }
+
+    /**
+     * Skips the rest of an item whose binding failed, wherever inside it the parser stopped.
+     */
+    private static void skipToNextItem(final JsonParser parser, final JsonStreamContext items) throws IOException {
+        while (parser.getParsingContext() != items) {
+            if (parser.nextToken() == null) {
+                throw new RuntimeException("Conversion request array is not closed.");
+            }
+        }
+    }
+
+    /**
+     * @return converted amount, {@code null} when item is incomplete or rate of the pair is not available
+     */
+    private static BigDecimal convert(final CrossRates rates, final ConversionRequestDTO item) {
+        if (item.from() == null || item.to() == null || item.amount() == null) {
+            return null;
+        }
+        if (item.from().equals(item.to())) {
+            return rates.contains(item.from()) ? item.amount() : null;
+        }
+
+        CurrencyIndex currencies = rates.currencies();
+        int fromId = currencies.idOf(item.from());
+        int toId = currencies.idOf(item.to());
+        BigDecimal rate = fromId < 0 || toId < 0 ? null : rates.rate(fromId, toId);
+
+        return rate == null ? null : item.amount().multiply(rate, MathContext.DECIMAL64);
+    }
+
+}
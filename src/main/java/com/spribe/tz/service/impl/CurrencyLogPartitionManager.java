@@ -0,0 +1,62 @@
+package com.spribe.tz.service.impl;
+
+import com.spribe.tz.dao.CurrencyLogPartitionDao;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@code CURRENCY_LOG} monthly partitions ahead of time and drops partitions older than
+ * {@code currencyRate.history.retentionMonths}. Months are UTC, the same as stored rate date times.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CurrencyLogPartitionManager {
+
+    private final CurrencyLogPartitionDao currencyLogPartitionDao;
+
+    @Value("${currencyRate.history.partitionsAhead}")
+    private int partitionsAhead;
+
+    @Value("${currencyRate.history.retentionMonths}")
+    private int retentionMonths;
+
+    @Scheduled(fixedDelayString = "${currencyRate.history.partitionMaintenance.frequency}", timeUnit = TimeUnit.HOURS)
+    private void maintainPartitions() {
+        maintainPartitionsFor(YearMonth.now(ZoneOffset.UTC));
+    }
+
+    private void maintainPartitionsFor(final YearMonth currentMonth) {
+        List<YearMonth> partitionMonths = currencyLogPartitionDao.getPartitionMonths();
+
+        for (int monthsAhead = 0; monthsAhead <= partitionsAhead; monthsAhead++) {
+            YearMonth month = currentMonth.plusMonths(monthsAhead);
+            if (!partitionMonths.contains(month)) {
+                long movedRows = currencyLogPartitionDao.createPartition(month);
+                log.info("Created currency log partition for {}, {} logs moved from default partition.", month, movedRows);
+            }
+        }
+
+        YearMonth oldestRetainedMonth = currentMonth.minusMonths(retentionMonths);
+        partitionMonths.stream()
+                       .filter(month -> month.isBefore(oldestRetainedMonth))
+                       .forEach(month -> {
+                           currencyLogPartitionDao.dropPartition(month);
+                           log.info("Dropped expired currency log partition for {}.", month);
+                       });
+
+        int expiredRows = currencyLogPartitionDao.deleteDefaultPartitionRowsBefore(oldestRetainedMonth);
+        if (expiredRows > 0) {
+            log.info("Deleted {} expired currency logs from default partition.", expiredRows);
+        }
+    }
+
+}
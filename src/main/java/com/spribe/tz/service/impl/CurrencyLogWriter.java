@@ -0,0 +1,256 @@
+package com.spribe.tz.service.impl;
+
+import com.spribe.tz.dao.CurrencyLogDao;
+import com.spribe.tz.dao.CurrencyRateSnapshotDao;
+import com.spribe.tz.dao.entity.CurrencyLog;
+import com.spribe.tz.dao.entity.CurrencyRateSnapshot;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CrossRates;
+import com.spribe.tz.service.impl.model.CurrencyLogWriterStats;
+import com.spribe.tz.service.impl.model.HistoryStorage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind stage between exchange rates refresh and history persistence.
+ * <p>
+ * Refreshes hand their immutable rates over with {@link #enqueue(CrossRates)} and never wait for the database.
+ * A single worker thread materializes pair logs and writes them in batches of {@code currencyRate.history.batchSize}
+ * or whatever was collected within {@code currencyRate.history.flushInterval}. With {@link HistoryStorage#SNAPSHOT}
+ * storage every refresh is written as a single snapshot row instead, pair logs are not materialized. When more than
+ * {@code currencyRate.history.queueCapacity} pair logs are pending, whole refreshes are dropped and counted
+ * instead of blocking the caller.
+ * <p>
+ * Failed writes are retried up to {@code currencyRate.history.maxAttempts} times. Ids assigned by the failed
+ * attempt are kept, so a retry of a write whose commit actually succeeded merges rows by primary key
+ * instead of inserting them twice.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CurrencyLogWriter implements SmartLifecycle {
+
+    private final BlockingQueue<CrossRates> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong pendingLogs = new AtomicLong();
+    private final AtomicLong writtenLogs = new AtomicLong();
+    private final AtomicLong droppedLogs = new AtomicLong();
+    private final AtomicLong failedLogs = new AtomicLong();
+    private final AtomicLong retriedBatches = new AtomicLong();
+
+    private final CurrencyLogDao currencyLogDao;
+    private final CurrencyRateSnapshotDao currencyRateSnapshotDao;
+
+    @Value("${currencyRate.history.storage}")
+    private HistoryStorage historyStorage;
+
+    @Value("${currencyRate.history.queueCapacity}")
+    private long queueCapacity;
+
+    @Value("${currencyRate.history.batchSize}")
+    private int batchSize;
+
+    @Value("${currencyRate.history.flushInterval}")
+    private Duration flushInterval;
+
+    @Value("${currencyRate.history.maxAttempts}")
+    private int maxAttempts;
+
+    @Value("${currencyRate.history.retryBackoff}")
+    private Duration retryBackoff;
+
+    @Value("${currencyRate.history.shutdownTimeout}")
+    private Duration shutdownTimeout;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * Queues rates of one refresh for writing.
+     *
+     * @return {@code false} when rates were dropped because the queue is full
+     */
+    public boolean enqueue(final CrossRates rates) {
+        long pairsCount = rates.pairsCount();
+        if (pairsCount == 0) {
+            return true;
+        }
+
+        long pending = pendingLogs.addAndGet(pairsCount);
+        // a single refresh larger than the capacity is still accepted by an empty queue
+        if (pending > queueCapacity && pending != pairsCount) {
+            pendingLogs.addAndGet(-pairsCount);
+            droppedLogs.addAndGet(pairsCount);
+            log.warn("Currency log queue is full, dropped {} logs.", pairsCount);
+            return false;
+        }
+
+        queue.add(rates);
+        return true;
+    }
+
+    public CurrencyLogWriterStats getStats() {
+        return new CurrencyLogWriterStats(
+            pendingLogs.get(),
+            writtenLogs.get(),
+            droppedLogs.get(),
+            failedLogs.get(),
+            retriedBatches.get());
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        worker = Thread.ofPlatform()
+                       .name("currency-log-writer")
+                       .start(this::processQueue);
+    }
+
+    /**
+     * Signals the worker to flush everything already queued and waits up to
+     * {@code currencyRate.history.shutdownTimeout} for it to finish.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        try {
+            worker.join(shutdownTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (worker.isAlive()) {
+            log.warn("Currency log writer did not flush in {}, {} logs are not written.", shutdownTimeout, pendingLogs.get());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void processQueue() {
+        List<CrossRates> batch = new ArrayList<>();
+        long batchLogs = 0;
+        long flushDeadline = 0;
+
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            long timeout = batch.isEmpty() ? flushInterval.toNanos() : flushDeadline - System.nanoTime();
+
+            CrossRates rates;
+            try {
+                rates = running && timeout > 0
+                    ? queue.poll(timeout, TimeUnit.NANOSECONDS)
+                    : queue.poll();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                continue;
+            }
+
+            if (rates != null) {
+                if (batch.isEmpty()) {
+                    flushDeadline = System.nanoTime() + flushInterval.toNanos();
+                }
+                batch.add(rates);
+                batchLogs += rates.pairsCount();
+            }
+
+            if (!batch.isEmpty() && (batchLogs >= batchSize || System.nanoTime() - flushDeadline >= 0 || !running)) {
+                flush(batch);
+                pendingLogs.addAndGet(-batchLogs);
+                batch = new ArrayList<>();
+                batchLogs = 0;
+            }
+        }
+    }
+
+    private void flush(final List<CrossRates> batch) {
+        switch (historyStorage) {
+            case PAIRS -> {
+                List<CurrencyLog> currencyLogs = batch.stream()
+                                                      .flatMap(rates -> toCurrencyLogs(rates).stream())
+                                                      .toList();
+                for (int from = 0; from < currencyLogs.size(); from += batchSize) {
+                    List<CurrencyLog> chunk = currencyLogs.subList(from, Math.min(from + batchSize, currencyLogs.size()));
+                    write(chunk.size(), () -> currencyLogDao.saveAll(chunk));
+                }
+            }
+            // counted in pair rates the snapshot represents, the same unit as PAIRS storage
+            case SNAPSHOT -> batch.forEach(rates -> {
+                CurrencyRateSnapshot snapshot = toSnapshot(rates.baseRates());
+                write(rates.pairsCount(), () -> currencyRateSnapshotDao.save(snapshot));
+            });
+        }
+    }
+
+    private void write(final long size, final Runnable operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                operation.run();
+                writtenLogs.addAndGet(size);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    failedLogs.addAndGet(size);
+                    log.error("Unable to write {} currency logs after {} attempts.", size, attempt, e);
+                    return;
+                }
+
+                retriedBatches.incrementAndGet();
+                log.warn("Unable to write {} currency logs, attempt {} of {}.", size, attempt, maxAttempts, e);
+                backOff(attempt);
+            }
+        }
+    }
+
+    private static List<CurrencyLog> toCurrencyLogs(final CrossRates rates) {
+        return rates.currencies().codes().stream()
+                    .flatMap(currency -> rates.getExchangeRates(currency).stream())
+                    .map(rate -> CurrencyLog.builder()
+                                            .baseCurrencyCode(rate.baseCurrency())
+                                            .anotherCurrencyCode(rate.anotherCurrency())
+                                            .rate(rate.rate())
+                                            .rateDateTime(rate.dateTime())
+                                            .doubleConversion(rate.doubleConversion())
+                                            .build())
+                    .toList();
+    }
+
+    private static CurrencyRateSnapshot toSnapshot(final BaseExchangeRates baseRates) {
+        return CurrencyRateSnapshot.builder()
+                                   .providerBase(baseRates.providerBase())
+                                   .rateDateTime(baseRates.dateTime())
+                                   .currencyCodes(baseRates.currencies().codes().toArray(String[]::new))
+                                   .rates(baseRates.rates().clone())
+                                   .build();
+    }
+
+    private void backOff(final int attempt) {
+        try {
+            Thread.sleep(retryBackoff.multipliedBy(attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.spribe.tz.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.spribe.tz.controller.dto.CurrencyRateDTO;
+import com.spribe.tz.controller.dto.PairRateDTO;
+import com.spribe.tz.controller.dto.RateDTO;
+import com.spribe.tz.service.impl.model.CurrencyExchangeRate;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import com.spribe.tz.service.impl.model.RenderedCurrencyRates;
+import com.spribe.tz.service.impl.model.ResponseFormat;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+@Component
+public class CurrencyRateRenderer {
+
+    private static final int CBOR_INDEFINITE_ARRAY_START = 0x9F;
+    private static final int CBOR_BREAK = 0xFF;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+
+    public CurrencyRateRenderer(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.cborMapper = objectMapper.copyWith(new CBORFactory());
+    }
+
+    public RenderedCurrencyRates render(final CurrencyRateDTO currencyRate) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(currencyRate);
+
+            return new RenderedCurrencyRates(json, gzip(json), DigestUtils.md5DigestAsHex(json), () -> renderCbor(currencyRate));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to render exchange rates for currency '%s'.".formatted(currencyRate.baseCurrency()), e);
+        }
+    }
+
+    /**
+     * Joins already rendered documents of several base currencies into an array without serializing them again.
+     */
+    public byte[] renderArray(final List<RenderedCurrencyRates> renderedRates, final ResponseFormat format) {
+        List<byte[]> items = renderedRates.stream()
+                                          .map(rendered -> format == ResponseFormat.CBOR ? rendered.cbor() : rendered.json())
+                                          .toList();
+        ByteArrayOutputStream result = new ByteArrayOutputStream(items.stream().mapToInt(item -> item.length + 1).sum() + 1);
+
+        switch (format) {
+            case JSON -> {
+                result.write('[');
+                for (int i = 0; i < items.size(); i++) {
+                    if (i > 0) {
+                        result.write(',');
+                    }
+                    result.writeBytes(items.get(i));
+                }
+                result.write(']');
+            }
+            case CBOR -> {
+                // indefinite-length array needs no item count in the header
+                result.write(CBOR_INDEFINITE_ARRAY_START);
+                items.forEach(result::writeBytes);
+                result.write(CBOR_BREAK);
+            }
+        }
+
+        return result.toByteArray();
+    }
+
+    public CurrencyRateDTO toCurrencyRateDTO(final String currencyCode, final RateSnapshot snapshot) {
+        if (!snapshot.rates().contains(currencyCode)) {
+            return null;
+        }
+
+        Map<String, RateDTO> ratesMap = snapshot.rates().getExchangeRates(currencyCode).stream()
+                                                .collect(Collectors.toMap(CurrencyExchangeRate::anotherCurrency,
+                                                    rate -> RateDTO.builder()
+                                                                   .rate(rate.rate())
+                                                                   .doubleConversion(rate.doubleConversion())
+                                                                   .build()));
+
+        return CurrencyRateDTO.builder()
+                              .baseCurrency(currencyCode)
+                              .rates(ratesMap)
+                              .version(snapshot.version())
+                              .fetchedAt(snapshot.fetchedAt())
+                              .build();
+    }
+
+    public PairRateDTO toPairRateDTO(final String baseCurrency, final String anotherCurrency, final RateSnapshot snapshot) {
+        CurrencyExchangeRate rate = snapshot.rates().getExchangeRate(baseCurrency, anotherCurrency);
+        if (rate == null) {
+            return null;
+        }
+
+        return PairRateDTO.builder()
+                          .baseCurrency(baseCurrency)
+                          .anotherCurrency(anotherCurrency)
+                          .rate(rate.rate())
+                          .doubleConversion(rate.doubleConversion())
+                          .version(snapshot.version())
+                          .fetchedAt(snapshot.fetchedAt())
+                          .build();
+    }
+
+    private byte[] renderCbor(final CurrencyRateDTO currencyRate) {
+        try {
+            return cborMapper.writeValueAsBytes(currencyRate);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to render exchange rates for currency '%s'.".formatted(currencyRate.baseCurrency()), e);
+        }
+    }
+
+    private static byte[] gzip(final byte[] content) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(result)) {
+            gzipStream.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return result.toByteArray();
+    }
+
+}
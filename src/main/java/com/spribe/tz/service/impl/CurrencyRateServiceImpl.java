@@ -1,112 +1,484 @@
 package com.spribe.tz.service.impl;
 
 import com.spribe.tz.controller.dto.CurrencyRateDTO;
-import com.spribe.tz.controller.dto.RateDTO;
+import com.spribe.tz.controller.dto.CurrencyStatusDTO;
+import com.spribe.tz.controller.dto.CurrencyStatusDTO.CurrencyStatus;
+import com.spribe.tz.controller.dto.PairRateDTO;
 import com.spribe.tz.dao.CurrencyDao;
 import com.spribe.tz.dao.entity.Currency;
-import com.spribe.tz.dao.entity.CurrencyLog;
-import com.spribe.tz.dao.CurrencyLogDao;
 import com.spribe.tz.service.CurrencyRateService;
 import com.spribe.tz.service.ExchangeRateIntegrationService;
-import com.spribe.tz.service.impl.model.CurrencyExchangeRate;
-import lombok.RequiredArgsConstructor;
+import com.spribe.tz.service.RateHistoryService;
+import com.spribe.tz.service.RateStreamService;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CrossRates;
+import com.spribe.tz.service.impl.model.RateRepresentation;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import com.spribe.tz.service.impl.model.RenderedCurrencyRates;
+import com.spribe.tz.service.impl.model.ResponseFormat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.TriggerContext;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 import static java.util.function.Predicate.not;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
-public class CurrencyRateServiceImpl implements CurrencyRateService {
+public class CurrencyRateServiceImpl implements CurrencyRateService, SmartInitializingSingleton, SchedulingConfigurer {
 
-    private final Map<String, List<CurrencyExchangeRate>> currencyRates = new HashMap<>();
+    private final AtomicReference<RateSnapshot> currencyRates = new AtomicReference<>(RateSnapshot.EMPTY);
+    private final Set<String> pendingCurrencies = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean onboardingScheduled = new AtomicBoolean();
+    private final AtomicReference<InFlightRefresh> inFlightRefresh = new AtomicReference<>();
 
     private final CurrencyDao currencyDao;
-    private final CurrencyLogDao currencyLogDao;
+    private final CurrencyLogWriter currencyLogWriter;
     private final ExchangeRateIntegrationService exchangeRateIntegrationService;
+    private final CurrencyRateRenderer currencyRateRenderer;
+    private final CurrencyRegistry currencyRegistry;
+    private final TaskScheduler taskScheduler;
+    private final ProviderCircuitBreaker providerCircuitBreaker;
+    private final RateHistoryService rateHistoryService;
+    private final RateStreamService rateStreamService;
+    private final MeterRegistry meterRegistry;
+    private final Counter renderedRatesHits;
+    private final Counter renderedRatesMisses;
+    private final Timer refreshSuccesses;
+    private final Timer refreshSkips;
+    private final Timer refreshFailures;
+    private final Timer scheduledRefreshSuccesses;
+    private final Timer scheduledRefreshSkips;
+    private final Timer scheduledRefreshFailures;
 
+    private volatile boolean refreshFailed;
+    private volatile RateSnapshot restoredSnapshot;
+    private volatile Instant deferredRefreshAt;
+
+    @Value("${currencyRate.onboarding.debounce}")
+    private Duration onboardingDebounce;
+
+    @Value("${currencyRate.refresh.waitTimeout}")
+    private Duration refreshWaitTimeout;
+
+    @Value("${currencyRate.representation}")
+    private RateRepresentation rateRepresentation;
+
+    @Value("${currencyRate.fetch.frequency}")
+    private long fetchFrequency;
+
+    @Value("${integration.exchangeRates.baseCurrency}")
+    private String providerBaseCurrency;
+
+    /**
+     * Meters of the read and refresh paths are registered once, so recording them does not look up the registry.
+     */
+    public CurrencyRateServiceImpl(final CurrencyDao currencyDao,
+                                   final CurrencyLogWriter currencyLogWriter,
+                                   final ExchangeRateIntegrationService exchangeRateIntegrationService,
+                                   final CurrencyRateRenderer currencyRateRenderer,
+                                   final CurrencyRegistry currencyRegistry,
+                                   final TaskScheduler taskScheduler,
+                                   final ProviderCircuitBreaker providerCircuitBreaker,
+                                   final RateHistoryService rateHistoryService,
+                                   final RateStreamService rateStreamService,
+                                   final MeterRegistry meterRegistry) {
+        this.currencyDao = currencyDao;
+        this.currencyLogWriter = currencyLogWriter;
+        this.exchangeRateIntegrationService = exchangeRateIntegrationService;
+        this.currencyRateRenderer = currencyRateRenderer;
+        this.currencyRegistry = currencyRegistry;
+        this.taskScheduler = taskScheduler;
+        this.providerCircuitBreaker = providerCircuitBreaker;
+        this.rateHistoryService = rateHistoryService;
+        this.rateStreamService = rateStreamService;
+        this.meterRegistry = meterRegistry;
+        this.renderedRatesHits = meterRegistry.counter("currency.rates.rendered", "cache", "hit");
+        this.renderedRatesMisses = meterRegistry.counter("currency.rates.rendered", "cache", "miss");
+        this.refreshSuccesses = refreshTimer(meterRegistry, "success");
+        this.refreshSkips = refreshTimer(meterRegistry, "skipped");
+        this.refreshFailures = refreshTimer(meterRegistry, "failure");
+        this.scheduledRefreshSuccesses = meterRegistry.timer("currency.rates.scheduled.refresh", "outcome", "success");
+        this.scheduledRefreshSkips = meterRegistry.timer("currency.rates.scheduled.refresh", "outcome", "skipped");
+        this.scheduledRefreshFailures = meterRegistry.timer("currency.rates.scheduled.refresh", "outcome", "failure");
+    }
+
+    /**
+     * Warm start: publishes the latest persisted rates before scheduled tasks start and before the application
+     * reports readiness, so first readers after a deploy do not wait for the provider.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            rateHistoryService.getLatestExchangeRates(providerBaseCurrency)
+                              .ifPresent(stored -> {
+                                  restoredSnapshot = currencyRates.updateAndGet(snapshot -> snapshot.isEmpty()
+                                      ? snapshot.next(stored.rates(), stored.fetchedAt(), rateRepresentation)
+                                      : snapshot);
+                                  rateStreamService.publish(restoredSnapshot);
+                                  log.info("Restored exchange rates of {} currencies fetched at {}.",
+                                      stored.rates().currencies().size(), stored.fetchedAt());
+                              });
+        } catch (RuntimeException e) {
+            log.warn("Unable to restore exchange rates from history, they will be fetched from provider.", e);
+        }
+    }
+
+    /**
+     * Registers currency and queues it for onboarding. Currencies added within
+     * {@code currencyRate.onboarding.debounce} are fetched together by a single refresh.
+     */
     @Override
     public void addCurrency(final String currencyCode) {
         currencyDao.save(new Currency(currencyCode));
+        currencyRegistry.register(currencyCode);
 
-        refreshCurrencyRates(getCurrenciesCodes());
+        pendingCurrencies.add(currencyCode);
+        if (onboardingScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::onboardPendingCurrencies, Instant.now().plus(onboardingDebounce));
+        }
+    }
+
+    @Override
+    public CurrencyStatusDTO getCurrencyStatus(final String currencyCode) {
+        if (!currencyRegistry.contains(currencyCode)) {
+            return new CurrencyStatusDTO(currencyCode, CurrencyStatus.NOT_TRACKED, null, null);
+        }
+
+        RateSnapshot snapshot = currencyRates.get();
+        return snapshot.rates().contains(currencyCode)
+            ? new CurrencyStatusDTO(currencyCode, CurrencyStatus.AVAILABLE, snapshot.version(), snapshot.fetchedAt())
+            : new CurrencyStatusDTO(currencyCode, CurrencyStatus.PENDING, null, null);
     }
 
     @Override
     public List<String> getUsedCurrencies() {
-        return getCurrenciesCodes().stream()
-                          .sorted()
-                          .toList();
+        return currencyRegistry.getCurrencyCodes();
     }
 
     @Override
     public CurrencyRateDTO getCurrencyRates(final String currencyCode) {
-        Optional.ofNullable(currencyCode)
-                .filter(not(currencyDao::checkIfExistsByCurrencyCode))
-                .ifPresent(code -> {
-                    throw new RuntimeException("""
-                        Currency '%s' is not available for getting exchange rates.
-                        Please try to add currencyCode using existing API.
-                        """.formatted(currencyCode));
-                });
-
-        if (currencyRates.isEmpty()) {
-            refreshCurrencyRates(getCurrenciesCodes());
-        }
-
-        return Optional.ofNullable(currencyRates.get(currencyCode))
-                       .map(rates -> {
-                           Map<String, RateDTO> ratesMap = rates.stream()
-                                                                .collect(Collectors.toMap(CurrencyExchangeRate::anotherCurrency,
-                                                                    rate -> RateDTO.builder()
-                                                                                   .rate(rate.rate())
-                                                                                   .doubleConversion(rate.doubleConversion())
-                                                                                   .build()));
-
-                           return CurrencyRateDTO.builder()
-                                                 .baseCurrency(currencyCode)
-                                                 .rates(ratesMap)
-                                                 .build();
-                       })
+        return Optional.ofNullable(currencyRateRenderer.toCurrencyRateDTO(currencyCode, getServableSnapshot(List.of(currencyCode))))
                        .orElseThrow();
     }
 
-    @Scheduled(fixedDelayString = "${currencyRate.fetch.frequency}", timeUnit = TimeUnit.SECONDS)
+    /**
+     * Rates keep being served from the last published snapshot while the provider is failing,
+     * this flag tells clients they may be outdated.
+     */
+    @Override
+    public boolean isStale() {
+        return refreshFailed;
+    }
+
+    @Override
+    public RenderedCurrencyRates getRenderedCurrencyRates(final String currencyCode) {
+        return getRenderedRates(currencyCode, getServableSnapshot(List.of(currencyCode)));
+    }
+
+    /**
+     * Each base currency is rendered once per snapshot and shared with {@link #getRenderedCurrencyRates(String)},
+     * so a response for several bases only joins memoized documents.
+     */
+    @Override
+    public byte[] getRenderedCurrencyRates(final Collection<String> currencyCodes, final ResponseFormat format) {
+        List<String> baseCurrencies = currencyCodes.stream()
+                                                   .distinct()
+                                                   .toList();
+        if (baseCurrencies.isEmpty()) {
+            throw new RuntimeException("At least one base currency should be requested.");
+        }
+
+        RateSnapshot snapshot = getServableSnapshot(baseCurrencies);
+
+        return currencyRateRenderer.renderArray(baseCurrencies.stream()
+                                                              .map(currencyCode -> getRenderedRates(currencyCode, snapshot))
+                                                              .toList(), format);
+    }
+
+    /**
+     * Looks the pair up in the current snapshot directly, rates of the base currency to other currencies are not built.
+     */
+    @Override
+    public PairRateDTO getPairRate(final String baseCurrency, final String anotherCurrency) {
+        RateSnapshot snapshot = getServableSnapshot(List.of(baseCurrency, anotherCurrency));
+
+        return Optional.ofNullable(currencyRateRenderer.toPairRateDTO(baseCurrency, anotherCurrency, snapshot))
+                       .orElseThrow(() -> new RuntimeException("Exchange rate of '%s' to '%s' is not available."
+                                                                   .formatted(baseCurrency, anotherCurrency)));
+    }
+
+    @Override
+    public RateSnapshot getCurrentSnapshot() {
+        return getServableSnapshot(List.of());
+    }
+
+    @Override
+    public Duration getRatesAge() {
+        RateSnapshot snapshot = currencyRates.get();
+
+        return snapshot.isEmpty() ? null : Duration.between(snapshot.fetchedAt(), Instant.now());
+    }
+
+    /**
+     * Schedules {@link #receiveExchangeRates()} with {@link #nextScheduledRefresh(TriggerContext)}, a fixed delay
+     * that keeps the refresh of restored rates due at their own age rather than at the application start.
+     */
+    @Override
+    public void configureTasks(final ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addTriggerTask(this::receiveExchangeRates, this::nextScheduledRefresh);
+    }
+
     private void receiveExchangeRates() {
-        Map<String, List<CurrencyExchangeRate>> rates = refreshCurrencyRates(getCurrenciesCodes());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Timer outcome = scheduledRefreshFailures;
+        try {
+            currencyRegistry.reload();
+            deferredRefreshAt = null;
+            if (isRestoredSnapshotFresh()) {
+                deferredRefreshAt = restoredSnapshot.fetchedAt().plusSeconds(fetchFrequency);
+                log.debug("Restored exchange rates are younger than {} seconds, refresh is deferred until {}.",
+                    fetchFrequency, deferredRefreshAt);
+                outcome = scheduledRefreshSkips;
+                return;
+            }
+
+            currencyLogWriter.enqueue(refreshCurrencyRates(currencyRegistry.getCurrencyCodes()));
+            outcome = scheduledRefreshSuccesses;
+        } finally {
+            sample.stop(outcome);
+        }
+    }
+
+    /**
+     * Retries a failed refresh without waiting for the next scheduled one. While the circuit is open
+     * these attempts fail fast, the first one after {@code openDuration} probes the provider.
+     */
+    @Scheduled(fixedDelayString = "${integration.exchangeRates.circuitBreaker.probeFrequency}", timeUnit = TimeUnit.SECONDS)
+    private void probeProvider() {
+        if (!refreshFailed) {
+            return;
+        }
+
+        try {
+            receiveExchangeRates();
+        } catch (RuntimeException e) {
+            log.debug("Exchange rates provider probe failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * {@code currencyRate.fetch.frequency} after the previous refresh completed, the first one runs at once.
+     * When it was skipped for fresh restored rates, the next one is due when they get older than the frequency.
+     */
+    private Instant nextScheduledRefresh(final TriggerContext triggerContext) {
+        Instant lastCompletion = triggerContext.lastCompletion();
+        if (lastCompletion == null) {
+            return triggerContext.getClock().instant();
+        }
 
-        rates.forEach((currency, exchangeRates) ->
-            currencyLogDao.saveAll(
-                exchangeRates.stream()
-                             .map(rate -> CurrencyLog.builder()
-                                                     .baseCurrencyCode(currency)
-                                                     .anotherCurrencyCode(rate.anotherCurrency())
-                                                     .rate(rate.rate())
-                                                     .rateDateTime(rate.dateTime())
-                                                     .doubleConversion(rate.doubleConversion())
-                                                     .build())
-                             .toList()));
+        Instant deferred = deferredRefreshAt;
+        return deferred != null ? deferred : lastCompletion.plusSeconds(fetchFrequency);
     }
 
-    private Map<String, List<CurrencyExchangeRate>> refreshCurrencyRates(final Collection<String> currenciesCodes) {
-        Map<String, List<CurrencyExchangeRate>> rates = exchangeRateIntegrationService.getExchangeRateForCurrencies(currenciesCodes);
-        currencyRates.putAll(rates);
+    /**
+     * Restored rates are refreshed only once they get older than {@code currencyRate.fetch.frequency}
+     * or when currencies were added after they were written.
+     */
+    private boolean isRestoredSnapshotFresh() {
+        RateSnapshot snapshot = currencyRates.get();
 
-        return rates;
+        return snapshot == restoredSnapshot
+            && snapshot.fetchedAt().plusSeconds(fetchFrequency).isAfter(Instant.now())
+            && snapshot.rates().currencies().codes().containsAll(currencyRegistry.getCurrencyCodes());
     }
 
-    private List<String> getCurrenciesCodes() {
-        return currencyDao.getCurrencies().stream()
-                          .map(Currency::getCurrencyCode)
-                          .toList();
+    private void onboardPendingCurrencies() {
+        onboardingScheduled.set(false);
+
+        Set<String> onboardedCurrencies = new HashSet<>(pendingCurrencies);
+        pendingCurrencies.removeAll(onboardedCurrencies);
+        if (onboardedCurrencies.isEmpty()) {
+            return;
+        }
+
+        try {
+            refreshCurrencyRates(currencyRegistry.getCurrencyCodes());
+        } catch (RuntimeException e) {
+            log.warn("Unable to fetch exchange rates for added currencies {}, they will be fetched on next scheduled refresh.",
+                onboardedCurrencies, e);
+        }
+    }
+
+    private CrossRates refreshCurrencyRates(final Collection<String> currenciesCodes) {
+        return refreshCurrencyRates(currenciesCodes, null, snapshot -> true);
+    }
+
+    /**
+     * Single-flight refresh: at most one upstream fetch is in flight at any time. Callers join the
+     * in-flight fetch when it covers all requested currencies, otherwise they wait for it to finish
+     * and start their own one.
+     *
+     * @param waitTimeout     maximum time to wait for a fetch started by another caller, {@code null} to wait without limit
+     * @param refreshRequired re-checked against the current snapshot before starting a new fetch
+     */
+    private CrossRates refreshCurrencyRates(final Collection<String> currenciesCodes,
+                                            final Duration waitTimeout,
+                                            final Predicate<RateSnapshot> refreshRequired) {
+        while (true) {
+            InFlightRefresh inFlight = inFlightRefresh.get();
+
+            if (inFlight == null) {
+                InFlightRefresh refresh = new InFlightRefresh(Set.copyOf(currenciesCodes), new CompletableFuture<>());
+                if (inFlightRefresh.compareAndSet(null, refresh)) {
+                    return runRefresh(refresh, refreshRequired);
+                }
+            } else {
+                CrossRates rates = awaitRefresh(inFlight, waitTimeout);
+                if (inFlight.currenciesCodes().containsAll(currenciesCodes)) {
+                    return rates;
+                }
+            }
+        }
+    }
+
+    /**
+     * Timed in {@code currency.rates.refresh}, joined callers are not counted.
+     */
+    private CrossRates runRefresh(final InFlightRefresh refresh,
+                                  final Predicate<RateSnapshot> refreshRequired) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Timer outcome = refreshFailures;
+        try {
+            boolean required = refreshRequired.test(currencyRates.get());
+            CrossRates rates = required
+                ? fetchCurrencyRates(refresh.currenciesCodes())
+                : CrossRates.EMPTY;
+            refresh.result().complete(rates);
+            outcome = required ? refreshSuccesses : refreshSkips;
+
+            return rates;
+        } catch (RuntimeException e) {
+            refreshFailed = true;
+            refresh.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRefresh.compareAndSet(refresh, null);
+            sample.stop(outcome);
+        }
     }
 
+    private static Timer refreshTimer(final MeterRegistry meterRegistry, final String outcome) {
+        return Timer.builder("currency.rates.refresh")
+                    .description("Exchange rates refreshes started by this instance")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+    }
+
+    private CrossRates fetchCurrencyRates(final Collection<String> currenciesCodes) {
+        BaseExchangeRates providerRates = providerCircuitBreaker.call(
+            () -> exchangeRateIntegrationService.getExchangeRateForCurrencies(currenciesCodes));
+        Instant fetchedAt = Instant.now();
+        refreshFailed = false;
+
+        // history rows are partitioned by rate date time, rates without provider timestamp are dated by fetch time
+        BaseExchangeRates fetchedRates = providerRates.dateTime() == null
+            ? new BaseExchangeRates(providerRates.providerBase(), fetchedAt, providerRates.currencies(), providerRates.rates())
+            : providerRates;
+
+        RateSnapshot published = currencyRates.updateAndGet(snapshot -> snapshot.next(fetchedRates, fetchedAt, rateRepresentation));
+        rateStreamService.publish(published);
+
+        return published.rates();
+    }
+
+    private static CrossRates awaitRefresh(final InFlightRefresh inFlight,
+                                           final Duration waitTimeout) {
+        try {
+            return waitTimeout == null
+                ? inFlight.result().get()
+                : inFlight.result().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause
+                ? cause
+                : new RuntimeException("Unable to fetch currency exchange rates.", e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Timed out waiting for currency exchange rates refresh.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for currency exchange rates refresh.", e);
+        }
+    }
+
+    /**
+     * Counts lookups of rendered rates in {@code currency.rates.rendered}, a miss renders the document.
+     * A hit is served without allocating, a miss is counted by the render callback passed to the snapshot here.
+     */
+    private RenderedCurrencyRates getRenderedRates(final String currencyCode, final RateSnapshot snapshot) {
+        RenderedCurrencyRates rendered = snapshot.renderedRates().get(currencyCode);
+        if (rendered != null) {
+            renderedRatesHits.increment();
+            return rendered;
+        }
+
+        rendered = snapshot.getRenderedRates(currencyCode, code -> {
+            renderedRatesMisses.increment();
+            return currencyRateRenderer.render(currencyRateRenderer.toCurrencyRateDTO(code, snapshot));
+        });
+        if (rendered == null) {
+            throw new NoSuchElementException("Currency %s is not available in exchange rates.".formatted(currencyCode));
+        }
+
+        return rendered;
+    }
+
+    private RateSnapshot getServableSnapshot(final Collection<String> currencyCodes) {
+        currencyCodes.stream()
+                     .filter(not(currencyRegistry::contains))
+                     .findFirst()
+                     .ifPresent(currencyCode -> {
+                         throw new RuntimeException("""
+                             Currency '%s' is not available for getting exchange rates.
+                             Please try to add currencyCode using existing API.
+                             """.formatted(currencyCode));
+                     });
+
+        if (currencyRates.get().isEmpty()) {
+            refreshCurrencyRates(currencyRegistry.getCurrencyCodes(), refreshWaitTimeout, RateSnapshot::isEmpty);
+        }
+
+        return currencyRates.get();
+    }
+
+    private record InFlightRefresh(
+        Set<String> currenciesCodes,
+        CompletableFuture<CrossRates> result
+    ) {}
+
 }
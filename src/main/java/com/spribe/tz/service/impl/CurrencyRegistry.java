@@ -0,0 +1,76 @@
+package com.spribe.tz.service.impl;
+
+import com.spribe.tz.dao.CurrencyDao;
+import com.spribe.tz.dao.entity.Currency;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * In-memory copy of the CURRENCY table. Loaded at startup and kept up to date by
+ * {@link #register(String)}, so membership and listing queries never reach the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrencyRegistry {
+
+    private final AtomicReference<TrackedCurrencies> trackedCurrencies = new AtomicReference<>(TrackedCurrencies.of(List.of()));
+
+    private final CurrencyDao currencyDao;
+
+    /**
+     * Merges currencies stored in the database into the registry. Currencies are never removed,
+     * so codes registered concurrently by {@link #register(String)} are preserved.
+     */
+    @PostConstruct
+    public void reload() {
+        List<String> storedCodes = currencyDao.getCurrencies().stream()
+                                              .map(Currency::getCurrencyCode)
+                                              .toList();
+
+        trackedCurrencies.updateAndGet(current -> current.codes().containsAll(storedCodes)
+            ? current
+            : TrackedCurrencies.of(Stream.concat(current.sortedCodes().stream(), storedCodes.stream()).toList()));
+    }
+
+    public void register(final String currencyCode) {
+        trackedCurrencies.updateAndGet(current -> current.contains(currencyCode)
+            ? current
+            : TrackedCurrencies.of(Stream.concat(current.sortedCodes().stream(), Stream.of(currencyCode)).toList()));
+    }
+
+    public boolean contains(final String currencyCode) {
+        return trackedCurrencies.get().contains(currencyCode);
+    }
+
+    public List<String> getCurrencyCodes() {
+        return trackedCurrencies.get().sortedCodes();
+    }
+
+    private record TrackedCurrencies(
+        Set<String> codes,
+        List<String> sortedCodes
+    ) {
+
+        static TrackedCurrencies of(final Collection<String> currencyCodes) {
+            List<String> sortedCodes = currencyCodes.stream()
+                                                    .distinct()
+                                                    .sorted()
+                                                    .toList();
+
+            return new TrackedCurrencies(Set.copyOf(sortedCodes), sortedCodes);
+        }
+
+        boolean contains(final String currencyCode) {
+            return codes.contains(currencyCode);
+        }
+
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.spribe.tz.service.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Reads fixer.io {@code /latest} response token by token.
+ * <p>
+ * Rates are written straight into a vector indexed by {@link CurrencyIndex} ids, so no intermediate map
+ * is built. Field names are canonicalized by Jackson and number tokens are decoded lazily, so rates of
+ * currencies that were not requested are skipped without allocation.
+ */
+public final class FixerIoResponseParser {
+
+    private FixerIoResponseParser() {}
+
+    /**
+     * @return provider rates or empty when response is not successful
+     */
+    public static Optional<BaseExchangeRates> parse(final JsonParser parser,
+                                                    final CurrencyIndex currencies) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return Optional.empty();
+        }
+
+        boolean success = false;
+        Instant dateTime = null;
+        String base = null;
+        BigDecimal[] rates = new BigDecimal[currencies.size()];
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "success" -> success = token == JsonToken.VALUE_TRUE;
+                case "timestamp" -> dateTime = token == JsonToken.VALUE_NUMBER_INT
+                    ? Instant.ofEpochSecond(parser.getLongValue())
+                    : null;
+                case "base" -> base = token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                case "rates" -> readRates(parser, currencies, rates);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return success
+            ? Optional.of(new BaseExchangeRates(base, dateTime, currencies, rates))
+            : Optional.empty();
+    }
+
+    private static void readRates(final JsonParser parser,
+                                  final CurrencyIndex currencies,
+                                  final BigDecimal[] rates) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        String currencyCode;
+        while ((currencyCode = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            int id = currencies.idOf(currencyCode);
+            if (id >= 0 && token.isNumeric()) {
+                rates[id] = parser.getDecimalValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+}
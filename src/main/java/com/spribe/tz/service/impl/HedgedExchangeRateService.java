@@ -0,0 +1,239 @@
+package com.spribe.tz.service.impl;
+
+import com.spribe.tz.service.ExchangeRateIntegrationService;
+import com.spribe.tz.service.ExchangeRateProvider;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.LatencyHistogram;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fetches exchange rates from all registered {@link ExchangeRateProvider}s with hedged requests.
+ * <p>
+ * Providers are tried in order of their recent latency. When the current provider has not answered within its
+ * {@code integration.exchangeRates.hedging.percentile} latency (clamped to {@code minDelay..maxDelay}), the next
+ * provider is called as well; a failed provider hands over to the next one immediately. The first valid answer
+ * wins and the other calls are cancelled. Every attempt, including cancelled and failed ones, is recorded
+ * in the provider's latency histogram, failures with at least {@code maxDelay}, so slow or failing providers
+ * move to the end of the order. Histogram counts are halved every {@code decayInterval}, so only recent calls
+ * decide it. Attempts are also timed in {@code exchange.rates.provider.calls} tagged by provider and outcome,
+ * these timers are registered once per provider. An attempt is marked cancelled before its call is interrupted,
+ * since providers that fail on interrupt usually clear the interrupt flag.
+ */
+@Slf4j
+@Primary
+@Service
+public class HedgedExchangeRateService implements ExchangeRateIntegrationService {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual()
+              .name("exchange-rate-provider-", 0)
+              .factory());
+
+    private final List<ExchangeRateProvider> providers;
+    private final Map<String, LatencyHistogram> latencies;
+    private final Map<String, CallTimers> callTimers;
+    private final Duration maxHedgingDelay;
+
+    @Value("${integration.exchangeRates.hedging.percentile}")
+    private double hedgingPercentile;
+
+    @Value("${integration.exchangeRates.hedging.minDelay}")
+    private Duration minHedgingDelay;
+
+    public HedgedExchangeRateService(final List<ExchangeRateProvider> providers,
+                                     final MeterRegistry meterRegistry,
+                                     @Value("${integration.exchangeRates.hedging.maxDelay}") final Duration maxHedgingDelay,
+                                     @Value("${integration.exchangeRates.hedging.decayInterval}") final Duration latencyDecayInterval) {
+        this.providers = List.copyOf(providers);
+        this.maxHedgingDelay = maxHedgingDelay;
+        this.latencies = providers.stream()
+                                  .collect(Collectors.toMap(ExchangeRateProvider::getName, provider -> new LatencyHistogram(latencyDecayInterval)));
+        this.callTimers = providers.stream()
+                                   .collect(Collectors.toMap(ExchangeRateProvider::getName, provider -> new CallTimers(
+                                       callTimer(meterRegistry, provider, "success"),
+                                       callTimer(meterRegistry, provider, "failure"),
+                                       callTimer(meterRegistry, provider, "cancelled"))));
+    }
+
+    @Override
+    public BaseExchangeRates getExchangeRateForCurrencies(final Collection<String> currenciesCodes) {
+        return currenciesCodes.isEmpty()
+            ? BaseExchangeRates.EMPTY
+            : fetch(provider -> provider.getExchangeRateForCurrencies(currenciesCodes));
+    }
+
+    @Override
+    public BaseExchangeRates getExchangeRateForCurrencies(final Collection<String> currenciesCodes,
+                                                          final String baseCurrencyCode) {
+        return currenciesCodes.isEmpty()
+            ? BaseExchangeRates.EMPTY
+            : fetch(provider -> provider.getExchangeRateForCurrencies(currenciesCodes, baseCurrencyCode));
+    }
+
+    /**
+     * @return providers ordered by recent latency, providers without samples first
+     */
+    public List<ExchangeRateProvider> getOrderedProviders() {
+        return providers.stream()
+                        .sorted(Comparator.comparing(provider -> Objects.requireNonNullElse(
+                            latencies.get(provider.getName()).percentile(hedgingPercentile), Duration.ZERO)))
+                        .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private BaseExchangeRates fetch(final Function<ExchangeRateProvider, BaseExchangeRates> call) {
+        List<ExchangeRateProvider> ordered = getOrderedProviders();
+        if (ordered.size() == 1) {
+            return timedCall(ordered.get(0), call, new Attempt());
+        }
+
+        CompletionService<BaseExchangeRates> completion = new ExecutorCompletionService<>(executor);
+        List<Attempt> attempts = new ArrayList<>(ordered.size());
+        RuntimeException failure = null;
+        int failed = 0;
+
+        try {
+            attempts.add(submit(completion, ordered.get(0), call));
+
+            while (failed < attempts.size()) {
+                boolean canHedge = attempts.size() < ordered.size();
+                Future<BaseExchangeRates> done = canHedge
+                    ? completion.poll(hedgingDelay(ordered.get(attempts.size() - 1)).toNanos(), TimeUnit.NANOSECONDS)
+                    : completion.take();
+
+                if (done == null) {
+                    ExchangeRateProvider next = ordered.get(attempts.size());
+                    log.debug("Provider '{}' is slow, hedging with '{}'.", ordered.get(attempts.size() - 1).getName(), next.getName());
+                    attempts.add(submit(completion, next, call));
+                    continue;
+                }
+
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    failure = e.getCause() instanceof RuntimeException cause
+                        ? cause
+                        : new RuntimeException("Unable to fetch currency exchange rates.", e.getCause());
+
+                    if (canHedge) {
+                        attempts.add(submit(completion, ordered.get(attempts.size()), call));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching currency exchange rates.", e);
+        } finally {
+            attempts.forEach(Attempt::cancel);
+        }
+
+        throw failure;
+    }
+
+    private Attempt submit(final CompletionService<BaseExchangeRates> completion,
+                           final ExchangeRateProvider provider,
+                           final Function<ExchangeRateProvider, BaseExchangeRates> call) {
+        Attempt attempt = new Attempt();
+        attempt.future = completion.submit(() -> timedCall(provider, call, attempt));
+        return attempt;
+    }
+
+    private BaseExchangeRates timedCall(final ExchangeRateProvider provider,
+                                        final Function<ExchangeRateProvider, BaseExchangeRates> call,
+                                        final Attempt attempt) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            BaseExchangeRates rates = call.apply(provider);
+            if (rates == null || rates.providerBase() == null || Arrays.stream(rates.rates()).allMatch(Objects::isNull)) {
+                throw new RuntimeException("Provider '%s' returned no exchange rates.".formatted(provider.getName()));
+            }
+
+            failed = false;
+            return rates;
+        } finally {
+            Duration latency = Duration.ofNanos(System.nanoTime() - start);
+            boolean cancelled = failed && attempt.cancelled;
+            latencies.get(provider.getName())
+                     .record(failed && !cancelled && latency.compareTo(maxHedgingDelay) < 0 ? maxHedgingDelay : latency);
+            CallTimers timers = callTimers.get(provider.getName());
+            Timer outcome = !failed
+                ? timers.success()
+                : cancelled ? timers.cancelled() : timers.failure();
+            outcome.record(latency);
+        }
+    }
+
+    private Timer callTimer(final MeterRegistry meterRegistry, final ExchangeRateProvider provider, final String outcome) {
+        return Timer.builder("exchange.rates.provider.calls")
+                    .description("Exchange rates provider calls, including hedged and cancelled ones")
+                    .tag("provider", provider.getName())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(maxHedgingDelay.multipliedBy(10))
+                    .register(meterRegistry);
+    }
+
+    private Duration hedgingDelay(final ExchangeRateProvider provider) {
+        Duration percentile = latencies.get(provider.getName()).percentile(hedgingPercentile);
+        if (percentile == null || percentile.compareTo(maxHedgingDelay) > 0) {
+            return maxHedgingDelay;
+        }
+
+        return percentile.compareTo(minHedgingDelay) < 0 ? minHedgingDelay : percentile;
+    }
+
+    /**
+     * Provider call submitted by {@link #fetch(Function)}, which alone submits and cancels it.
+     */
+    private static final class Attempt {
+
+        private volatile boolean cancelled;
+        private Future<BaseExchangeRates> future;
+
+        private void cancel() {
+            if (!future.isDone()) {
+                cancelled = true;
+                future.cancel(true);
+            }
+        }
+
+    }
+
+    private record CallTimers(
+        Timer success,
+        Timer failure,
+        Timer cancelled
+    ) {
+    }
+
+}
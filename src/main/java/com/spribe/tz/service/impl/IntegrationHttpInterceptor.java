@@ -0,0 +1,270 @@
+package com.spribe.tz.service.impl;
+
+import com.spribe.tz.service.impl.model.IntegrationCallStats;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Records latency and received bytes of every call to the exchange rates provider.
+ * <p>
+ * The call runs on the caller thread, waiting for response headers is bounded by the HTTP client read timeout.
+ * The body is not buffered: it is handed over as a stream, decompressed on the fly when the provider honoured
+ * the gzip request, and the call is recorded once the body or the response is closed. The whole call is bounded by
+ * {@code integration.exchangeRates.http.totalTimeout}: a watchdog closes the response body once it expires, so a
+ * server that stalls mid-body fails the blocked read, and a server trickling the body is also cut off on every read.
+ */
+@Slf4j
+@Component
+public class IntegrationHttpInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String GZIP = "gzip";
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong lastLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final ScheduledThreadPoolExecutor watchdog = newWatchdog();
+
+    @Value("${integration.exchangeRates.http.totalTimeout}")
+    private Duration totalTimeout;
+
+    @Override
+    public ClientHttpResponse intercept(final HttpRequest request,
+                                        final byte[] body,
+                                        final ClientHttpRequestExecution execution) throws IOException {
+        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, GZIP);
+
+        long start = System.nanoTime();
+        try {
+            return new MeteredResponse(request, execution.execute(request, body), start);
+        } catch (IOException | RuntimeException e) {
+            record(request, System.nanoTime() - start, 0, true);
+            throw e;
+        }
+    }
+
+    public IntegrationCallStats getStats() {
+        return new IntegrationCallStats(
+            calls.get(),
+            failedCalls.get(),
+            receivedBytes.get(),
+            Duration.ofNanos(lastLatency.get()),
+            Duration.ofNanos(maxLatency.get()),
+            Duration.ofNanos(totalLatency.get()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdog.shutdownNow();
+    }
+
+    private void record(final HttpRequest request, final long latency, final long bytes, final boolean failed) {
+        calls.incrementAndGet();
+        if (failed) {
+            failedCalls.incrementAndGet();
+        }
+        receivedBytes.addAndGet(bytes);
+        lastLatency.set(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+        totalLatency.addAndGet(latency);
+
+        // query is not logged, it contains the access key
+        log.debug("{} {}{} {} in {} ms, {} bytes received.", request.getMethod(), request.getURI().getHost(),
+            request.getURI().getPath(), failed ? "failed" : "completed", TimeUnit.NANOSECONDS.toMillis(latency), bytes);
+    }
+
+    private static ScheduledThreadPoolExecutor newWatchdog() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+            Thread.ofVirtual()
+                  .name("integration-http-watchdog")
+                  .factory());
+        // completed calls cancel their deadline, the response is released right away
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Response handed over to the caller, used by a single thread. The watchdog only closes the underlying body.
+     */
+    private final class MeteredResponse implements ClientHttpResponse {
+
+        private final HttpRequest request;
+        private final ClientHttpResponse response;
+        private final long start;
+        private final HttpHeaders headers;
+        private final boolean compressed;
+        private final ScheduledFuture<?> deadline;
+        private volatile boolean timedOut;
+        private InputStream body;
+        private long bytes;
+        private boolean failed;
+        private boolean recorded;
+
+        private MeteredResponse(final HttpRequest request, final ClientHttpResponse response, final long start) throws IOException {
+            this.request = request;
+            this.response = response;
+            this.start = start;
+            this.headers = new HttpHeaders();
+            this.headers.putAll(response.getHeaders());
+            this.compressed = GZIP.equalsIgnoreCase(headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+            if (compressed) {
+                // length of the decompressed body is not known upfront
+                headers.remove(HttpHeaders.CONTENT_ENCODING);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+            }
+            this.failed = response.getStatusCode().isError();
+            this.deadline = watchdog.schedule(this::abort, totalTimeout.toNanos() - (System.nanoTime() - start), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                // bytes are counted as received, before decompression
+                InputStream meteredBody = new MeteredBody(response.getBody());
+                body = compressed ? new GZIPInputStream(meteredBody) : meteredBody;
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                complete();
+            }
+        }
+
+        private void complete() {
+            if (!recorded) {
+                recorded = true;
+                deadline.cancel(false);
+                record(request, System.nanoTime() - start, bytes, failed);
+            }
+        }
+
+        /**
+         * Runs on the watchdog thread, a read blocked on the closed stream fails or ends and reports the timeout.
+         * The body stream is closed rather than the response, closing the response drains the body first.
+         */
+        private void abort() {
+            timedOut = true;
+            log.debug("Request to {} did not complete in {}, closing the response body.", request.getURI().getHost(), totalTimeout);
+            try {
+                response.getBody().close();
+            } catch (IOException e) {
+                log.debug("Unable to close response body of request to {}.", request.getURI().getHost(), e);
+            }
+        }
+
+        private HttpTimeoutException timeoutException() {
+            return new HttpTimeoutException("Request to %s did not complete in %s.".formatted(request.getURI().getHost(), totalTimeout));
+        }
+
+        private final class MeteredBody extends FilterInputStream {
+
+            private MeteredBody(final InputStream inputStream) {
+                super(inputStream);
+            }
+
+            @Override
+            public int read() throws IOException {
+                checkDeadline();
+                int value;
+                try {
+                    value = super.read();
+                } catch (IOException e) {
+                    throw readFailure(e);
+                }
+                // a stream closed by the watchdog may report the end of body as well
+                checkDeadline();
+                if (value >= 0) {
+                    bytes++;
+                }
+                return value;
+            }
+
+            @Override
+            public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+                checkDeadline();
+                int count;
+                try {
+                    count = super.read(buffer, offset, length);
+                } catch (IOException e) {
+                    throw readFailure(e);
+                }
+                checkDeadline();
+                if (count > 0) {
+                    bytes += count;
+                }
+                return count;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    complete();
+                }
+            }
+
+            private void checkDeadline() throws HttpTimeoutException {
+                if (timedOut || System.nanoTime() - start > totalTimeout.toNanos()) {
+                    failed = true;
+                    throw timeoutException();
+                }
+            }
+
+            private IOException readFailure(final IOException e) {
+                failed = true;
+                if (!timedOut) {
+                    return e;
+                }
+
+                HttpTimeoutException timeout = timeoutException();
+                timeout.initCause(e);
+                return timeout;
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.spribe.tz.service.impl;
+
+import com.spribe.tz.service.impl.model.CircuitState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker around the exchange rates provider.
+ * <p>
+ * After {@code integration.exchangeRates.circuitBreaker.failureThreshold} consecutive failures the circuit opens
+ * and calls fail fast for {@code integration.exchangeRates.circuitBreaker.openDuration}. The first call after that
+ * is let through as a probe: its success closes the circuit, its failure (any exception or error) opens it again.
+ */
+@Slf4j
+@Component
+public class ProviderCircuitBreaker {
+
+    private final AtomicReference<Circuit> circuit = new AtomicReference<>(Circuit.CLOSED);
+
+    @Value("${integration.exchangeRates.circuitBreaker.failureThreshold}")
+    private int failureThreshold;
+
+    @Value("${integration.exchangeRates.circuitBreaker.openDuration}")
+    private Duration openDuration;
+
+    public <T> T call(final Supplier<T> operation) {
+        acquirePermission();
+
+        // resolved in finally, so a probe ending with an Error does not leave the circuit half open forever
+        boolean succeeded = false;
+        try {
+            T result = operation.get();
+            succeeded = true;
+            return result;
+        } finally {
+            if (succeeded) {
+                onSuccess();
+            } else {
+                onFailure();
+            }
+        }
+    }
+
+    public CircuitState getState() {
+        return circuit.get().state();
+    }
+
+    private void acquirePermission() {
+        Circuit current = circuit.get();
+        if (current.state() == CircuitState.CLOSED) {
+            return;
+        }
+
+        Instant retryAt = current.openedAt().plus(openDuration);
+        if (current.state() == CircuitState.OPEN
+            && !Instant.now().isBefore(retryAt)
+            && circuit.compareAndSet(current, new Circuit(CircuitState.HALF_OPEN, current.failures(), current.openedAt()))) {
+            log.info("Probing exchange rates provider after {} consecutive failures.", current.failures());
+            return;
+        }
+
+        throw new RuntimeException("Exchange rates provider is unavailable, calls are suspended until '%s'.".formatted(retryAt));
+    }
+
+    private void onSuccess() {
+        Circuit previous = circuit.getAndSet(Circuit.CLOSED);
+        if (previous.state() != CircuitState.CLOSED) {
+            log.info("Exchange rates provider recovered, circuit is closed.");
+        }
+    }
+
+    private void onFailure() {
+        Circuit updated = circuit.updateAndGet(current -> {
+            int failures = current.failures() + 1;
+            return current.state() == CircuitState.HALF_OPEN || failures >= failureThreshold
+                ? new Circuit(CircuitState.OPEN, failures, Instant.now())
+                : new Circuit(CircuitState.CLOSED, failures, null);
+        });
+
+        if (updated.state() == CircuitState.OPEN) {
+            log.warn("Exchange rates provider failed {} times in a row, circuit is open for {}.", updated.failures(), openDuration);
+        }
+    }
+
+    private record Circuit(
+        CircuitState state,
+        int failures,
+        Instant openedAt
+    ) {
+
+        private static final Circuit CLOSED = new Circuit(CircuitState.CLOSED, 0, null);
+
+    }
+
+}
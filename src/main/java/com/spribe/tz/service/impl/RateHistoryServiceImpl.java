@@ -0,0 +1,331 @@
+package com.spribe.tz.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.spribe.tz.controller.dto.RateRollupDTO;
+import com.spribe.tz.controller.dto.RateRollupsDTO;
+import com.spribe.tz.dao.CurrencyLogDao;
+import com.spribe.tz.dao.CurrencyRateRollupDao;
+import com.spribe.tz.dao.CurrencyRateSnapshotDao;
+import com.spribe.tz.dao.entity.CurrencyLog;
+import com.spribe.tz.dao.entity.CurrencyRateSnapshot;
+import com.spribe.tz.dao.model.CurrencyLogEntry;
+import com.spribe.tz.dao.model.CurrencyRateRollup;
+import com.spribe.tz.dao.model.RollupInterval;
+import com.spribe.tz.dao.model.SnapshotPairEntry;
+import com.spribe.tz.service.RateHistoryService;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CrossRates;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import com.spribe.tz.service.impl.model.HistoryCursor;
+import com.spribe.tz.service.impl.model.HistoryStorage;
+import com.spribe.tz.service.impl.model.RateHistory;
+import com.spribe.tz.service.impl.model.ResponseFormat;
+import com.spribe.tz.service.impl.model.StoredExchangeRates;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class RateHistoryServiceImpl implements RateHistoryService {
+
+    private final JsonFactory cborFactory = new CBORFactory();
+
+    private final CurrencyLogDao currencyLogDao;
+    private final CurrencyRateRollupDao currencyRateRollupDao;
+    private final CurrencyRateSnapshotDao currencyRateSnapshotDao;
+    private final CurrencyRegistry currencyRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${currencyRate.history.maxPageSize}")
+    private int maxPageSize;
+
+    @Value("${currencyRate.history.storage}")
+    private HistoryStorage historyStorage;
+
+    @Override
+    public RateHistory getRateHistory(final String baseCurrency,
+                                      final String anotherCurrency,
+                                      final Instant from,
+                                      final Instant until,
+                                      final String cursor,
+                                      final int limit) {
+        validateCurrencies(baseCurrency, anotherCurrency);
+
+        if (limit < 1 || limit > maxPageSize) {
+            throw new RuntimeException("History page limit should be between 1 and %d.".formatted(maxPageSize));
+        }
+
+        Instant untilDateTime = until == null ? Instant.now() : until;
+        HistoryCursor after = cursor == null
+            ? HistoryCursor.startingAt(from == null ? Instant.EPOCH : from)
+            : HistoryCursor.decode(cursor);
+
+        if (!after.rateDateTime().isBefore(untilDateTime)) {
+            throw new RuntimeException("History range start should be before '%s'.".formatted(untilDateTime));
+        }
+
+        return RateHistory.builder()
+                          .baseCurrency(baseCurrency)
+                          .anotherCurrency(anotherCurrency)
+                          .after(after)
+                          .until(untilDateTime)
+                          .limit(limit)
+                          .build();
+    }
+
+    /**
+     * Writes {@link com.spribe.tz.controller.dto.RateHistoryDTO} document while rows are read from database.
+     * One extra row is requested to find out whether the next page exists. With {@link HistoryStorage#SNAPSHOT}
+     * storage pair rates are reconstructed from provider rates of each snapshot.
+     */
+    @Override
+    public void writeRateHistory(final RateHistory rateHistory,
+                                 final ResponseFormat format,
+                                 final OutputStream outputStream) throws IOException {
+        JsonFactory factory = format == ResponseFormat.CBOR ? cborFactory : objectMapper.getFactory();
+        try (JsonGenerator generator = factory.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeStringField("baseCurrency", rateHistory.baseCurrency());
+            generator.writeStringField("anotherCurrency", rateHistory.anotherCurrency());
+            generator.writeArrayFieldStart("rates");
+
+            HistoryPageWriter pageWriter = new HistoryPageWriter(generator, rateHistory.limit());
+            try {
+                switch (historyStorage) {
+                    case PAIRS -> currencyLogDao.streamHistory(
+                        rateHistory.baseCurrency(),
+                        rateHistory.anotherCurrency(),
+                        rateHistory.after().rateDateTime(),
+                        rateHistory.after().id(),
+                        rateHistory.until(),
+                        rateHistory.limit() + 1,
+                        pageWriter::write);
+                    case SNAPSHOT -> currencyRateSnapshotDao.streamPairHistory(
+                        rateHistory.baseCurrency(),
+                        rateHistory.anotherCurrency(),
+                        rateHistory.after().rateDateTime(),
+                        rateHistory.after().id(),
+                        rateHistory.until(),
+                        rateHistory.limit() + 1,
+                        entry -> pageWriter.write(toCurrencyLogEntry(rateHistory, entry)));
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            generator.writeEndArray();
+            generator.writeStringField("nextCursor", pageWriter.nextCursor());
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    public RateRollupsDTO getRateRollups(final String baseCurrency,
+                                         final String anotherCurrency,
+                                         final RollupInterval interval,
+                                         final Instant from,
+                                         final Instant until) {
+        validateCurrencies(baseCurrency, anotherCurrency);
+
+        Instant untilDateTime = until == null ? Instant.now() : until;
+        if (!from.isBefore(untilDateTime)) {
+            throw new RuntimeException("Rollups range start should be before '%s'.".formatted(untilDateTime));
+        }
+        if (interval.unit().between(from, untilDateTime) > maxPageSize) {
+            throw new RuntimeException("Rollups range should not exceed %d %s intervals.".formatted(maxPageSize, interval));
+        }
+
+        List<CurrencyRateRollup> currencyRateRollups = switch (historyStorage) {
+            case PAIRS -> currencyRateRollupDao.getRollups(baseCurrency, anotherCurrency, interval, from, untilDateTime);
+            case SNAPSHOT -> aggregateSnapshotRollups(baseCurrency, anotherCurrency, interval, from, untilDateTime);
+        };
+        List<RateRollupDTO> rollups = currencyRateRollups.stream()
+                                                           .map(rollup -> RateRollupDTO.builder()
+                                                                                       .bucketStart(rollup.bucketStart())
+                                                                                       .open(rollup.openRate())
+                                                                                       .high(rollup.highRate())
+                                                                                       .low(rollup.lowRate())
+                                                                                       .close(rollup.closeRate())
+                                                                                       .build())
+                                                           .toList();
+
+        return RateRollupsDTO.builder()
+                             .baseCurrency(baseCurrency)
+                             .anotherCurrency(anotherCurrency)
+                             .interval(interval)
+                             .rollups(rollups)
+                             .build();
+    }
+
+    /**
+     * With {@link HistoryStorage#SNAPSHOT} storage rollups are not maintained on write, they are aggregated
+     * from the two needed rates of each snapshot while rows are read from database. Only buckets starting
+     * within the range are returned, the same as for stored rollups, so the last one is read up to its end.
+     */
+    private List<CurrencyRateRollup> aggregateSnapshotRollups(final String baseCurrency,
+                                                              final String anotherCurrency,
+                                                              final RollupInterval interval,
+                                                              final Instant from,
+                                                              final Instant until) {
+        Instant lastBucketEnd = until.minusNanos(1).truncatedTo(interval.unit()).plus(1, interval.unit());
+        Map<Instant, CurrencyRateRollup> rollups = new LinkedHashMap<>();
+        currencyRateSnapshotDao.streamPairHistory(baseCurrency, anotherCurrency, from, 0L, lastBucketEnd, Integer.MAX_VALUE, entry -> {
+            // Instant truncation is UTC, the same as rollups maintained with PAIRS storage
+            Instant bucketStart = entry.rateDateTime().truncatedTo(interval.unit());
+            if (bucketStart.isBefore(from)) {
+                return;
+            }
+
+            BigDecimal rate = CrossRates.crossRate(entry.baseRate(), entry.anotherRate(), baseCurrency.equals(entry.providerBase()));
+            rollups.merge(bucketStart, CurrencyRateRollup.builder()
+                                                         .baseCurrencyCode(baseCurrency)
+                                                         .anotherCurrencyCode(anotherCurrency)
+                                                         .bucketStart(bucketStart)
+                                                         .openRate(rate)
+                                                         .highRate(rate)
+                                                         .lowRate(rate)
+                                                         .closeRate(rate)
+                                                         .openDateTime(entry.rateDateTime())
+                                                         .closeDateTime(entry.rateDateTime())
+                                                         .build(), CurrencyRateRollup::merge);
+        });
+
+        return List.copyOf(rollups.values());
+    }
+
+    /**
+     * Reads provider rates of the most recent refresh. With {@link HistoryStorage#PAIRS} storage they are
+     * rates of {@code providerBase} to every other currency, so nothing is restored when it is not tracked.
+     */
+    @Override
+    public Optional<StoredExchangeRates> getLatestExchangeRates(final String providerBase) {
+        return switch (historyStorage) {
+            case PAIRS -> toStoredExchangeRates(providerBase, currencyLogDao.findLatestRates(providerBase));
+            case SNAPSHOT -> currencyRateSnapshotDao.findLatest()
+                                                    .map(RateHistoryServiceImpl::toStoredExchangeRates);
+        };
+    }
+
+    private static Optional<StoredExchangeRates> toStoredExchangeRates(final String providerBase,
+                                                                       final List<CurrencyLog> currencyLogs) {
+        if (currencyLogs.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // the same provider rates may have been fetched more than once, the last write wins
+        Map<String, CurrencyLog> latestLogs = currencyLogs.stream()
+                                                          .collect(Collectors.toMap(CurrencyLog::getAnotherCurrencyCode, currencyLog -> currencyLog,
+                                                              BinaryOperator.maxBy(Comparator.comparing(CurrencyLog::getId)), TreeMap::new));
+        latestLogs.put(providerBase, null);
+
+        CurrencyIndex currencies = CurrencyIndex.of(latestLogs.keySet());
+        BigDecimal[] rates = latestLogs.values().stream()
+                                       .map(currencyLog -> currencyLog == null ? BigDecimal.ONE : currencyLog.getRate())
+                                       .toArray(BigDecimal[]::new);
+        Instant fetchedAt = latestLogs.values().stream()
+                                      .filter(Objects::nonNull)
+                                      .map(CurrencyLog::getCreationDate)
+                                      .max(Comparator.naturalOrder())
+                                      .orElseThrow();
+
+        return Optional.of(new StoredExchangeRates(
+            new BaseExchangeRates(providerBase, currencyLogs.get(0).getRateDateTime(), currencies, rates),
+            fetchedAt));
+    }
+
+    private static StoredExchangeRates toStoredExchangeRates(final CurrencyRateSnapshot snapshot) {
+        return new StoredExchangeRates(
+            new BaseExchangeRates(
+                snapshot.getProviderBase(),
+                snapshot.getRateDateTime(),
+                CurrencyIndex.of(Arrays.asList(snapshot.getCurrencyCodes())),
+                snapshot.getRates()),
+            snapshot.getCreationDate());
+    }
+
+    private static CurrencyLogEntry toCurrencyLogEntry(final RateHistory rateHistory, final SnapshotPairEntry entry) {
+        boolean baseIsProviderBase = rateHistory.baseCurrency().equals(entry.providerBase());
+        boolean anotherIsProviderBase = rateHistory.anotherCurrency().equals(entry.providerBase());
+
+        return new CurrencyLogEntry(
+            entry.id(),
+            CrossRates.crossRate(entry.baseRate(), entry.anotherRate(), baseIsProviderBase),
+            entry.rateDateTime(),
+            !baseIsProviderBase && !anotherIsProviderBase);
+    }
+
+    private void validateCurrencies(final String baseCurrency, final String anotherCurrency) {
+        Stream.of(baseCurrency, anotherCurrency)
+              .filter(currencyCode -> !currencyRegistry.contains(currencyCode))
+              .findAny()
+              .ifPresent(currencyCode -> {
+                  throw new RuntimeException("""
+                      Currency '%s' is not available for getting exchange rates history.
+                      Please try to add currencyCode using existing API.
+                      """.formatted(currencyCode));
+              });
+    }
+
+    private static final class HistoryPageWriter {
+
+        private final JsonGenerator generator;
+        private final int limit;
+        private int written;
+        private CurrencyLogEntry last;
+        private boolean hasMore;
+
+        private HistoryPageWriter(final JsonGenerator generator, final int limit) {
+            this.generator = generator;
+            this.limit = limit;
+        }
+
+        private void write(final CurrencyLogEntry entry) {
+            if (written == limit) {
+                hasMore = true;
+                return;
+            }
+
+            try {
+                generator.writeStartObject();
+                generator.writeNumberField("rate", entry.rate());
+                generator.writeStringField("dateTime", entry.rateDateTime().toString());
+                generator.writeBooleanField("doubleConversion", Boolean.TRUE.equals(entry.doubleConversion()));
+                generator.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            written++;
+            last = entry;
+        }
+
+        private String nextCursor() {
+            return hasMore
+                ? new HistoryCursor(last.rateDateTime(), last.id()).encode()
+                : null;
+        }
+
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.spribe.tz.service.impl;
+
+import com.spribe.tz.service.CurrencyRateService;
+import com.spribe.tz.service.impl.model.CircuitState;
+import com.spribe.tz.service.impl.model.CurrencyLogWriterStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Exposes counters the rate pipeline already keeps as meters, so scraping reads them without touching the hot path:
+ * age of the served snapshot, provider HTTP calls, circuit breaker state and write-behind throughput of
+ * currency logs. Refresh, provider call and rendered rates cache meters are recorded where they happen.
+ */
+@Component
+@RequiredArgsConstructor
+public class RatePipelineMetrics implements MeterBinder {
+
+    private final CurrencyRateService currencyRateService;
+    private final CurrencyLogWriter currencyLogWriter;
+    private final IntegrationHttpInterceptor integrationHttpInterceptor;
+    private final ProviderCircuitBreaker providerCircuitBreaker;
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("currency.rates.age", currencyRateService, RatePipelineMetrics::getRatesAgeSeconds)
+             .description("Time since the served exchange rates were fetched")
+             .baseUnit("seconds")
+             .register(registry);
+        Gauge.builder("currency.rates.stale", currencyRateService, service -> service.isStale() ? 1 : 0)
+             .description("1 when the latest refresh failed and served rates may be outdated")
+             .register(registry);
+
+        FunctionTimer.builder("exchange.rates.http.calls", integrationHttpInterceptor,
+                         interceptor -> interceptor.getStats().calls(),
+                         interceptor -> interceptor.getStats().totalLatency().toNanos(),
+                         TimeUnit.NANOSECONDS)
+                     .description("HTTP calls to the exchange rates provider")
+                     .register(registry);
+        FunctionCounter.builder("exchange.rates.http.failed.calls", integrationHttpInterceptor,
+                           interceptor -> interceptor.getStats().failedCalls())
+                       .description("HTTP calls to the exchange rates provider that timed out, failed on I/O or returned an error status")
+                       .register(registry);
+        FunctionCounter.builder("exchange.rates.http.received", integrationHttpInterceptor,
+                           interceptor -> interceptor.getStats().receivedBytes())
+                       .description("Response body bytes received from the exchange rates provider, before decompression")
+                       .baseUnit("bytes")
+                       .register(registry);
+
+        for (CircuitState state : CircuitState.values()) {
+            Gauge.builder("exchange.rates.circuit.state", providerCircuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+                 .description("1 for the current state of the exchange rates provider circuit breaker")
+                 .tag("state", state.name())
+                 .register(registry);
+        }
+
+        Gauge.builder("currency.logs.pending", currencyLogWriter, writer -> writer.getStats().pendingLogs())
+             .description("Currency logs accepted but not written yet")
+             .register(registry);
+        bindLogCounter(registry, "written", CurrencyLogWriterStats::writtenLogs);
+        bindLogCounter(registry, "dropped", CurrencyLogWriterStats::droppedLogs);
+        bindLogCounter(registry, "failed", CurrencyLogWriterStats::failedLogs);
+        FunctionCounter.builder("currency.logs.retried.batches", currencyLogWriter, writer -> writer.getStats().retriedBatches())
+                       .description("Currency log batch write retries")
+                       .register(registry);
+    }
+
+    private void bindLogCounter(final MeterRegistry registry,
+                                final String result,
+                                final ToLongFunction<CurrencyLogWriterStats> count) {
+        FunctionCounter.builder("currency.logs", currencyLogWriter, writer -> count.applyAsLong(writer.getStats()))
+                       .description("Currency logs handled by the write-behind stage")
+                       .tag("result", result)
+                       .register(registry);
+    }
+
+    private static double getRatesAgeSeconds(final CurrencyRateService currencyRateService) {
+        Duration age = currencyRateService.getRatesAge();
+
+        return age == null ? Double.NaN : age.toMillis() / 1000.0;
+    }
+
+}
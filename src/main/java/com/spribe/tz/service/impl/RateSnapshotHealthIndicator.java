@@ -0,0 +1,42 @@
+package com.spribe.tz.service.impl;
+
+import com.spribe.tz.service.CurrencyRateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Part of the readiness group: the instance is taken out of rotation while it has no rates or its rates are older
+ * than {@code currencyRate.readiness.maxRatesAge}, e.g. after refreshes kept failing. Rates are never fetched here,
+ * so probes stay cheap and do not reach the provider.
+ */
+@Component("rateSnapshot")
+@RequiredArgsConstructor
+public class RateSnapshotHealthIndicator implements HealthIndicator {
+
+    private final CurrencyRateService currencyRateService;
+
+    @Value("${currencyRate.readiness.maxRatesAge}")
+    private Duration maxRatesAge;
+
+    @Override
+    public Health health() {
+        Duration age = currencyRateService.getRatesAge();
+        if (age == null) {
+            return Health.down()
+                         .withDetail("reason", "No exchange rates fetched yet.")
+                         .build();
+        }
+
+        return (age.compareTo(maxRatesAge) > 0 ? Health.down() : Health.up())
+            .withDetail("ratesAge", age.toString())
+            .withDetail("maxRatesAge", maxRatesAge.toString())
+            .withDetail("stale", currencyRateService.isStale())
+            .build();
+    }
+
+}
@@ -0,0 +1,249 @@
+package com.spribe.tz.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spribe.tz.controller.dto.RateDTO;
+import com.spribe.tz.controller.dto.RateUpdateDTO;
+import com.spribe.tz.service.RateStreamService;
+import com.spribe.tz.service.impl.model.CurrencyExchangeRate;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Pushes published rate snapshots to Server-Sent Events subscribers of a base currency.
+ * <p>
+ * Subscribers hold no thread while idle, every push is sent from its own virtual thread so a slow client
+ * does not delay others. Each subscriber receives only pairs changed since the event it has seen last.
+ * <p>
+ * The event id is the fetch time of the snapshot in epoch milliseconds rather than its version, which starts over on
+ * every startup, so an id issued before a restart is never taken for a later event. Fetch time is taken by each node
+ * and rates restored from history are dated by the time they were written, so ids differ between nodes and do not
+ * survive deploys. The last {@code currencyRate.stream.retainedVersions} snapshots are kept to compute deltas for
+ * reconnecting clients; an id which is not among them (evicted, issued by another node or before a restart, or newer
+ * than anything published here) gets all rates again. An event is rendered once per
+ * {@code (base currency, from event id)} and shared by all subscribers at that event.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RateStreamServiceImpl implements RateStreamService {
+
+    private static final String SNAPSHOT_EVENT = "snapshot";
+    private static final String DELTA_EVENT = "delta";
+
+    private final ConcurrentNavigableMap<Long, PublishedSnapshot> retainedSnapshots = new ConcurrentSkipListMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("rate-stream-", 0).factory());
+
+    private final CurrencyRegistry currencyRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${currencyRate.stream.retainedVersions}")
+    private int retainedVersions;
+
+    @Value("${currencyRate.stream.timeout}")
+    private Duration timeout;
+
+    @Override
+    public SseEmitter subscribe(final String currencyCode, final Long lastEventId) {
+        if (!currencyRegistry.contains(currencyCode)) {
+            throw new RuntimeException("""
+                Currency '%s' is not available for getting exchange rates.
+                Please try to add currencyCode using existing API.
+                """.formatted(currencyCode));
+        }
+
+        Subscriber subscriber = new Subscriber(currencyCode, new SseEmitter(timeout.toMillis()), lastEventId);
+        subscriber.emitter().onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter().onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter().onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // a snapshot published meanwhile is pushed as well, the subscriber lock keeps events in order
+        if (!retainedSnapshots.isEmpty()) {
+            PublishedSnapshot latest = retainedSnapshots.lastEntry().getValue();
+            executor.execute(() -> push(subscriber, latest));
+        }
+
+        return subscriber.emitter();
+    }
+
+    @Override
+    public void publish(final RateSnapshot snapshot) {
+        if (snapshot.isEmpty() || (!retainedSnapshots.isEmpty() && retainedSnapshots.lastKey() >= eventId(snapshot))) {
+            return;
+        }
+
+        PublishedSnapshot published = new PublishedSnapshot(snapshot, new ConcurrentHashMap<>());
+        retainedSnapshots.put(eventId(snapshot), published);
+        while (retainedSnapshots.size() > retainedVersions) {
+            retainedSnapshots.pollFirstEntry();
+        }
+
+        subscribers.forEach(subscriber -> executor.execute(() -> push(subscriber, published)));
+    }
+
+    /**
+     * Keeps idle connections from being closed by proxies and detects disconnected clients.
+     */
+    @Scheduled(fixedDelayString = "${currencyRate.stream.heartbeatFrequency}", timeUnit = TimeUnit.SECONDS)
+    private void sendHeartbeats() {
+        subscribers.forEach(subscriber -> executor.execute(() -> {
+            subscriber.lock().lock();
+            try {
+                send(subscriber, SseEmitter.event().comment("heartbeat"));
+            } finally {
+                subscriber.lock().unlock();
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        executor.shutdownNow();
+    }
+
+    private void push(final Subscriber subscriber, final PublishedSnapshot published) {
+        subscriber.lock().lock();
+        try {
+            RateSnapshot snapshot = published.snapshot();
+            long eventId = eventId(snapshot);
+            Long lastEventId = subscriber.lastEventId;
+            // the last event id is trusted only while its snapshot is retained, otherwise all rates are sent
+            PublishedSnapshot since = lastEventId == null ? null : retainedSnapshots.get(lastEventId);
+            if ((since != null && eventId <= lastEventId) || !snapshot.rates().contains(subscriber.currencyCode())) {
+                return;
+            }
+
+            String event = published.getRenderedEvent(subscriber.currencyCode(), since == null ? null : lastEventId,
+                () -> renderEvent(subscriber.currencyCode(), since == null ? null : since.snapshot(), snapshot));
+
+            if (send(subscriber, SseEmitter.event()
+                                          .id(String.valueOf(eventId))
+                                          .name(since == null ? SNAPSHOT_EVENT : DELTA_EVENT)
+                                          .data(event, MediaType.APPLICATION_JSON))) {
+                subscriber.lastEventId = eventId;
+            }
+        } finally {
+            subscriber.lock().unlock();
+        }
+    }
+
+    private boolean send(final Subscriber subscriber, final SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter().send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Unable to push exchange rates to subscriber of {}: {}", subscriber.currencyCode(), e.getMessage());
+            subscribers.remove(subscriber);
+            return false;
+        }
+    }
+
+    private static long eventId(final RateSnapshot snapshot) {
+        return snapshot.fetchedAt().toEpochMilli();
+    }
+
+    /**
+     * @param since snapshot the subscriber has seen last, {@code null} to render all rates
+     */
+    private String renderEvent(final String currencyCode, final RateSnapshot since, final RateSnapshot snapshot) {
+        Map<String, RateDTO> rates = new TreeMap<>();
+        for (CurrencyExchangeRate rate : snapshot.rates().getExchangeRates(currencyCode)) {
+            CurrencyExchangeRate previous = since == null ? null : since.rates().getExchangeRate(currencyCode, rate.anotherCurrency());
+            if (previous == null || previous.rate().compareTo(rate.rate()) != 0 || previous.doubleConversion() != rate.doubleConversion()) {
+                rates.put(rate.anotherCurrency(), new RateDTO(rate.rate(), rate.doubleConversion()));
+            }
+        }
+        if (since != null) {
+            since.rates().getExchangeRates(currencyCode).stream()
+                 .map(CurrencyExchangeRate::anotherCurrency)
+                 .filter(anotherCurrency -> snapshot.rates().getExchangeRate(currencyCode, anotherCurrency) == null)
+                 .forEach(anotherCurrency -> rates.put(anotherCurrency, null));
+        }
+
+        try {
+            return objectMapper.writeValueAsString(RateUpdateDTO.builder()
+                                                                .baseCurrency(currencyCode)
+                                                                .fromVersion(since == null ? null : since.version())
+                                                                .version(snapshot.version())
+                                                                .fetchedAt(snapshot.fetchedAt())
+                                                                .rates(rates)
+                                                                .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to render exchange rates update for currency '%s'.".formatted(currencyCode), e);
+        }
+    }
+
+    private record PublishedSnapshot(
+        RateSnapshot snapshot,
+        Map<String, String> renderedEvents
+    ) {
+
+        // not computeIfAbsent: thousands of virtual threads would block on the bin monitor while one renders
+        private String getRenderedEvent(final String currencyCode, final Long fromEventId, final Supplier<String> renderer) {
+            String key = currencyCode + ":" + fromEventId;
+            String rendered = renderedEvents.get(key);
+            if (rendered != null) {
+                return rendered;
+            }
+
+            rendered = renderer.get();
+            String concurrentlyRendered = renderedEvents.putIfAbsent(key, rendered);
+
+            return concurrentlyRendered == null ? rendered : concurrentlyRendered;
+        }
+
+    }
+
+    private static final class Subscriber {
+
+        private final String currencyCode;
+        private final SseEmitter emitter;
+        private final Lock lock = new ReentrantLock();
+        private Long lastEventId;
+
+        private Subscriber(final String currencyCode, final SseEmitter emitter, final Long lastEventId) {
+            this.currencyCode = currencyCode;
+            this.emitter = emitter;
+            this.lastEventId = lastEventId;
+        }
+
+        private String currencyCode() {
+            return currencyCode;
+        }
+
+        private SseEmitter emitter() {
+            return emitter;
+        }
+
+        private Lock lock() {
+            return lock;
+        }
+
+    }
+
+}
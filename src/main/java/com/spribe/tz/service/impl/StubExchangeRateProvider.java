@@ -0,0 +1,67 @@
+package com.spribe.tz.service.impl;
+
+import com.spribe.tz.service.ExchangeRateProvider;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+
+/**
+ * Local provider for tests and offline runs. Returns deterministic rates derived from currency codes
+ * after {@code integration.exchangeRates.stub.latency}, without any network calls.
+ */
+@Service
+@ConditionalOnProperty(name = "integration.exchangeRates.stub.enabled", havingValue = "true")
+public class StubExchangeRateProvider implements ExchangeRateProvider {
+
+    private static final String PROVIDER_NAME = "stub";
+
+    @Value("${integration.exchangeRates.baseCurrency}")
+    private String baseCurrencyCode;
+
+    @Value("${integration.exchangeRates.stub.latency}")
+    private Duration latency;
+
+    @Override
+    public String getName() {
+        return PROVIDER_NAME;
+    }
+
+    @Override
+    public BaseExchangeRates getExchangeRateForCurrencies(final Collection<String> currenciesCodes) {
+        return getExchangeRateForCurrencies(currenciesCodes, baseCurrencyCode);
+    }
+
+    @Override
+    public BaseExchangeRates getExchangeRateForCurrencies(final Collection<String> currenciesCodes,
+                                                          final String baseCurrencyCode) {
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching currency exchange rates.", e);
+        }
+
+        CurrencyIndex currencies = CurrencyIndex.of(currenciesCodes);
+        BigDecimal[] rates = new BigDecimal[currencies.size()];
+        for (int id = 0; id < rates.length; id++) {
+            rates[id] = rateOf(currencies.codeOf(id), baseCurrencyCode);
+        }
+
+        return new BaseExchangeRates(baseCurrencyCode, Instant.now().truncatedTo(ChronoUnit.SECONDS), currencies, rates);
+    }
+
+    private static BigDecimal rateOf(final String currencyCode, final String baseCurrencyCode) {
+        return currencyCode.equals(baseCurrencyCode)
+            ? BigDecimal.ONE
+            : BigDecimal.valueOf(Math.floorMod(currencyCode.hashCode(), 100_000) + 1L, 3);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.spribe.tz.service.impl.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Exchange rates exactly as returned by the provider: one rate per currency relative to {@code providerBase}.
+ * {@code rates[id]} is the amount of currency {@code currencies.codeOf(id)} for one unit of provider base,
+ * or {@code null} when provider returned no rate for it.
+ */
+public record BaseExchangeRates(
+    String providerBase,
+    Instant dateTime,
+    CurrencyIndex currencies,
+    BigDecimal[] rates
+) {
+
+    public static final BaseExchangeRates EMPTY = new BaseExchangeRates(null, null, CurrencyIndex.EMPTY, new BigDecimal[0]);
+
+}
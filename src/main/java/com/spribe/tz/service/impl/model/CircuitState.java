@@ -0,0 +1,16 @@
+package com.spribe.tz.service.impl.model;
+
+public enum CircuitState {
+    /**
+     * Calls pass through, consecutive failures are counted.
+     */
+    CLOSED,
+    /**
+     * Calls fail fast without reaching the provider.
+     */
+    OPEN,
+    /**
+     * A single probe call is in flight, other calls fail fast.
+     */
+    HALF_OPEN
+}
@@ -0,0 +1,192 @@
+package com.spribe.tz.service.impl.model;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cross rates derived on demand from provider {@link BaseExchangeRates}. Only the base-relative vector
+ * is stored and any pair is calculated in O(1). Recently requested pairs are kept in a small direct-mapped
+ * cache to avoid repeated calculations.
+ */
+@Slf4j
+public abstract class CrossRates {
+
+    public static final CrossRates EMPTY = of(BaseExchangeRates.EMPTY, RateRepresentation.DECIMAL);
+
+    private static final int HOT_PAIRS_CACHE_BITS = 10;
+
+    private final HotPair[] hotPairs = new HotPair[1 << HOT_PAIRS_CACHE_BITS];
+
+    protected final BaseExchangeRates baseRates;
+    protected final int providerBaseId;
+    private final int availableCurrencies;
+
+    protected CrossRates(final BaseExchangeRates baseRates) {
+        this.baseRates = baseRates;
+        this.providerBaseId = baseRates.currencies().idOf(baseRates.providerBase());
+
+        int available = 0;
+        for (BigDecimal rate : baseRates.rates()) {
+            if (rate != null) {
+                available++;
+            }
+        }
+        this.availableCurrencies = available;
+    }
+
+    /**
+     * Rates exceeding {@link FixedPointRate} range are kept as {@link RateRepresentation#DECIMAL} for the whole snapshot.
+     */
+    public static CrossRates of(final BaseExchangeRates baseRates,
+                                final RateRepresentation representation) {
+        if (representation == RateRepresentation.FIXED_POINT && !FixedPointCrossRates.isRepresentable(baseRates)) {
+            log.warn("Exchange rates of {} exceed fixed-point range, they are kept as decimals.", baseRates.providerBase());
+            return new DecimalCrossRates(baseRates);
+        }
+
+        return switch (representation) {
+            case DECIMAL -> new DecimalCrossRates(baseRates);
+            case FIXED_POINT -> new FixedPointCrossRates(baseRates);
+        };
+    }
+
+    public BaseExchangeRates baseRates() {
+        return baseRates;
+    }
+
+    public CurrencyIndex currencies() {
+        return baseRates.currencies();
+    }
+
+    public boolean isEmpty() {
+        return availableCurrencies == 0;
+    }
+
+    /**
+     * @return number of available {@code (base, another)} pairs
+     */
+    public long pairsCount() {
+        return (long) availableCurrencies * Math.max(availableCurrencies - 1, 0);
+    }
+
+    public boolean contains(final String currencyCode) {
+        int id = baseRates.currencies().idOf(currencyCode);
+        return id >= 0 && baseRates.rates()[id] != null;
+    }
+
+    /**
+     * @return amount of {@code anotherId} currency for one unit of {@code baseId} currency,
+     * or {@code null} when provider returned no rate for any of them
+     */
+    public BigDecimal rate(final int baseId, final int anotherId) {
+        int pairKey = baseId * baseRates.currencies().size() + anotherId;
+        int slot = (pairKey * 0x9E3779B9) >>> (Integer.SIZE - HOT_PAIRS_CACHE_BITS);
+
+        HotPair hotPair = hotPairs[slot];
+        if (hotPair != null && hotPair.pairKey() == pairKey) {
+            return hotPair.rate();
+        }
+
+        BigDecimal rate = calculateRate(baseId, anotherId);
+        if (rate != null) {
+            hotPairs[slot] = new HotPair(pairKey, rate);
+        }
+
+        return rate;
+    }
+
+    public boolean isDoubleConversion(final int baseId, final int anotherId) {
+        return baseId != providerBaseId && anotherId != providerBaseId;
+    }
+
+    /**
+     * Materializes all rates of the base currency.
+     *
+     * @return rates to every other available currency, empty list when base currency is not available
+     */
+    public List<CurrencyExchangeRate> getExchangeRates(final String baseCurrency) {
+        if (!contains(baseCurrency)) {
+            return List.of();
+        }
+
+        CurrencyIndex currencies = baseRates.currencies();
+        int baseId = currencies.idOf(baseCurrency);
+        List<CurrencyExchangeRate> exchangeRates = new ArrayList<>(availableCurrencies - 1);
+
+        for (int anotherId = 0; anotherId < currencies.size(); anotherId++) {
+            BigDecimal rate = anotherId == baseId ? null : calculateRate(baseId, anotherId);
+            if (rate != null) {
+                exchangeRates.add(CurrencyExchangeRate.builder()
+                                                      .baseCurrency(baseCurrency)
+                                                      .anotherCurrency(currencies.codeOf(anotherId))
+                                                      .rate(rate)
+                                                      .dateTime(baseRates.dateTime())
+                                                      .doubleConversion(isDoubleConversion(baseId, anotherId))
+                                                      .build());
+            }
+        }
+
+        return exchangeRates;
+    }
+
+    /**
+     * Looks a single pair up without materializing other rates of the base currency.
+     *
+     * @return rate of the pair, {@code null} when any of currencies is not available
+     */
+    public CurrencyExchangeRate getExchangeRate(final String baseCurrency, final String anotherCurrency) {
+        CurrencyIndex currencies = baseRates.currencies();
+        int baseId = currencies.idOf(baseCurrency);
+        int anotherId = currencies.idOf(anotherCurrency);
+        if (baseId < 0 || anotherId < 0 || baseId == anotherId) {
+            return null;
+        }
+
+        BigDecimal rate = rate(baseId, anotherId);
+        if (rate == null) {
+            return null;
+        }
+
+        return CurrencyExchangeRate.builder()
+                                   .baseCurrency(baseCurrency)
+                                   .anotherCurrency(anotherCurrency)
+                                   .rate(rate)
+                                   .dateTime(baseRates.dateTime())
+                                   .doubleConversion(isDoubleConversion(baseId, anotherId))
+                                   .build();
+    }
+
+    protected abstract BigDecimal calculateRate(int baseId, int anotherId);
+
+    protected BigDecimal calculateDecimalRate(final int baseId, final int anotherId) {
+        BigDecimal baseRate = baseRates.rates()[baseId];
+        BigDecimal anotherRate = baseRates.rates()[anotherId];
+
+        if (baseRate == null || anotherRate == null) {
+            return null;
+        }
+
+        return crossRate(baseRate, anotherRate, baseId == providerBaseId);
+    }
+
+    /**
+     * Calculates cross rate from provider rates of both currencies, the same way for cached and historical rates.
+     */
+    public static BigDecimal crossRate(final BigDecimal baseRate,
+                                       final BigDecimal anotherRate,
+                                       final boolean baseIsProviderBase) {
+        return baseIsProviderBase
+            ? anotherRate
+            : anotherRate.divide(baseRate, MathContext.DECIMAL64);
+    }
+
+    private record HotPair(
+        int pairKey,
+        BigDecimal rate
+    ) {}
+
+}
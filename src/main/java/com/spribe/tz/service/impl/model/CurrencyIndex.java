@@ -0,0 +1,53 @@
+package com.spribe.tz.service.impl.model;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable mapping between currency codes and compact ids {@code 0..size-1},
+ * used to address currencies in rate vectors.
+ */
+public final class CurrencyIndex {
+
+    public static final CurrencyIndex EMPTY = of(List.of());
+
+    private final List<String> codes;
+    private final Map<String, Integer> ids;
+
+    private CurrencyIndex(final List<String> codes) {
+        this.codes = codes;
+        this.ids = new HashMap<>(codes.size() * 2);
+        for (int id = 0; id < codes.size(); id++) {
+            ids.put(codes.get(id), id);
+        }
+    }
+
+    public static CurrencyIndex of(final Collection<String> currenciesCodes) {
+        return new CurrencyIndex(currenciesCodes.stream()
+                                                .distinct()
+                                                .toList());
+    }
+
+    /**
+     * @return id of the currency or {@code -1} when currency is not indexed
+     */
+    public int idOf(final String currencyCode) {
+        Integer id = ids.get(currencyCode);
+        return id == null ? -1 : id;
+    }
+
+    public String codeOf(final int id) {
+        return codes.get(id);
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    public List<String> codes() {
+        return codes;
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.spribe.tz.service.impl.model;
+
+/**
+ * Counters of the currency log write-behind stage, in {@code (base, another)} pair rates.
+ *
+ * @param pendingLogs logs accepted but not written yet
+ * @param writtenLogs logs persisted to database
+ * @param droppedLogs logs rejected because the queue was full
+ * @param failedLogs  logs discarded after all write attempts failed
+ * @param retriedBatches number of batch write retries
+ */
+public record CurrencyLogWriterStats(long pendingLogs,
+                                     long writtenLogs,
+                                     long droppedLogs,
+                                     long failedLogs,
+                                     long retriedBatches) {
+}
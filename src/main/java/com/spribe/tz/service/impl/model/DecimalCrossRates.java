@@ -0,0 +1,19 @@
+package com.spribe.tz.service.impl.model;
+
+import java.math.BigDecimal;
+
+/**
+ * {@link CrossRates} calculated with {@code MathContext.DECIMAL64}.
+ */
+public final class DecimalCrossRates extends CrossRates {
+
+    DecimalCrossRates(final BaseExchangeRates baseRates) {
+        super(baseRates);
+    }
+
+    @Override
+    protected BigDecimal calculateRate(final int baseId, final int anotherId) {
+        return calculateDecimalRate(baseId, anotherId);
+    }
+
+}
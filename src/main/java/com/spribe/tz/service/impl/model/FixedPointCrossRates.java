@@ -0,0 +1,78 @@
+package com.spribe.tz.service.impl.model;
+
+import java.math.BigDecimal;
+
+/**
+ * {@link CrossRates} kept as {@link FixedPointRate} values. Cross rates are calculated with integer
+ * arithmetic only, pairs exceeding fixed-point range fall back to {@code MathContext.DECIMAL64}.
+ * Rates of the provider base currency are converted to {@link BigDecimal} once, so reading them does not allocate.
+ */
+public final class FixedPointCrossRates extends CrossRates {
+
+    private final long[] rates;
+    private final BigDecimal[] providerBaseRates;
+
+    /**
+     * @throws ArithmeticException when any provider rate exceeds fixed-point range
+     */
+    FixedPointCrossRates(final BaseExchangeRates baseRates) {
+        super(baseRates);
+
+        BigDecimal[] decimalRates = baseRates.rates();
+        this.rates = new long[decimalRates.length];
+        this.providerBaseRates = new BigDecimal[decimalRates.length];
+        for (int id = 0; id < decimalRates.length; id++) {
+            if (decimalRates[id] == null) {
+                rates[id] = FixedPointRate.NOT_AVAILABLE;
+            } else {
+                rates[id] = FixedPointRate.fromDecimal(decimalRates[id]);
+                providerBaseRates[id] = FixedPointRate.toDecimal(rates[id]);
+            }
+        }
+    }
+
+    /**
+     * @return {@code false} when any provider rate exceeds fixed-point range
+     */
+    static boolean isRepresentable(final BaseExchangeRates baseRates) {
+        for (BigDecimal rate : baseRates.rates()) {
+            if (rate != null && !FixedPointRate.isRepresentable(rate)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return fixed-point rate or {@link FixedPointRate#NOT_AVAILABLE} when provider returned no rate for any of currencies
+     * @throws ArithmeticException when rate exceeds fixed-point range
+     */
+    public long fixedPointRate(final int baseId, final int anotherId) {
+        long baseRate = rates[baseId];
+        long anotherRate = rates[anotherId];
+
+        if (baseRate == FixedPointRate.NOT_AVAILABLE || anotherRate == FixedPointRate.NOT_AVAILABLE) {
+            return FixedPointRate.NOT_AVAILABLE;
+        }
+
+        return baseId == providerBaseId
+            ? anotherRate
+            : FixedPointRate.divide(anotherRate, baseRate);
+    }
+
+    @Override
+    protected BigDecimal calculateRate(final int baseId, final int anotherId) {
+        if (baseId == providerBaseId) {
+            return rates[baseId] == FixedPointRate.NOT_AVAILABLE ? null : providerBaseRates[anotherId];
+        }
+
+        try {
+            long rate = fixedPointRate(baseId, anotherId);
+            return rate == FixedPointRate.NOT_AVAILABLE ? null : FixedPointRate.toDecimal(rate);
+        } catch (ArithmeticException e) {
+            return calculateDecimalRate(baseId, anotherId);
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.spribe.tz.service.impl.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exchange rates as {@code long} values scaled by 10^{@value #SCALE}.
+ * <p>
+ * Precision: values have an absolute resolution of 1e-10. Provider rates with more than 10 fractional digits
+ * are rounded {@link RoundingMode#HALF_UP} to it, and so are cross rates, which is exact decimal rounding
+ * of the quotient of the rounded inputs. For inputs with at most 10 fractional digits results differ from
+ * {@code MathContext.DECIMAL64} (16 significant digits) by at most one unit of the coarser of both precisions:
+ * 1e-10, or the 16th significant digit for quotients of 1e6 and above, where fixed point keeps more digits
+ * (27215.5 / 0.0015 is 18143666.6666666667 here and 18143666.66666667 in DECIMAL64). Rates below ~1e-4 keep fewer
+ * significant digits than their BigDecimal counterparts, and rates below 5e-11 round to 0.
+ * Largest representable rate is {@code Long.MAX_VALUE / 10^10} (~9.2e8), see {@link #isRepresentable(BigDecimal)}.
+ */
+public final class FixedPointRate {
+
+    public static final int SCALE = 10;
+    public static final long UNIT = 10_000_000_000L;
+    public static final long NOT_AVAILABLE = -1L;
+
+    private FixedPointRate() {}
+
+    private static final BigDecimal MAX_RATE = BigDecimal.valueOf(Long.MAX_VALUE, SCALE);
+
+    /**
+     * @return {@code false} when the rate exceeds fixed-point range
+     */
+    public static boolean isRepresentable(final BigDecimal rate) {
+        return rate.setScale(SCALE, RoundingMode.HALF_UP).compareTo(MAX_RATE) <= 0;
+    }
+
+    /**
+     * @throws ArithmeticException when rate exceeds fixed-point range
+     */
+    public static long fromDecimal(final BigDecimal rate) {
+        return rate.setScale(SCALE, RoundingMode.HALF_UP)
+                   .unscaledValue()
+                   .longValueExact();
+    }
+
+    /**
+     * @return rate without trailing fractional zeros, trimmed on the {@code long} so only the result is allocated
+     */
+    public static BigDecimal toDecimal(final long rate) {
+        long unscaled = rate;
+        int scale = SCALE;
+        while (scale > 0 && unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * Calculates {@code numerator / denominator} for positive fixed-point values without allocation,
+     * using long division digit by digit.
+     *
+     * @throws ArithmeticException when result is out of fixed-point range
+     */
+    public static long divide(final long numerator, final long denominator) {
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        long result = Math.multiplyExact(quotient, UNIT);
+
+        long fraction = 0;
+        for (int digit = 0; digit < SCALE; digit++) {
+            remainder = Math.multiplyExact(remainder, 10L);
+            fraction = fraction * 10 + remainder / denominator;
+            remainder %= denominator;
+        }
+        if (remainder >= denominator - remainder) {
+            fraction++;
+        }
+
+        return Math.addExact(result, fraction);
+    }
+
+}
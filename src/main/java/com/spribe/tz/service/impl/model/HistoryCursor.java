@@ -0,0 +1,39 @@
+package com.spribe.tz.service.impl.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset pagination position in rates history: last returned {@code (rateDateTime, id)}.
+ * Exposed to clients as an opaque URL-safe token.
+ */
+public record HistoryCursor(Instant rateDateTime, long id) {
+
+    private static final String SEPARATOR = "_";
+
+    /**
+     * Position before every rate recorded at or after {@code from}.
+     */
+    public static HistoryCursor startingAt(final Instant from) {
+        return new HistoryCursor(from, 0L);
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString((rateDateTime + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HistoryCursor decode(final String token) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                .split(SEPARATOR, 2);
+
+            return new HistoryCursor(Instant.parse(position[0]), Long.parseLong(position[1]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid history cursor '%s'.".formatted(token), e);
+        }
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.spribe.tz.service.impl.model;
+
+/**
+ * How exchange rates history is persisted.
+ */
+public enum HistoryStorage {
+    /**
+     * One {@code CURRENCY_LOG} row per {@code (base, another)} pair of every refresh.
+     */
+    PAIRS,
+    /**
+     * One {@code CURRENCY_RATE_SNAPSHOT} row per refresh holding provider base-relative rates,
+     * cross rates are reconstructed on read.
+     */
+    SNAPSHOT
+}
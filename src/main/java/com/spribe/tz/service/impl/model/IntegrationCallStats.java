@@ -0,0 +1,21 @@
+package com.spribe.tz.service.impl.model;
+
+import java.time.Duration;
+
+/**
+ * Latency counters of calls to the exchange rates provider.
+ *
+ * @param calls         completed and failed calls
+ * @param failedCalls   calls that timed out, failed on I/O or returned an error status
+ * @param receivedBytes response body bytes received, before decompression
+ * @param lastLatency   latency of the most recent call
+ * @param maxLatency    highest observed latency
+ * @param totalLatency  sum of all call latencies
+ */
+public record IntegrationCallStats(long calls,
+                                   long failedCalls,
+                                   long receivedBytes,
+                                   Duration lastLatency,
+                                   Duration maxLatency,
+                                   Duration totalLatency) {
+}
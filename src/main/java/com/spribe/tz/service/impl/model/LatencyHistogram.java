@@ -0,0 +1,95 @@
+package com.spribe.tz.service.impl.model;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency histogram with power-of-two millisecond buckets, bucket {@code i} holds latencies
+ * up to {@code 2^i} ms. Counts are halved once per {@code decayInterval} of wall time rather than per number
+ * of samples, so a provider that degrades is reordered within a few intervals however many fast calls it served
+ * before, and a provider that is rarely called does not keep its outdated latencies. Concurrent updates during
+ * decay may be lost, percentiles are approximate.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 18;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final long decayIntervalNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong lastDecay;
+
+    public LatencyHistogram(final Duration decayInterval) {
+        this(decayInterval, System::nanoTime);
+    }
+
+    public LatencyHistogram(final Duration decayInterval, final LongSupplier nanoClock) {
+        this.decayIntervalNanos = decayInterval.toNanos();
+        this.nanoClock = nanoClock;
+        this.lastDecay = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    public void record(final Duration latency) {
+        long millis = Math.max(latency.toMillis(), 1);
+        int bucket = Math.min(Long.SIZE - Long.numberOfLeadingZeros(millis - 1), BUCKETS - 1);
+
+        decayIfDue();
+        counts.incrementAndGet(bucket);
+    }
+
+    /**
+     * @return upper bound of the bucket holding the quantile, or {@code null} when nothing was recorded
+     */
+    public Duration percentile(final double quantile) {
+        decayIfDue();
+
+        long[] snapshot = new long[BUCKETS];
+        long sum = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+            sum += snapshot[bucket];
+        }
+        if (sum == 0) {
+            return null;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * sum));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS - 1; bucket++) {
+            seen += snapshot[bucket];
+            if (seen >= rank) {
+                return Duration.ofMillis(1L << bucket);
+            }
+        }
+
+        return Duration.ofMillis(1L << (BUCKETS - 1));
+    }
+
+    /**
+     * Halves counts once for every whole interval elapsed since the last decay. Callers check the interval
+     * without locking, so they synchronize only about once per interval.
+     */
+    private void decayIfDue() {
+        long now = nanoClock.getAsLong();
+        if (now - lastDecay.get() < decayIntervalNanos) {
+            return;
+        }
+
+        synchronized (this) {
+            long last = lastDecay.get();
+            long intervals = (now - last) / decayIntervalNanos;
+            if (intervals <= 0) {
+                return;
+            }
+
+            int shift = (int) Math.min(intervals, Long.SIZE - 1);
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                counts.updateAndGet(bucket, count -> count >>> shift);
+            }
+            lastDecay.set(last + intervals * decayIntervalNanos);
+        }
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.spribe.tz.service.impl.model;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+/**
+ * Validated page request of currency pair rates history.
+ */
+@Builder
+public record RateHistory(
+    String baseCurrency,
+    String anotherCurrency,
+    HistoryCursor after,
+    Instant until,
+    int limit
+) {}
@@ -0,0 +1,15 @@
+package com.spribe.tz.service.impl.model;
+
+public enum RateRepresentation {
+
+    /**
+     * {@link java.math.BigDecimal} rates, cross rates calculated with {@code MathContext.DECIMAL64}.
+     */
+    DECIMAL,
+
+    /**
+     * Scaled {@code long} rates, see {@link FixedPointRate} for precision details.
+     */
+    FIXED_POINT
+
+}
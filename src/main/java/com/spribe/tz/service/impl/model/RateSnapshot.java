@@ -0,0 +1,48 @@
+package com.spribe.tz.service.impl.model;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Immutable view of all known exchange rates. A new instance is published on every refresh,
+ * so readers always observe rates, version and fetch timestamp belonging to the same fetch.
+ * Rendered responses are memoized per snapshot on first request of each base currency.
+ */
+public record RateSnapshot(
+    long version,
+    Instant fetchedAt,
+    CrossRates rates,
+    Map<String, RenderedCurrencyRates> renderedRates
+) {
+
+    public static final RateSnapshot EMPTY = new RateSnapshot(0L, null, CrossRates.EMPTY, Map.of());
+
+    public boolean isEmpty() {
+        return rates.isEmpty();
+    }
+
+    public RateSnapshot next(final BaseExchangeRates fetchedRates,
+                             final Instant fetchedAt,
+                             final RateRepresentation representation) {
+        return new RateSnapshot(version + 1, fetchedAt, CrossRates.of(fetchedRates, representation), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @return rendered rates of the base currency, {@code null} when currency is not available in this snapshot
+     */
+    public RenderedCurrencyRates getRenderedRates(final String currencyCode,
+                                                  final Function<String, RenderedCurrencyRates> renderer) {
+        RenderedCurrencyRates rendered = renderedRates.get(currencyCode);
+        if (rendered != null || !rates.contains(currencyCode)) {
+            return rendered;
+        }
+
+        rendered = renderer.apply(currencyCode);
+        RenderedCurrencyRates concurrentlyRendered = renderedRates.putIfAbsent(currencyCode, rendered);
+
+        return concurrentlyRendered == null ? rendered : concurrentlyRendered;
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.spribe.tz.service.impl.model;
+
+import java.util.function.Supplier;
+
+/**
+ * {@link com.spribe.tz.controller.dto.CurrencyRateDTO} serialized once per snapshot in every supported format.
+ * JSON and gzipped JSON are rendered upfront, CBOR on the first request for it since most clients never ask for it.
+ * Arrays are shared between requests and must never be modified.
+ */
+public final class RenderedCurrencyRates {
+
+    private final byte[] json;
+    private final byte[] gzippedJson;
+    private final String eTag;
+    private final String gzippedETag;
+    private final String cborETag;
+    private final Supplier<byte[]> cborRenderer;
+    private volatile byte[] cbor;
+
+    /**
+     * @param eTag         hash of the JSON document, tags of other formats are derived from it
+     * @param cborRenderer renders CBOR document, called when it is requested first
+     */
+    public RenderedCurrencyRates(final byte[] json,
+                                 final byte[] gzippedJson,
+                                 final String eTag,
+                                 final Supplier<byte[]> cborRenderer) {
+        this.json = json;
+        this.gzippedJson = gzippedJson;
+        this.eTag = "\"" + eTag + "\"";
+        this.gzippedETag = "\"" + eTag + "-gzip\"";
+        this.cborETag = "\"" + eTag + "-cbor\"";
+        this.cborRenderer = cborRenderer;
+    }
+
+    public byte[] json() {
+        return json;
+    }
+
+    public byte[] gzippedJson() {
+        return gzippedJson;
+    }
+
+    /**
+     * Not rendered under a lock: concurrent first requests may render it more than once, any copy is equal.
+     */
+    public byte[] cbor() {
+        byte[] rendered = cbor;
+        if (rendered == null) {
+            rendered = cborRenderer.get();
+            cbor = rendered;
+        }
+
+        return rendered;
+    }
+
+    public String eTag() {
+        return eTag;
+    }
+
+    public String gzippedETag() {
+        return gzippedETag;
+    }
+
+    public String cborETag() {
+        return cborETag;
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.spribe.tz.service.impl.model;
+
+/**
+ * Encoding of responses rendered by services instead of HTTP message converters.
+ */
+public enum ResponseFormat {
+
+    JSON,
+
+    /**
+     * RFC 8949 binary encoding of the same document, decimals are written as decimal fractions without text conversion.
+     */
+    CBOR
+
+}
@@ -0,0 +1,13 @@
+package com.spribe.tz.service.impl.model;
+
+import java.time.Instant;
+
+/**
+ * Provider rates restored from history.
+ *
+ * @param fetchedAt time the rates were written, close to the time they were fetched
+ */
+public record StoredExchangeRates(
+    BaseExchangeRates rates,
+    Instant fetchedAt
+) {}
@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset guzev.dev@gmail.com:1
+CREATE SEQUENCE CURRENCY_LOG_SEQ INCREMENT BY 500 OWNED BY CURRENCY_LOG.ID;
+SELECT SETVAL('CURRENCY_LOG_SEQ', MAX(ID) + 500) FROM CURRENCY_LOG HAVING MAX(ID) IS NOT NULL;
+--rollback DROP SEQUENCE CURRENCY_LOG_SEQ;
\ No newline at end of file
@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset guzev.dev@gmail.com:1 runInTransaction:false
+CREATE INDEX CONCURRENTLY CURRENCY_LOG_HISTORY_IDX
+    ON CURRENCY_LOG (BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, RATE_DATE_TIME, ID);
+--rollback DROP INDEX CURRENCY_LOG_HISTORY_IDX;
\ No newline at end of file
@@ -0,0 +1,55 @@
+--liquibase formatted sql
+
+--changeset guzev.dev@gmail.com:1
+ALTER TABLE CURRENCY_LOG RENAME TO CURRENCY_LOG_LEGACY;
+ALTER INDEX CURRENCY_LOG_HISTORY_IDX RENAME TO CURRENCY_LOG_LEGACY_HISTORY_IDX;
+
+CREATE TABLE CURRENCY_LOG (
+    ID                      BIGINT NOT NULL,
+    BASE_CURRENCY_CODE      VARCHAR(3) NOT NULL,
+    ANOTHER_CURRENCY_CODE   VARCHAR(3) NOT NULL,
+    RATE                    DECIMAL NOT NULL,
+    RATE_DATE_TIME          TIMESTAMP NOT NULL,
+    DOUBLE_CONVERSION       BOOLEAN DEFAULT FALSE,
+    CREATION_DATE           TIMESTAMP NULL,
+
+    PRIMARY KEY (ID, RATE_DATE_TIME),
+    FOREIGN KEY (BASE_CURRENCY_CODE) REFERENCES CURRENCY(CURRENCY_CODE),
+    FOREIGN KEY (ANOTHER_CURRENCY_CODE) REFERENCES CURRENCY(CURRENCY_CODE)
+) PARTITION BY RANGE (RATE_DATE_TIME);
+
+CREATE INDEX CURRENCY_LOG_HISTORY_IDX
+    ON CURRENCY_LOG (BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, RATE_DATE_TIME, ID);
+
+CREATE TABLE CURRENCY_LOG_DEFAULT PARTITION OF CURRENCY_LOG DEFAULT;
+--rollback DROP TABLE CURRENCY_LOG;
+--rollback ALTER INDEX CURRENCY_LOG_LEGACY_HISTORY_IDX RENAME TO CURRENCY_LOG_HISTORY_IDX;
+--rollback ALTER TABLE CURRENCY_LOG_LEGACY RENAME TO CURRENCY_LOG;
+
+--changeset guzev.dev@gmail.com:2 splitStatements:false
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR month_start IN
+        SELECT GENERATE_SERIES(
+                   DATE_TRUNC('month', COALESCE(MIN(COALESCE(RATE_DATE_TIME, CREATION_DATE)), NOW())),
+                   DATE_TRUNC('month', NOW()),
+                   INTERVAL '1 month')::DATE
+        FROM CURRENCY_LOG_LEGACY
+    LOOP
+        EXECUTE FORMAT('CREATE TABLE CURRENCY_LOG_%s PARTITION OF CURRENCY_LOG FOR VALUES FROM (%L) TO (%L)',
+                       TO_CHAR(month_start, 'YYYY_MM'), month_start, month_start + INTERVAL '1 month');
+    END LOOP;
+END $$;
+--rollback empty
+
+--changeset guzev.dev@gmail.com:3
+INSERT INTO CURRENCY_LOG (ID, BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, RATE, RATE_DATE_TIME, DOUBLE_CONVERSION, CREATION_DATE)
+SELECT ID, BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, RATE, COALESCE(RATE_DATE_TIME, CREATION_DATE, NOW()), DOUBLE_CONVERSION, CREATION_DATE
+FROM CURRENCY_LOG_LEGACY;
+
+ALTER SEQUENCE CURRENCY_LOG_SEQ OWNED BY CURRENCY_LOG.ID;
+
+DROP TABLE CURRENCY_LOG_LEGACY;
+--rollback empty
\ No newline at end of file
@@ -0,0 +1,64 @@
+--liquibase formatted sql
+
+--changeset guzev.dev@gmail.com:1
+CREATE TABLE CURRENCY_RATE_HOURLY (
+    BASE_CURRENCY_CODE      VARCHAR(3) NOT NULL,
+    ANOTHER_CURRENCY_CODE   VARCHAR(3) NOT NULL,
+    BUCKET_START            TIMESTAMP NOT NULL,
+    OPEN_RATE               DECIMAL NOT NULL,
+    HIGH_RATE               DECIMAL NOT NULL,
+    LOW_RATE                DECIMAL NOT NULL,
+    CLOSE_RATE              DECIMAL NOT NULL,
+    OPEN_DATE_TIME          TIMESTAMP NOT NULL,
+    CLOSE_DATE_TIME         TIMESTAMP NOT NULL,
+
+    PRIMARY KEY (BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, BUCKET_START),
+    FOREIGN KEY (BASE_CURRENCY_CODE) REFERENCES CURRENCY(CURRENCY_CODE),
+    FOREIGN KEY (ANOTHER_CURRENCY_CODE) REFERENCES CURRENCY(CURRENCY_CODE)
+);
+
+CREATE TABLE CURRENCY_RATE_DAILY (
+    BASE_CURRENCY_CODE      VARCHAR(3) NOT NULL,
+    ANOTHER_CURRENCY_CODE   VARCHAR(3) NOT NULL,
+    BUCKET_START            TIMESTAMP NOT NULL,
+    OPEN_RATE               DECIMAL NOT NULL,
+    HIGH_RATE               DECIMAL NOT NULL,
+    LOW_RATE                DECIMAL NOT NULL,
+    CLOSE_RATE              DECIMAL NOT NULL,
+    OPEN_DATE_TIME          TIMESTAMP NOT NULL,
+    CLOSE_DATE_TIME         TIMESTAMP NOT NULL,
+
+    PRIMARY KEY (BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, BUCKET_START),
+    FOREIGN KEY (BASE_CURRENCY_CODE) REFERENCES CURRENCY(CURRENCY_CODE),
+    FOREIGN KEY (ANOTHER_CURRENCY_CODE) REFERENCES CURRENCY(CURRENCY_CODE)
+);
+--rollback DROP TABLE CURRENCY_RATE_DAILY;
+--rollback DROP TABLE CURRENCY_RATE_HOURLY;
+
+--changeset guzev.dev@gmail.com:2
+INSERT INTO CURRENCY_RATE_HOURLY
+SELECT BASE_CURRENCY_CODE,
+       ANOTHER_CURRENCY_CODE,
+       DATE_TRUNC('hour', RATE_DATE_TIME),
+       (ARRAY_AGG(RATE ORDER BY RATE_DATE_TIME))[1],
+       MAX(RATE),
+       MIN(RATE),
+       (ARRAY_AGG(RATE ORDER BY RATE_DATE_TIME DESC))[1],
+       MIN(RATE_DATE_TIME),
+       MAX(RATE_DATE_TIME)
+FROM CURRENCY_LOG
+GROUP BY BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, DATE_TRUNC('hour', RATE_DATE_TIME);
+
+INSERT INTO CURRENCY_RATE_DAILY
+SELECT BASE_CURRENCY_CODE,
+       ANOTHER_CURRENCY_CODE,
+       DATE_TRUNC('day', BUCKET_START),
+       (ARRAY_AGG(OPEN_RATE ORDER BY OPEN_DATE_TIME))[1],
+       MAX(HIGH_RATE),
+       MIN(LOW_RATE),
+       (ARRAY_AGG(CLOSE_RATE ORDER BY CLOSE_DATE_TIME DESC))[1],
+       MIN(OPEN_DATE_TIME),
+       MAX(CLOSE_DATE_TIME)
+FROM CURRENCY_RATE_HOURLY
+GROUP BY BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, DATE_TRUNC('day', BUCKET_START);
+--rollback TRUNCATE TABLE CURRENCY_RATE_DAILY, CURRENCY_RATE_HOURLY;
\ No newline at end of file
@@ -0,0 +1,15 @@
+--liquibase formatted sql
+
+--changeset guzev.dev@gmail.com:1
+CREATE TABLE CURRENCY_RATE_SNAPSHOT (
+    ID                      BIGSERIAL PRIMARY KEY,
+    PROVIDER_BASE           VARCHAR(3) NOT NULL,
+    RATE_DATE_TIME          TIMESTAMP NOT NULL,
+    CURRENCY_CODES          VARCHAR(3)[] NOT NULL,
+    RATES                   DECIMAL[] NOT NULL,
+    CREATION_DATE           TIMESTAMP NULL
+);
+
+CREATE INDEX CURRENCY_RATE_SNAPSHOT_DATE_TIME_IDX
+    ON CURRENCY_RATE_SNAPSHOT (RATE_DATE_TIME, ID);
+--rollback DROP TABLE CURRENCY_RATE_SNAPSHOT;
\ No newline at end of file
@@ -1,28 +1,65 @@
 package com.spribe.tz.controller;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORMapper;
 import com.spribe.tz.controller.dto.CurrencyRateDTO;
+import com.spribe.tz.controller.dto.CurrencyStatusDTO;
+import com.spribe.tz.controller.dto.CurrencyStatusDTO.CurrencyStatus;
+import com.spribe.tz.controller.dto.PairRateDTO;
 import com.spribe.tz.controller.dto.RateDTO;
+import com.spribe.tz.controller.dto.RateRollupDTO;
+import com.spribe.tz.controller.dto.RateRollupsDTO;
+import com.spribe.tz.dao.model.RollupInterval;
+import com.spribe.tz.service.CurrencyConversionService;
 import com.spribe.tz.service.CurrencyRateService;
+import com.spribe.tz.service.RateHistoryService;
+import com.spribe.tz.service.RateStreamService;
+import com.spribe.tz.service.impl.CurrencyRateRenderer;
+import com.spribe.tz.service.impl.model.HistoryCursor;
+import com.spribe.tz.service.impl.model.RateHistory;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import com.spribe.tz.service.impl.model.RenderedCurrencyRates;
+import com.spribe.tz.service.impl.model.ResponseFormat;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc(printOnlyOnFailure = false)
@@ -36,6 +73,18 @@ class CurrencyControllerTest {
     @MockBean
     private CurrencyRateService currencyRateService;
 
+    @MockBean
+    private RateHistoryService rateHistoryService;
+
+    @MockBean
+    private CurrencyConversionService currencyConversionService;
+
+    @MockBean
+    private RateStreamService rateStreamService;
+
+    @Autowired
+    private CurrencyRateRenderer currencyRateRenderer;
+
     @Test
     @DisplayName("Should add currency")
     void shouldAddCurrency() throws Exception {
@@ -47,6 +96,22 @@ class CurrencyControllerTest {
         verify(currencyRateService).addCurrency("USD");
     }
 
+    @Test
+    @DisplayName("Should get currency status")
+    void shouldGetCurrencyStatus() throws Exception {
+        when(currencyRateService.getCurrencyStatus("USD"))
+            .thenReturn(new CurrencyStatusDTO("USD", CurrencyStatus.AVAILABLE, 3L, Instant.EPOCH));
+
+        mockMvc.perform(get("/currencies/USD/status"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.currencyCode").value("USD"))
+               .andExpect(jsonPath("$.status").value("AVAILABLE"))
+               .andExpect(jsonPath("$.version").value(3))
+               .andExpect(jsonPath("$.fetchedAt").value("1970-01-01T00:00:00Z"));
+
+        verify(currencyRateService).getCurrencyStatus("USD");
+    }
+
     @Test
     @DisplayName("Should get used currencies")
     void shouldGetUsedCurrencies() throws Exception {
@@ -67,23 +132,272 @@ class CurrencyControllerTest {
     @Test
     @DisplayName("Should get currency exchange rates for currency")
     void shouldGetCurrencyExchangeRatesForCurrency() throws Exception {
-        when(currencyRateService.getCurrencyRates("USD"))
-            .thenReturn(CurrencyRateDTO.builder()
-                                       .baseCurrency("USD")
-                                       .rates(Map.of(
-                                           "EUR", RateDTO.builder().rate(new BigDecimal("0.983")).doubleConversion(false).build(),
-                                           "UAH", RateDTO.builder().rate(new BigDecimal("41.532")).doubleConversion(true).build()))
-                                       .build());
+        RenderedCurrencyRates renderedRates = renderCurrencyRates();
+        when(currencyRateService.getRenderedCurrencyRates("USD"))
+            .thenReturn(renderedRates);
 
         mockMvc.perform(get("/currencies/USD/rates"))
                .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.ETAG, renderedRates.eTag()))
+               .andExpect(header().string("X-Rates-Stale", "false"))
+               .andExpect(header().doesNotExist(HttpHeaders.AGE))
                .andExpect(jsonPath("$.baseCurrency").value("USD"))
                .andExpect(jsonPath("$.rates").isMap())
                .andExpect(jsonPath("$.rates.EUR.rate").value("0.983"))
                .andExpect(jsonPath("$.rates.EUR.doubleConversion").value("false"))
                .andExpect(jsonPath("$.rates.UAH.rate").value("41.532"))
-               .andExpect(jsonPath("$.rates.UAH.doubleConversion").value("true"));
+               .andExpect(jsonPath("$.rates.UAH.doubleConversion").value("true"))
+               .andExpect(jsonPath("$.version").value(1));
+
+        verify(currencyRateService).getRenderedCurrencyRates("USD");
+    }
+
+    @Test
+    @DisplayName("Should mark currency exchange rates as stale while provider fails")
+    void shouldMarkCurrencyExchangeRatesAsStaleWhileProviderFails() throws Exception {
+        when(currencyRateService.getRenderedCurrencyRates("USD"))
+            .thenReturn(renderCurrencyRates());
+        when(currencyRateService.isStale())
+            .thenReturn(true);
+        when(currencyRateService.getRatesAge())
+            .thenReturn(Duration.ofMinutes(95));
+
+        mockMvc.perform(get("/currencies/USD/rates"))
+               .andExpect(status().isOk())
+               .andExpect(header().string("X-Rates-Stale", "true"))
+               .andExpect(header().string(HttpHeaders.AGE, "5700"))
+               .andExpect(jsonPath("$.baseCurrency").value("USD"));
+    }
+
+    @Test
+    @DisplayName("Get currency exchange rates should return not modified for matching ETag")
+    void getCurrencyExchangeRatesShouldReturnNotModifiedForMatchingETag() throws Exception {
+        RenderedCurrencyRates renderedRates = renderCurrencyRates();
+        when(currencyRateService.getRenderedCurrencyRates("USD"))
+            .thenReturn(renderedRates);
+
+        mockMvc.perform(get("/currencies/USD/rates")
+                   .header(HttpHeaders.IF_NONE_MATCH, renderedRates.eTag()))
+               .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Get currency exchange rates should return gzipped body when client accepts gzip")
+    void getCurrencyExchangeRatesShouldReturnGzippedBodyWhenClientAcceptsGzip() throws Exception {
+        RenderedCurrencyRates renderedRates = renderCurrencyRates();
+        when(currencyRateService.getRenderedCurrencyRates("USD"))
+            .thenReturn(renderedRates);
+
+        byte[] body = mockMvc.perform(get("/currencies/USD/rates")
+                                 .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                             .andExpect(status().isOk())
+                             .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                             .andExpect(header().string(HttpHeaders.ETAG, renderedRates.gzippedETag()))
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsByteArray();
+
+        assertThat(gunzip(body))
+            .isEqualTo(new String(renderedRates.json(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Get currency exchange rates should return pre-encoded CBOR when client accepts CBOR")
+    void getCurrencyExchangeRatesShouldReturnPreEncodedCborWhenClientAcceptsCbor() throws Exception {
+        RenderedCurrencyRates renderedRates = renderCurrencyRates();
+        when(currencyRateService.getRenderedCurrencyRates("USD"))
+            .thenReturn(renderedRates);
+
+        byte[] body = mockMvc.perform(get("/currencies/USD/rates")
+                                 .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor")
+                                 .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                             .andExpect(status().isOk())
+                             .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                             .andExpect(header().string(HttpHeaders.ETAG, renderedRates.cborETag()))
+                             .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsByteArray();
+
+        assertThat(body)
+            .isEqualTo(renderedRates.cbor());
+        assertThat(new CBORMapper().readTree(body).at("/rates/UAH/rate").decimalValue())
+            .isEqualTo(new BigDecimal("41.532"));
+    }
+
+    @Test
+    @DisplayName("Should get currency exchange rates for several base currencies")
+    void shouldGetCurrencyExchangeRatesForSeveralBaseCurrencies() throws Exception {
+        RenderedCurrencyRates renderedRates = renderCurrencyRates();
+        when(currencyRateService.getRenderedCurrencyRates(List.of("USD", "EUR"), ResponseFormat.JSON))
+            .thenReturn(currencyRateRenderer.renderArray(List.of(renderedRates, renderedRates), ResponseFormat.JSON));
+
+        mockMvc.perform(get("/currencies/rates")
+                   .param("bases", "USD,EUR"))
+               .andExpect(status().isOk())
+               .andExpect(header().string("X-Rates-Stale", "false"))
+               .andExpect(jsonPath("$", hasSize(2)))
+               .andExpect(jsonPath("$[0].baseCurrency").value("USD"))
+               .andExpect(jsonPath("$[0].rates.UAH.rate").value("41.532"))
+               .andExpect(jsonPath("$[1].version").value(1));
+
+        verify(currencyRateService).getRenderedCurrencyRates(List.of("USD", "EUR"), ResponseFormat.JSON);
+    }
+
+    @Test
+    @DisplayName("Should get exchange rate of currency pair")
+    void shouldGetExchangeRateOfCurrencyPair() throws Exception {
+        when(currencyRateService.getPairRate("USD", "UAH"))
+            .thenReturn(new PairRateDTO("USD", "UAH", new BigDecimal("41.532"), true, 3L, Instant.EPOCH));
+
+        mockMvc.perform(get("/currencies/USD/rates/UAH"))
+               .andExpect(status().isOk())
+               .andExpect(header().string("X-Rates-Stale", "false"))
+               .andExpect(jsonPath("$.baseCurrency").value("USD"))
+               .andExpect(jsonPath("$.anotherCurrency").value("UAH"))
+               .andExpect(jsonPath("$.rate").value(41.532))
+               .andExpect(jsonPath("$.doubleConversion").value(true))
+               .andExpect(jsonPath("$.version").value(3))
+               .andExpect(jsonPath("$.fetchedAt").value("1970-01-01T00:00:00Z"));
+    }
+
+    @Test
+    @DisplayName("Should read rates age after fetching served rate")
+    void shouldReadRatesAgeAfterFetchingServedRate() throws Exception {
+        when(currencyRateService.getPairRate("USD", "UAH"))
+            .thenReturn(new PairRateDTO("USD", "UAH", new BigDecimal("41.532"), true, 1L, Instant.EPOCH));
+        when(currencyRateService.getRatesAge())
+            .thenReturn(Duration.ZERO);
+
+        mockMvc.perform(get("/currencies/USD/rates/UAH"))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.AGE, "0"));
+
+        InOrder inOrder = inOrder(currencyRateService);
+        inOrder.verify(currencyRateService).getPairRate("USD", "UAH");
+        inOrder.verify(currencyRateService).getRatesAge();
+    }
+
+    @Test
+    @DisplayName("Should subscribe to currency exchange rates resuming from last event id")
+    void shouldSubscribeToCurrencyExchangeRatesResumingFromLastEventId() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(rateStreamService.subscribe("USD", 3L))
+            .thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/currencies/USD/rates/stream")
+                                .header("Last-Event-ID", "3"))
+                            .andExpect(request().asyncStarted())
+                            .andReturn();
+        emitter.send(SseEmitter.event().id("4").name("delta").data("{\"baseCurrency\":\"USD\"}", MediaType.APPLICATION_JSON));
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result))
+               .andExpect(status().isOk())
+               .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+               .andExpect(content().string("id:4\nevent:delta\ndata:{\"baseCurrency\":\"USD\"}\n\n"));
+
+        verify(rateStreamService).subscribe("USD", 3L);
+    }
+
+    @Test
+    @DisplayName("Should stream converted amounts")
+    void shouldStreamConvertedAmounts() throws Exception {
+        String requestBody = "[{\"from\":\"USD\",\"to\":\"UAH\",\"amount\":10}]";
+        RateSnapshot snapshot = RateSnapshot.EMPTY;
+        when(currencyRateService.getCurrentSnapshot())
+            .thenReturn(snapshot);
+        doAnswer(invocation -> {
+            assertThat(new String(invocation.<InputStream>getArgument(1).readAllBytes(), StandardCharsets.UTF_8))
+                .isEqualTo(requestBody);
+            invocation.<OutputStream>getArgument(2)
+                      .write("{\"version\":1,\"conversions\":[{\"from\":\"USD\",\"to\":\"UAH\",\"amount\":10,\"convertedAmount\":415.32}]}"
+                                 .getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(currencyConversionService).convert(eq(snapshot), any(), any());
+
+        MvcResult result = mockMvc.perform(post("/currencies/convert")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                            .andExpect(request().asyncStarted())
+                            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+               .andExpect(status().isOk())
+               .andExpect(header().string("X-Rates-Stale", "false"))
+               .andExpect(jsonPath("$.conversions", hasSize(1)))
+               .andExpect(jsonPath("$.conversions[0].convertedAmount").value(415.32));
+
+        InOrder inOrder = inOrder(currencyRateService);
+        inOrder.verify(currencyRateService).getCurrentSnapshot();
+        inOrder.verify(currencyRateService).getRatesAge();
+    }
+
+    @Test
+    @DisplayName("Should stream currency pair rates history")
+    void shouldStreamCurrencyPairRatesHistory() throws Exception {
+        Instant from = Instant.parse("2024-01-01T00:00:00Z");
+        Instant until = Instant.parse("2024-02-01T00:00:00Z");
+        RateHistory rateHistory = new RateHistory("USD", "UAH", HistoryCursor.startingAt(from), until, 50);
+        when(rateHistoryService.getRateHistory("USD", "UAH", from, until, null, 50))
+            .thenReturn(rateHistory);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2)
+                      .write("{\"baseCurrency\":\"USD\",\"anotherCurrency\":\"UAH\",\"rates\":[],\"nextCursor\":null}"
+                                 .getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(rateHistoryService).writeRateHistory(eq(rateHistory), eq(ResponseFormat.JSON), any());
+
+        MvcResult result = mockMvc.perform(get("/currencies/USD/history")
+                                .param("to", "UAH")
+                                .param("from", from.toString())
+                                .param("until", until.toString())
+                                .param("limit", "50"))
+                            .andExpect(request().asyncStarted())
+                            .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.baseCurrency").value("USD"))
+               .andExpect(jsonPath("$.anotherCurrency").value("UAH"))
+               .andExpect(jsonPath("$.rates").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should get currency pair rollups")
+    void shouldGetCurrencyPairRollups() throws Exception {
+        Instant from = Instant.parse("2024-01-01T00:00:00Z");
+        when(rateHistoryService.getRateRollups("USD", "UAH", RollupInterval.HOUR, from, null))
+            .thenReturn(new RateRollupsDTO("USD", "UAH", RollupInterval.HOUR, List.of(
+                new RateRollupDTO(from, new BigDecimal("41.2"), new BigDecimal("41.5"), new BigDecimal("41.1"), new BigDecimal("41.3")))));
+
+        mockMvc.perform(get("/currencies/USD/rollups")
+                   .param("to", "UAH")
+                   .param("interval", "HOUR")
+                   .param("from", from.toString()))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.interval").value("HOUR"))
+               .andExpect(jsonPath("$.rollups", hasSize(1)))
+               .andExpect(jsonPath("$.rollups[0].bucketStart").value("2024-01-01T00:00:00Z"))
+               .andExpect(jsonPath("$.rollups[0].open").value(41.2))
+               .andExpect(jsonPath("$.rollups[0].high").value(41.5))
+               .andExpect(jsonPath("$.rollups[0].low").value(41.1))
+               .andExpect(jsonPath("$.rollups[0].close").value(41.3));
+    }
+
+    private RenderedCurrencyRates renderCurrencyRates() {
+        return currencyRateRenderer.render(CurrencyRateDTO.builder()
+                                                          .baseCurrency("USD")
+                                                          .rates(Map.of(
+                                                              "EUR", RateDTO.builder().rate(new BigDecimal("0.983")).doubleConversion(false).build(),
+                                                              "UAH", RateDTO.builder().rate(new BigDecimal("41.532")).doubleConversion(true).build()))
+                                                          .version(1L)
+                                                          .build());
+    }
 
-        verify(currencyRateService).getCurrencyRates("USD");
+    private static String gunzip(final byte[] content) throws IOException {
+        try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return new String(gzipStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
     }
 }
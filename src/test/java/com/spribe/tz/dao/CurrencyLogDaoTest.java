@@ -1,6 +1,7 @@
 package com.spribe.tz.dao;
 
 import com.spribe.tz.dao.entity.CurrencyLog;
+import com.spribe.tz.dao.model.CurrencyLogEntry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,9 +11,12 @@ import org.springframework.test.context.jdbc.Sql;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
@@ -56,4 +60,71 @@ class CurrencyLogDaoTest {
             .isNotNull();
     }
 
+    @Test
+    @DisplayName("Should assign distinct ids to currency logs saved in batch")
+    void shouldAssignDistinctIdsToCurrencyLogsSavedInBatch() {
+        Instant now = Instant.now();
+        List<CurrencyLog> logs = IntStream.range(0, 1200)
+                                          .mapToObj(i -> new CurrencyLog(null, "USD", "UAH", BigDecimal.valueOf(i), now, true, null))
+                                          .toList();
+
+        Collection<CurrencyLog> result = currencyLogDao.saveAll(logs);
+
+        assertThat(result)
+            .extracting(CurrencyLog::getId)
+            .doesNotContainNull()
+            .doesNotHaveDuplicates()
+            .hasSize(1200);
+    }
+
+    @Test
+    @DisplayName("Should stream currency pair history after cursor position")
+    void shouldStreamCurrencyPairHistoryAfterCursorPosition() {
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        currencyLogDao.saveAll(List.of(
+            new CurrencyLog(null, "USD", "UAH", new BigDecimal("41.1"), start, true, null),
+            new CurrencyLog(null, "USD", "EUR", new BigDecimal("0.95"), start, false, null),
+            new CurrencyLog(null, "USD", "UAH", new BigDecimal("41.2"), start.plus(Duration.ofHours(1)), true, null),
+            new CurrencyLog(null, "USD", "UAH", new BigDecimal("41.3"), start.plus(Duration.ofHours(2)), true, null),
+            new CurrencyLog(null, "USD", "UAH", new BigDecimal("41.4"), start.plus(Duration.ofHours(3)), true, null)));
+        List<CurrencyLogEntry> firstPage = new ArrayList<>();
+        List<CurrencyLogEntry> secondPage = new ArrayList<>();
+
+        currencyLogDao.streamHistory("USD", "UAH", start, 0L, start.plus(Duration.ofHours(3)), 2, firstPage::add);
+        CurrencyLogEntry last = firstPage.getLast();
+        currencyLogDao.streamHistory("USD", "UAH", last.rateDateTime(), last.id(), start.plus(Duration.ofHours(3)), 2, secondPage::add);
+
+        assertThat(firstPage)
+            .extracting(CurrencyLogEntry::rate, CurrencyLogEntry::rateDateTime)
+            .containsExactly(
+                tuple(new BigDecimal("41.1"), start),
+                tuple(new BigDecimal("41.2"), start.plus(Duration.ofHours(1))));
+        assertThat(secondPage)
+            .extracting(CurrencyLogEntry::rate, CurrencyLogEntry::rateDateTime)
+            .containsExactly(
+                tuple(new BigDecimal("41.3"), start.plus(Duration.ofHours(2))));
+    }
+
+    @Test
+    @DisplayName("Should find rates of base currency written by most recent refresh")
+    void shouldFindRatesOfBaseCurrencyWrittenByMostRecentRefresh() {
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        Instant latest = start.plus(Duration.ofHours(1));
+        currencyLogDao.saveAll(List.of(
+            new CurrencyLog(null, "EUR", "UAH", new BigDecimal("43.1"), start, false, null),
+            new CurrencyLog(null, "EUR", "USD", new BigDecimal("1.04"), start, false, null)));
+        currencyLogDao.saveAll(List.of(
+            new CurrencyLog(null, "EUR", "UAH", new BigDecimal("43.2"), latest, false, null),
+            new CurrencyLog(null, "EUR", "USD", new BigDecimal("1.05"), latest, false, null),
+            new CurrencyLog(null, "USD", "UAH", new BigDecimal("41.1"), latest, true, null)));
+
+        assertThat(currencyLogDao.findLatestRates("EUR"))
+            .extracting(CurrencyLog::getAnotherCurrencyCode, CurrencyLog::getRate, CurrencyLog::getRateDateTime)
+            .containsExactlyInAnyOrder(
+                tuple("UAH", new BigDecimal("43.2"), latest),
+                tuple("USD", new BigDecimal("1.05"), latest));
+        assertThat(currencyLogDao.findLatestRates("GBP"))
+            .isEmpty();
+    }
+
 }
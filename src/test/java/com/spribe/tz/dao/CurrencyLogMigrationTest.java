@@ -0,0 +1,104 @@
+package com.spribe.tz.dao;
+
+import liquibase.Contexts;
+import liquibase.LabelExpression;
+import liquibase.Liquibase;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.resource.ClassLoaderResourceAccessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class CurrencyLogMigrationTest {
+
+    private static final String SCHEMA = "currency_log_migration";
+    private static final String CHANGELOG = "db/changelog/db.changelog-master.yaml";
+    private static final int BASELINE_CHANGESETS = 2;
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    @Test
+    @DisplayName("Should partition populated legacy currency log table")
+    void shouldPartitionPopulatedLegacyCurrencyLogTable() throws Exception {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        YearMonth previousMonth = currentMonth.minusMonths(1);
+        LocalDateTime previousMonthRate = previousMonth.atDay(10).atTime(10, 0);
+        LocalDateTime currentMonthCreation = currentMonth.atDay(1).atStartOfDay();
+
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        // dedicated connection, so the changed search path never returns to the application pool
+        try (Connection connection = DriverManager.getConnection(datasourceUrl)) {
+            connection.setSchema(SCHEMA);
+            Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            database.setDefaultSchemaName(SCHEMA);
+            Liquibase liquibase = new Liquibase(CHANGELOG, new ClassLoaderResourceAccessor(), database);
+            JdbcTemplate migrated = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+
+            // rows written before the partitioning changesets, the way deployed databases hold them
+            liquibase.update(BASELINE_CHANGESETS, new Contexts(), new LabelExpression());
+            migrated.update("INSERT INTO CURRENCY(CURRENCY_CODE) VALUES ('EUR'), ('USD'), ('UAH')");
+            migrated.update("""
+                INSERT INTO CURRENCY_LOG (BASE_CURRENCY_CODE, ANOTHER_CURRENCY_CODE, RATE, RATE_DATE_TIME, DOUBLE_CONVERSION, CREATION_DATE)
+                VALUES ('USD', 'UAH', 41.532, ?, TRUE, ?),
+                       ('USD', 'UAH', 41.533, NULL, TRUE, ?),
+                       ('USD', 'EUR', 0.921, NULL, FALSE, NULL)""",
+                Timestamp.valueOf(previousMonthRate), Timestamp.valueOf(previousMonthRate), Timestamp.valueOf(currentMonthCreation));
+            database.commit();
+
+            liquibase.update(new Contexts(), new LabelExpression());
+
+            assertThat(migrated.queryForObject("SELECT COUNT(*) FROM DATABASECHANGELOG WHERE FILENAME LIKE '%05-partition-currency-log-table.sql'", Long.class))
+                .isEqualTo(3L);
+            assertThat(migrated.queryForObject("SELECT TO_REGCLASS('CURRENCY_LOG_LEGACY')::TEXT", String.class))
+                .isNull();
+            assertThat(migrated.queryForObject("SELECT COUNT(*) FROM CURRENCY_LOG", Long.class))
+                .isEqualTo(3L);
+            assertThat(migrated.queryForObject("SELECT RATE FROM CURRENCY_LOG_" + previousMonth.format(PARTITION_SUFFIX), BigDecimal.class))
+                .isEqualByComparingTo("41.532");
+            assertThat(migrated.queryForObject("SELECT COUNT(*) FROM CURRENCY_LOG_" + currentMonth.format(PARTITION_SUFFIX), Long.class))
+                .isEqualTo(2L);
+            assertThat(migrated.queryForObject("SELECT RATE_DATE_TIME FROM CURRENCY_LOG WHERE ID = 2", Timestamp.class))
+                .isEqualTo(Timestamp.valueOf(currentMonthCreation));
+            assertThat(migrated.queryForObject("SELECT COUNT(*) FROM CURRENCY_LOG_DEFAULT", Long.class))
+                .isZero();
+            assertThat(migrated.queryForObject("SELECT NEXTVAL('CURRENCY_LOG_SEQ')", Long.class))
+                .isGreaterThan(3L);
+            assertThat(migrated.queryForObject("SELECT COUNT(*) FROM CURRENCY_RATE_HOURLY", Long.class))
+                .isEqualTo(3L);
+        }
+    }
+
+}
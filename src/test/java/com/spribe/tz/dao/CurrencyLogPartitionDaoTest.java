@@ -0,0 +1,102 @@
+package com.spribe.tz.dao;
+
+import com.spribe.tz.dao.entity.CurrencyLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:db/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:db/initialize.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class CurrencyLogPartitionDaoTest {
+
+    private static final YearMonth PARTITION_MONTH = YearMonth.of(2031, 1);
+
+    @Autowired
+    private CurrencyLogPartitionDao currencyLogPartitionDao;
+
+    @Autowired
+    private CurrencyLogDao currencyLogDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should route currency logs into created monthly partition")
+    void shouldRouteCurrencyLogsIntoCreatedMonthlyPartition() {
+        currencyLogPartitionDao.createPartition(PARTITION_MONTH);
+
+        currencyLogDao.saveAll(List.of(
+            new CurrencyLog(null, "USD", "UAH", new BigDecimal("41.532"), Instant.parse("2031-01-15T10:00:00Z"), true, null)));
+
+        assertThat(currencyLogPartitionDao.getPartitionMonths())
+            .contains(PARTITION_MONTH);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CURRENCY_LOG_2031_01", Long.class))
+            .isEqualTo(1L);
+
+        currencyLogPartitionDao.dropPartition(PARTITION_MONTH);
+    }
+
+    @Test
+    @DisplayName("Should move currency logs of created partition out of default partition")
+    void shouldMoveCurrencyLogsOfCreatedPartitionOutOfDefaultPartition() {
+        currencyLogDao.saveAll(List.of(
+            new CurrencyLog(null, "USD", "UAH", new BigDecimal("41.532"), Instant.parse("2031-01-31T23:30:00Z"), true, null),
+            new CurrencyLog(null, "USD", "UAH", new BigDecimal("41.533"), Instant.parse("2031-02-01T00:30:00Z"), true, null)));
+
+        assertThat(currencyLogPartitionDao.createPartition(PARTITION_MONTH))
+            .isEqualTo(1);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT RATE FROM CURRENCY_LOG_2031_01", BigDecimal.class))
+            .isEqualByComparingTo("41.532");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CURRENCY_LOG_DEFAULT", Long.class))
+            .isEqualTo(1L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CURRENCY_LOG", Long.class))
+            .isEqualTo(2L);
+
+        currencyLogPartitionDao.dropPartition(PARTITION_MONTH);
+    }
+
+    @Test
+    @DisplayName("Should delete expired currency logs from default partition")
+    void shouldDeleteExpiredCurrencyLogsFromDefaultPartition() {
+        currencyLogDao.saveAll(List.of(
+            new CurrencyLog(null, "USD", "UAH", new BigDecimal("41.532"), Instant.parse("2031-01-15T10:00:00Z"), true, null),
+            new CurrencyLog(null, "USD", "UAH", new BigDecimal("41.533"), Instant.parse("2031-02-15T10:00:00Z"), true, null)));
+
+        assertThat(currencyLogPartitionDao.deleteDefaultPartitionRowsBefore(YearMonth.of(2031, 2)))
+            .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT RATE FROM CURRENCY_LOG_DEFAULT", BigDecimal.class))
+            .isEqualByComparingTo("41.533");
+    }
+
+    @Test
+    @DisplayName("Should drop monthly partition with its currency logs")
+    void shouldDropMonthlyPartitionWithItsCurrencyLogs() {
+        currencyLogPartitionDao.createPartition(PARTITION_MONTH);
+        currencyLogDao.saveAll(List.of(
+            new CurrencyLog(null, "USD", "UAH", new BigDecimal("41.532"), Instant.parse("2031-01-15T10:00:00Z"), true, null)));
+
+        currencyLogPartitionDao.dropPartition(PARTITION_MONTH);
+
+        assertThat(currencyLogPartitionDao.getPartitionMonths())
+            .doesNotContain(PARTITION_MONTH);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM CURRENCY_LOG", Long.class))
+            .isZero();
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.spribe.tz.dao;
+
+import com.spribe.tz.dao.entity.CurrencyLog;
+import com.spribe.tz.dao.model.CurrencyRateRollup;
+import com.spribe.tz.dao.model.RollupInterval;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:db/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:db/initialize.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class CurrencyRateRollupDaoTest {
+
+    private static final Instant FROM = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant UNTIL = Instant.parse("2024-01-03T00:00:00Z");
+
+    @Autowired
+    private CurrencyLogDao currencyLogDao;
+
+    @Autowired
+    private CurrencyRateRollupDao currencyRateRollupDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should fold saved currency logs into hourly and daily rollups")
+    void shouldFoldSavedCurrencyLogsIntoHourlyAndDailyRollups() {
+        currencyLogDao.saveAll(List.of(
+            buildCurrencyLog("41.20", "2024-01-01T10:00:00Z"),
+            buildCurrencyLog("41.50", "2024-01-01T10:20:00Z")));
+        currencyLogDao.saveAll(List.of(
+            buildCurrencyLog("41.10", "2024-01-01T10:40:00Z"),
+            buildCurrencyLog("41.30", "2024-01-01T11:00:00Z"),
+            buildCurrencyLog("41.40", "2024-01-02T09:00:00Z")));
+
+        assertThat(currencyRateRollupDao.getRollups("USD", "UAH", RollupInterval.HOUR, FROM, UNTIL))
+            .extracting(
+                CurrencyRateRollup::bucketStart,
+                CurrencyRateRollup::openRate,
+                CurrencyRateRollup::highRate,
+                CurrencyRateRollup::lowRate,
+                CurrencyRateRollup::closeRate)
+            .containsExactly(
+                tuple(Instant.parse("2024-01-01T10:00:00Z"), new BigDecimal("41.20"), new BigDecimal("41.50"), new BigDecimal("41.10"), new BigDecimal("41.10")),
+                tuple(Instant.parse("2024-01-01T11:00:00Z"), new BigDecimal("41.30"), new BigDecimal("41.30"), new BigDecimal("41.30"), new BigDecimal("41.30")),
+                tuple(Instant.parse("2024-01-02T09:00:00Z"), new BigDecimal("41.40"), new BigDecimal("41.40"), new BigDecimal("41.40"), new BigDecimal("41.40")));
+        assertThat(currencyRateRollupDao.getRollups("USD", "UAH", RollupInterval.DAY, FROM, UNTIL))
+            .extracting(
+                CurrencyRateRollup::bucketStart,
+                CurrencyRateRollup::openRate,
+                CurrencyRateRollup::highRate,
+                CurrencyRateRollup::lowRate,
+                CurrencyRateRollup::closeRate)
+            .containsExactly(
+                tuple(Instant.parse("2024-01-01T00:00:00Z"), new BigDecimal("41.20"), new BigDecimal("41.50"), new BigDecimal("41.10"), new BigDecimal("41.30")),
+                tuple(Instant.parse("2024-01-02T00:00:00Z"), new BigDecimal("41.40"), new BigDecimal("41.40"), new BigDecimal("41.40"), new BigDecimal("41.40")));
+    }
+
+    @Test
+    @DisplayName("Should keep rollups unchanged when the same logs are folded again")
+    void shouldKeepRollupsUnchangedWhenTheSameLogsAreFoldedAgain() {
+        List<CurrencyLog> currencyLogs = List.of(
+            buildCurrencyLog("41.20", "2024-01-01T10:00:00Z"),
+            buildCurrencyLog("41.50", "2024-01-01T10:20:00Z"));
+        currencyRateRollupDao.updateRollups(currencyLogs);
+
+        currencyRateRollupDao.updateRollups(currencyLogs);
+
+        assertThat(currencyRateRollupDao.getRollups("USD", "UAH", RollupInterval.HOUR, FROM, UNTIL))
+            .extracting(CurrencyRateRollup::openRate, CurrencyRateRollup::closeRate)
+            .containsExactly(tuple(new BigDecimal("41.20"), new BigDecimal("41.50")));
+    }
+
+    @Test
+    @DisplayName("Should bucket rollups in UTC the same as database regardless of JVM time zone")
+    void shouldBucketRollupsInUtcTheSameAsDatabaseRegardlessOfJvmTimeZone() {
+        TimeZone defaultTimeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        try {
+            currencyLogDao.saveAll(List.of(buildCurrencyLog("41.20", "2024-01-01T23:30:00Z")));
+
+            assertThat(jdbcTemplate.queryForObject("SELECT DATE_TRUNC('day', RATE_DATE_TIME) FROM CURRENCY_LOG", LocalDateTime.class))
+                .isEqualTo(LocalDateTime.parse("2024-01-01T00:00:00"));
+            assertThat(currencyRateRollupDao.getRollups("USD", "UAH", RollupInterval.DAY, FROM, UNTIL))
+                .extracting(CurrencyRateRollup::bucketStart, CurrencyRateRollup::openDateTime)
+                .containsExactly(tuple(Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-01-01T23:30:00Z")));
+        } finally {
+            TimeZone.setDefault(defaultTimeZone);
+        }
+    }
+
+    private static CurrencyLog buildCurrencyLog(final String rate, final String rateDateTime) {
+        return new CurrencyLog(null, "USD", "UAH", new BigDecimal(rate), Instant.parse(rateDateTime), true, null);
+    }
+
+}
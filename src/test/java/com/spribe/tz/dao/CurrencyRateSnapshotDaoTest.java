@@ -0,0 +1,88 @@
+package com.spribe.tz.dao;
+
+import com.spribe.tz.dao.entity.CurrencyRateSnapshot;
+import com.spribe.tz.dao.model.SnapshotPairEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+@Sql(scripts = "classpath:db/cleanup.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:db/initialize.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class CurrencyRateSnapshotDaoTest {
+
+    private static final Instant FROM = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant UNTIL = Instant.parse("2024-01-02T00:00:00Z");
+
+    @Autowired
+    private CurrencyRateSnapshotDao currencyRateSnapshotDao;
+
+    @Test
+    @DisplayName("Should save snapshot and stream pair rates from its vector")
+    void shouldSaveSnapshotAndStreamPairRatesFromItsVector() {
+        CurrencyRateSnapshot first = currencyRateSnapshotDao.save(
+            buildSnapshot("2024-01-01T10:00:00Z", new BigDecimal("1.05"), new BigDecimal("43.214")));
+        currencyRateSnapshotDao.save(
+            buildSnapshot("2024-01-01T11:00:00Z", null, new BigDecimal("43.3")));
+        CurrencyRateSnapshot third = currencyRateSnapshotDao.save(
+            buildSnapshot("2024-01-01T12:00:00Z", new BigDecimal("1.06"), new BigDecimal("43.4")));
+        List<SnapshotPairEntry> history = new ArrayList<>();
+
+        currencyRateSnapshotDao.streamPairHistory("USD", "UAH", FROM, 0L, UNTIL, 10, history::add);
+
+        assertThat(first.getId())
+            .isNotNull();
+        assertThat(history)
+            .extracting(
+                SnapshotPairEntry::id,
+                SnapshotPairEntry::rateDateTime,
+                SnapshotPairEntry::providerBase,
+                SnapshotPairEntry::baseRate,
+                SnapshotPairEntry::anotherRate)
+            .containsExactly(
+                tuple(first.getId(), Instant.parse("2024-01-01T10:00:00Z"), "EUR", new BigDecimal("1.05"), new BigDecimal("43.214")),
+                tuple(third.getId(), Instant.parse("2024-01-01T12:00:00Z"), "EUR", new BigDecimal("1.06"), new BigDecimal("43.4")));
+    }
+
+    @Test
+    @DisplayName("Should stream pair rates after cursor position")
+    void shouldStreamPairRatesAfterCursorPosition() {
+        CurrencyRateSnapshot first = currencyRateSnapshotDao.save(
+            buildSnapshot("2024-01-01T10:00:00Z", new BigDecimal("1.05"), new BigDecimal("43.214")));
+        currencyRateSnapshotDao.save(
+            buildSnapshot("2024-01-01T11:00:00Z", new BigDecimal("1.06"), new BigDecimal("43.4")));
+        List<SnapshotPairEntry> history = new ArrayList<>();
+
+        currencyRateSnapshotDao.streamPairHistory("USD", "UAH", first.getRateDateTime(), first.getId(), UNTIL, 10, history::add);
+
+        assertThat(history)
+            .extracting(SnapshotPairEntry::rateDateTime)
+            .containsExactly(Instant.parse("2024-01-01T11:00:00Z"));
+    }
+
+    private static CurrencyRateSnapshot buildSnapshot(final String rateDateTime,
+                                                      final BigDecimal usdRate,
+                                                      final BigDecimal uahRate) {
+        return CurrencyRateSnapshot.builder()
+                                   .providerBase("EUR")
+                                   .rateDateTime(Instant.parse(rateDateTime))
+                                   .currencyCodes(new String[] {"EUR", "UAH", "USD"})
+                                   .rates(new BigDecimal[] {BigDecimal.ONE, uahRate, usdRate})
+                                   .build();
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CrossRates;
+import com.spribe.tz.service.impl.model.CurrencyExchangeRate;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import com.spribe.tz.service.impl.model.DecimalCrossRates;
+import com.spribe.tz.service.impl.model.FixedPointCrossRates;
+import com.spribe.tz.service.impl.model.FixedPointRate;
+import com.spribe.tz.service.impl.model.RateRepresentation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CrossRatesTest {
+
+    private static final BaseExchangeRates BASE_RATES = new BaseExchangeRates("EUR", Instant.EPOCH,
+        CurrencyIndex.of(List.of("EUR", "UAH", "USD", "JPY")),
+        new BigDecimal[] {BigDecimal.ONE, new BigDecimal("43.214"), new BigDecimal("1.05"), null});
+
+    private final CrossRates crossRates = CrossRates.of(BASE_RATES, RateRepresentation.DECIMAL);
+
+    @Test
+    @DisplayName("Should calculate cross rates from base rates")
+    void shouldCalculateCrossRatesFromBaseRates() {
+        CurrencyIndex currencies = crossRates.currencies();
+        int eur = currencies.idOf("EUR");
+        int uah = currencies.idOf("UAH");
+        int usd = currencies.idOf("USD");
+
+        assertThat(crossRates.rate(eur, usd))
+            .isEqualTo(new BigDecimal("1.05"));
+        assertThat(crossRates.rate(usd, uah))
+            .isEqualTo(new BigDecimal("41.15619047619048"));
+        assertThat(crossRates.rate(uah, eur))
+            .isEqualTo(new BigDecimal("0.02314064886379414"));
+        assertThat(crossRates.isDoubleConversion(usd, uah))
+            .isTrue();
+        assertThat(crossRates.isDoubleConversion(usd, eur))
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated pair lookups from hot pairs cache")
+    void shouldServeRepeatedPairLookupsFromHotPairsCache() {
+        int usd = crossRates.currencies().idOf("USD");
+        int uah = crossRates.currencies().idOf("UAH");
+
+        assertThat(crossRates.rate(usd, uah))
+            .isSameAs(crossRates.rate(usd, uah));
+    }
+
+    @Test
+    @DisplayName("Should look single pair up")
+    void shouldLookSinglePairUp() {
+        assertThat(crossRates.getExchangeRate("USD", "UAH"))
+            .isEqualTo(new CurrencyExchangeRate("USD", "UAH", Instant.EPOCH, new BigDecimal("41.15619047619048"), true));
+        assertThat(crossRates.getExchangeRate("USD", "JPY"))
+            .isNull();
+        assertThat(crossRates.getExchangeRate("USD", "GBP"))
+            .isNull();
+        assertThat(crossRates.getExchangeRate("USD", "USD"))
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("Should calculate fixed-point cross rates rounded to fixed-point scale")
+    void shouldCalculateFixedPointCrossRatesRoundedToFixedPointScale() {
+        FixedPointCrossRates fixedPointRates = (FixedPointCrossRates) CrossRates.of(BASE_RATES, RateRepresentation.FIXED_POINT);
+        CurrencyIndex currencies = fixedPointRates.currencies();
+        int eur = currencies.idOf("EUR");
+        int uah = currencies.idOf("UAH");
+        int usd = currencies.idOf("USD");
+        int jpy = currencies.idOf("JPY");
+
+        assertThat(fixedPointRates.fixedPointRate(eur, usd))
+            .isEqualTo(10_500_000_000L);
+        assertThat(fixedPointRates.fixedPointRate(usd, uah))
+            .isEqualTo(411_561_904_762L);
+        assertThat(fixedPointRates.fixedPointRate(usd, jpy))
+            .isEqualTo(FixedPointRate.NOT_AVAILABLE);
+        assertThat(fixedPointRates.rate(uah, eur))
+            .isEqualTo(new BigDecimal("0.0231406489"));
+        assertThat(fixedPointRates.getExchangeRates("USD"))
+            .extracting(CurrencyExchangeRate::anotherCurrency, CurrencyExchangeRate::rate, CurrencyExchangeRate::doubleConversion)
+            .containsExactly(
+                tuple("EUR", new BigDecimal("0.9523809524"), false),
+                tuple("UAH", new BigDecimal("41.1561904762"), true));
+    }
+
+    @Test
+    @DisplayName("Should keep rates as decimals when they exceed fixed-point range")
+    void shouldKeepRatesAsDecimalsWhenTheyExceedFixedPointRange() {
+        CrossRates crossRates = CrossRates.of(new BaseExchangeRates("EUR", Instant.EPOCH, CurrencyIndex.of(List.of("EUR", "VEF")),
+            new BigDecimal[] {BigDecimal.ONE, new BigDecimal("1000000000.5")}), RateRepresentation.FIXED_POINT);
+
+        assertThat(crossRates)
+            .isInstanceOf(DecimalCrossRates.class);
+        assertThat(crossRates.getExchangeRate("EUR", "VEF").rate())
+            .isEqualTo(new BigDecimal("1000000000.5"));
+    }
+
+    @Test
+    @DisplayName("Should read fixed-point rates of provider base currency without conversion")
+    void shouldReadFixedPointRatesOfProviderBaseCurrencyWithoutConversion() {
+        CrossRates fixedPointRates = CrossRates.of(BASE_RATES, RateRepresentation.FIXED_POINT);
+
+        assertThat(fixedPointRates.getExchangeRates("EUR").get(0).rate())
+            .isSameAs(fixedPointRates.getExchangeRates("EUR").get(0).rate());
+    }
+
+    @ParameterizedTest
+    @EnumSource(RateRepresentation.class)
+    @DisplayName("Should treat currencies without provider rate as not available")
+    void shouldTreatCurrenciesWithoutProviderRateAsNotAvailable(final RateRepresentation representation) {
+        CrossRates crossRates = CrossRates.of(BASE_RATES, representation);
+        int usd = crossRates.currencies().idOf("USD");
+        int jpy = crossRates.currencies().idOf("JPY");
+
+        assertThat(crossRates.contains("JPY"))
+            .isFalse();
+        assertThat(crossRates.contains("GBP"))
+            .isFalse();
+        assertThat(crossRates.rate(usd, jpy))
+            .isNull();
+        assertThat(crossRates.getExchangeRates("JPY"))
+            .isEmpty();
+        assertThat(crossRates.getExchangeRates("USD"))
+            .hasSize(2);
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.spribe.tz.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spribe.tz.service.impl.CurrencyConversionServiceImpl;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import com.spribe.tz.service.impl.model.RateRepresentation;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyConversionServiceTest {
+
+    @InjectMocks
+    private CurrencyConversionServiceImpl currencyConversionService;
+
+    @Spy
+    private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    @DisplayName("Should convert amounts in request order with rates of the same snapshot")
+    void shouldConvertAmountsInRequestOrderWithRatesOfTheSameSnapshot() throws Exception {
+        RateSnapshot snapshot = RateSnapshot.EMPTY.next(new BaseExchangeRates("EUR", Instant.EPOCH,
+                CurrencyIndex.of(List.of("EUR", "UAH", "USD", "JPY")),
+                new BigDecimal[] {BigDecimal.ONE, new BigDecimal("43.214"), new BigDecimal("1.05"), null}), Instant.EPOCH, RateRepresentation.DECIMAL);
+
+        String result = convert(snapshot, """
+            [
+              {"from": "EUR", "to": "USD", "amount": 10},
+              {"from": "USD", "to": "UAH", "amount": 2.5},
+              {"from": "USD", "to": "USD", "amount": 7.25},
+              {"from": "USD", "to": "JPY", "amount": 1},
+              {"from": "USD", "to": "GBP", "amount": 1},
+              {"from": "USD", "to": "EUR"}
+            ]
+            """);
+
+        assertThat(result)
+            .isEqualTo("""
+                {"version":1,"fetchedAt":"1970-01-01T00:00:00Z","conversions":[\
+                {"from":"EUR","to":"USD","amount":10,"convertedAmount":10.50},\
+                {"from":"USD","to":"UAH","amount":2.5,"convertedAmount":102.8904761904762},\
+                {"from":"USD","to":"USD","amount":7.25,"convertedAmount":7.25},\
+                {"from":"USD","to":"JPY","amount":1,"convertedAmount":null},\
+                {"from":"USD","to":"GBP","amount":1,"convertedAmount":null},\
+                {"from":"USD","to":"EUR","amount":null,"convertedAmount":null}]}""");
+    }
+
+    @Test
+    @DisplayName("Should write empty conversions for empty request")
+    void shouldWriteEmptyConversionsForEmptyRequest() throws Exception {
+        RateSnapshot snapshot = RateSnapshot.EMPTY.next(new BaseExchangeRates("EUR", Instant.EPOCH,
+                CurrencyIndex.of(List.of("EUR")), new BigDecimal[] {BigDecimal.ONE}), Instant.EPOCH, RateRepresentation.DECIMAL);
+
+        assertThat(convert(snapshot, "[]"))
+            .isEqualTo("{\"version\":1,\"fetchedAt\":\"1970-01-01T00:00:00Z\",\"conversions\":[]}");
+    }
+
+    @Test
+    @DisplayName("Should write error entry for item that is not an object and keep converting")
+    void shouldWriteErrorEntryForItemThatIsNotAnObjectAndKeepConverting() throws Exception {
+        RateSnapshot snapshot = RateSnapshot.EMPTY.next(new BaseExchangeRates("EUR", Instant.EPOCH,
+                CurrencyIndex.of(List.of("EUR", "USD")), new BigDecimal[] {BigDecimal.ONE, new BigDecimal("1.05")}), Instant.EPOCH, RateRepresentation.DECIMAL);
+
+        String result = convert(snapshot, """
+            [
+              {"from": "EUR", "to": "USD", "amount": 10},
+              42,
+              ["EUR", "USD", 1],
+              null,
+              {"from": "USD", "to": "USD", "amount": 1}
+            ]
+            """);
+
+        assertThat(result)
+            .isEqualTo("""
+                {"version":1,"fetchedAt":"1970-01-01T00:00:00Z","conversions":[\
+                {"from":"EUR","to":"USD","amount":10,"convertedAmount":10.50},\
+                {"error":"Conversion item should be a {from, to, amount} object."},\
+                {"error":"Conversion item should be a {from, to, amount} object."},\
+                {"error":"Conversion item should be a {from, to, amount} object."},\
+                {"from":"USD","to":"USD","amount":1,"convertedAmount":1}]}""");
+    }
+
+    @Test
+    @DisplayName("Should write error entry for object with values of wrong type and keep converting")
+    void shouldWriteErrorEntryForObjectWithValuesOfWrongTypeAndKeepConverting() throws Exception {
+        RateSnapshot snapshot = RateSnapshot.EMPTY.next(new BaseExchangeRates("EUR", Instant.EPOCH,
+                CurrencyIndex.of(List.of("EUR", "USD")), new BigDecimal[] {BigDecimal.ONE, new BigDecimal("1.05")}), Instant.EPOCH, RateRepresentation.DECIMAL);
+
+        String result = convert(snapshot, """
+            [
+              {"from": "EUR", "to": "USD", "amount": "x"},
+              {"from": "EUR", "to": "USD", "amount": {"value": [1, 2]}},
+              {"from": {"code": "EUR"}, "to": "USD", "amount": 1},
+              {"from": "EUR", "to": "USD", "amount": 10}
+            ]
+            """);
+
+        assertThat(result)
+            .isEqualTo("""
+                {"version":1,"fetchedAt":"1970-01-01T00:00:00Z","conversions":[\
+                {"error":"Conversion item should have text from and to and a numeric amount."},\
+                {"error":"Conversion item should have text from and to and a numeric amount."},\
+                {"error":"Conversion item should have text from and to and a numeric amount."},\
+                {"from":"EUR","to":"USD","amount":10,"convertedAmount":10.50}]}""");
+    }
+
+    @Test
+    @DisplayName("Convert should throw exception when request is not an array")
+    void convertShouldThrowExceptionWhenRequestIsNotAnArray() {
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> convert(RateSnapshot.EMPTY, "{\"from\": \"EUR\", \"to\": \"USD\", \"amount\": 10}"))
+            .withMessage("Conversion request should be a JSON array of {from, to, amount} items.");
+    }
+
+    private String convert(final RateSnapshot snapshot, final String request) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        currencyConversionService.convert(snapshot, new ByteArrayInputStream(request.getBytes(StandardCharsets.UTF_8)), outputStream);
+
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+}
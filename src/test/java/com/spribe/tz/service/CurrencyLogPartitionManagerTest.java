@@ -0,0 +1,57 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.dao.CurrencyLogPartitionDao;
+import com.spribe.tz.service.impl.CurrencyLogPartitionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyLogPartitionManagerTest {
+
+    @InjectMocks
+    private CurrencyLogPartitionManager currencyLogPartitionManager;
+
+    @Mock
+    private CurrencyLogPartitionDao currencyLogPartitionDao;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(currencyLogPartitionManager, "partitionsAhead", 2);
+        ReflectionTestUtils.setField(currencyLogPartitionManager, "retentionMonths", 12);
+    }
+
+    @Test
+    @DisplayName("Should create missing future partitions and drop expired ones")
+    void shouldCreateMissingFuturePartitionsAndDropExpiredOnes() {
+        when(currencyLogPartitionDao.getPartitionMonths())
+            .thenReturn(List.of(
+                YearMonth.of(2024, 4),
+                YearMonth.of(2024, 5),
+                YearMonth.of(2024, 6),
+                YearMonth.of(2025, 6)));
+
+        ReflectionTestUtils.invokeMethod(currencyLogPartitionManager, "maintainPartitionsFor", YearMonth.of(2025, 6));
+
+        verify(currencyLogPartitionDao).getPartitionMonths();
+        verify(currencyLogPartitionDao).createPartition(YearMonth.of(2025, 7));
+        verify(currencyLogPartitionDao).createPartition(YearMonth.of(2025, 8));
+        verify(currencyLogPartitionDao).dropPartition(YearMonth.of(2024, 4));
+        verify(currencyLogPartitionDao).dropPartition(YearMonth.of(2024, 5));
+        verify(currencyLogPartitionDao).deleteDefaultPartitionRowsBefore(YearMonth.of(2024, 6));
+        verifyNoMoreInteractions(currencyLogPartitionDao);
+    }
+
+}
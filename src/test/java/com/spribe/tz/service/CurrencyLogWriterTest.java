@@ -0,0 +1,212 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.dao.CurrencyLogDao;
+import com.spribe.tz.dao.CurrencyRateSnapshotDao;
+import com.spribe.tz.dao.entity.CurrencyLog;
+import com.spribe.tz.dao.entity.CurrencyRateSnapshot;
+import com.spribe.tz.service.impl.CurrencyLogWriter;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CrossRates;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import com.spribe.tz.service.impl.model.CurrencyLogWriterStats;
+import com.spribe.tz.service.impl.model.HistoryStorage;
+import com.spribe.tz.service.impl.model.RateRepresentation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyLogWriterTest {
+
+    @InjectMocks
+    private CurrencyLogWriter currencyLogWriter;
+
+    @Mock
+    private CurrencyLogDao currencyLogDao;
+
+    @Mock
+    private CurrencyRateSnapshotDao currencyRateSnapshotDao;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(currencyLogWriter, "historyStorage", HistoryStorage.PAIRS);
+        ReflectionTestUtils.setField(currencyLogWriter, "queueCapacity", 10L);
+        ReflectionTestUtils.setField(currencyLogWriter, "batchSize", 4);
+        ReflectionTestUtils.setField(currencyLogWriter, "flushInterval", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(currencyLogWriter, "maxAttempts", 2);
+        ReflectionTestUtils.setField(currencyLogWriter, "retryBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(currencyLogWriter, "shutdownTimeout", Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        currencyLogWriter.stop();
+    }
+
+    @Test
+    @DisplayName("Should write logs in batches of configured size")
+    void shouldWriteLogsInBatchesOfConfiguredSize() {
+        ArgumentCaptor<Collection<CurrencyLog>> currencyLogsArgumentCaptor = ArgumentCaptor.forClass(Collection.class);
+        when(currencyLogDao.saveAll(currencyLogsArgumentCaptor.capture()))
+            .then(returnsFirstArg());
+
+        currencyLogWriter.start();
+        currencyLogWriter.enqueue(buildCrossRates());
+
+        verify(currencyLogDao, timeout(1000).times(2)).saveAll(any());
+        currencyLogWriter.stop();
+
+        assertThat(currencyLogsArgumentCaptor.getAllValues())
+            .extracting(Collection::size)
+            .containsExactly(4, 2);
+        assertThat(currencyLogsArgumentCaptor.getAllValues().stream().flatMap(Collection::stream))
+            .extracting(
+                CurrencyLog::getBaseCurrencyCode,
+                CurrencyLog::getAnotherCurrencyCode,
+                CurrencyLog::getRate,
+                CurrencyLog::getRateDateTime,
+                CurrencyLog::getDoubleConversion)
+            .containsExactlyInAnyOrder(
+                tuple("EUR", "USD", new BigDecimal("1.05"), Instant.EPOCH, false),
+                tuple("EUR", "UAH", new BigDecimal("43.214"), Instant.EPOCH, false),
+                tuple("UAH", "USD", new BigDecimal("0.02429768130698385"), Instant.EPOCH, true),
+                tuple("UAH", "EUR", new BigDecimal("0.02314064886379414"), Instant.EPOCH, false),
+                tuple("USD", "UAH", new BigDecimal("41.15619047619048"), Instant.EPOCH, true),
+                tuple("USD", "EUR", new BigDecimal("0.9523809523809524"), Instant.EPOCH, false));
+        assertThat(currencyLogWriter.getStats())
+            .isEqualTo(new CurrencyLogWriterStats(0, 6, 0, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Should write incomplete batch after flush interval")
+    void shouldWriteIncompleteBatchAfterFlushInterval() {
+        ReflectionTestUtils.setField(currencyLogWriter, "batchSize", 100);
+        ReflectionTestUtils.setField(currencyLogWriter, "flushInterval", Duration.ofMillis(50));
+
+        currencyLogWriter.start();
+        currencyLogWriter.enqueue(buildCrossRates());
+
+        verify(currencyLogDao, timeout(1000)).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Should flush queued logs on stop")
+    void shouldFlushQueuedLogsOnStop() {
+        ReflectionTestUtils.setField(currencyLogWriter, "batchSize", 100);
+
+        currencyLogWriter.start();
+        currencyLogWriter.enqueue(buildCrossRates());
+
+        currencyLogWriter.stop();
+
+        verify(currencyLogDao).saveAll(any());
+        assertThat(currencyLogWriter.getStats().writtenLogs())
+            .isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should retry failed batch with the same logs")
+    void shouldRetryFailedBatchWithTheSameLogs() {
+        ReflectionTestUtils.setField(currencyLogWriter, "batchSize", 100);
+        ArgumentCaptor<Collection<CurrencyLog>> currencyLogsArgumentCaptor = ArgumentCaptor.forClass(Collection.class);
+        when(currencyLogDao.saveAll(currencyLogsArgumentCaptor.capture()))
+            .thenThrow(new DataAccessResourceFailureException("Connection reset"))
+            .then(returnsFirstArg());
+
+        currencyLogWriter.start();
+        currencyLogWriter.enqueue(buildCrossRates());
+        currencyLogWriter.stop();
+
+        verify(currencyLogDao, times(2)).saveAll(any());
+        assertThat(currencyLogsArgumentCaptor.getAllValues().get(1))
+            .isSameAs(currencyLogsArgumentCaptor.getAllValues().get(0));
+        assertThat(currencyLogWriter.getStats())
+            .isEqualTo(new CurrencyLogWriterStats(0, 6, 0, 0, 1));
+    }
+
+    @Test
+    @DisplayName("Should count logs as failed when all attempts failed")
+    void shouldCountLogsAsFailedWhenAllAttemptsFailed() {
+        ReflectionTestUtils.setField(currencyLogWriter, "batchSize", 100);
+        when(currencyLogDao.saveAll(any()))
+            .thenThrow(new DataAccessResourceFailureException("Connection reset"));
+
+        currencyLogWriter.start();
+        currencyLogWriter.enqueue(buildCrossRates());
+        currencyLogWriter.stop();
+
+        verify(currencyLogDao, times(2)).saveAll(any());
+        assertThat(currencyLogWriter.getStats())
+            .isEqualTo(new CurrencyLogWriterStats(0, 0, 0, 6, 1));
+    }
+
+    @Test
+    @DisplayName("Should write single snapshot per refresh with snapshot storage")
+    void shouldWriteSingleSnapshotPerRefreshWithSnapshotStorage() {
+        ReflectionTestUtils.setField(currencyLogWriter, "historyStorage", HistoryStorage.SNAPSHOT);
+        ArgumentCaptor<CurrencyRateSnapshot> snapshotArgumentCaptor = ArgumentCaptor.forClass(CurrencyRateSnapshot.class);
+
+        currencyLogWriter.start();
+        currencyLogWriter.enqueue(buildCrossRates());
+        currencyLogWriter.stop();
+
+        verify(currencyRateSnapshotDao).save(snapshotArgumentCaptor.capture());
+        verifyNoInteractions(currencyLogDao);
+        assertThat(snapshotArgumentCaptor.getValue())
+            .extracting(
+                CurrencyRateSnapshot::getProviderBase,
+                CurrencyRateSnapshot::getRateDateTime,
+                CurrencyRateSnapshot::getCurrencyCodes,
+                CurrencyRateSnapshot::getRates)
+            .containsExactly(
+                "EUR",
+                Instant.EPOCH,
+                new String[] {"EUR", "UAH", "USD"},
+                new BigDecimal[] {BigDecimal.ONE, new BigDecimal("43.214"), new BigDecimal("1.05")});
+        assertThat(currencyLogWriter.getStats().writtenLogs())
+            .isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should drop logs without blocking when queue is full")
+    void shouldDropLogsWithoutBlockingWhenQueueIsFull() {
+        assertThat(currencyLogWriter.enqueue(buildCrossRates()))
+            .isTrue();
+        assertThat(currencyLogWriter.enqueue(buildCrossRates()))
+            .isFalse();
+
+        assertThat(currencyLogWriter.getStats())
+            .isEqualTo(new CurrencyLogWriterStats(6, 0, 6, 0, 0));
+        verifyNoInteractions(currencyLogDao);
+    }
+
+    private static CrossRates buildCrossRates() {
+        return CrossRates.of(new BaseExchangeRates("EUR", Instant.EPOCH, CurrencyIndex.of(List.of("EUR", "UAH", "USD")),
+            new BigDecimal[] {BigDecimal.ONE, new BigDecimal("43.214"), new BigDecimal("1.05")}), RateRepresentation.DECIMAL);
+    }
+
+}
@@ -1,39 +1,67 @@
 package com.spribe.tz.service;
 
 import com.spribe.tz.controller.dto.CurrencyRateDTO;
+import com.spribe.tz.controller.dto.CurrencyStatusDTO;
+import com.spribe.tz.controller.dto.CurrencyStatusDTO.CurrencyStatus;
+import com.spribe.tz.controller.dto.PairRateDTO;
 import com.spribe.tz.controller.dto.RateDTO;
 import com.spribe.tz.dao.CurrencyDao;
-import com.spribe.tz.dao.CurrencyLogDao;
 import com.spribe.tz.dao.entity.Currency;
-import com.spribe.tz.dao.entity.CurrencyLog;
+import com.spribe.tz.service.impl.CurrencyLogWriter;
+import com.spribe.tz.service.impl.CurrencyRateRenderer;
 import com.spribe.tz.service.impl.CurrencyRateServiceImpl;
+import com.spribe.tz.service.impl.CurrencyRegistry;
+import com.spribe.tz.service.impl.ProviderCircuitBreaker;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CircuitState;
+import com.spribe.tz.service.impl.model.CrossRates;
 import com.spribe.tz.service.impl.model.CurrencyExchangeRate;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import com.spribe.tz.service.impl.model.RateRepresentation;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import com.spribe.tz.service.impl.model.RenderedCurrencyRates;
+import com.spribe.tz.service.impl.model.ResponseFormat;
+import com.spribe.tz.service.impl.model.StoredExchangeRates;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.junit.platform.commons.util.ReflectionUtils;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.scheduling.config.TriggerTask;
+import org.springframework.scheduling.support.SimpleTriggerContext;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,37 +74,112 @@ class CurrencyRateServiceTest {
     private CurrencyDao currencyDao;
 
     @Mock
-    private CurrencyLogDao currencyLogDao;
+    private CurrencyLogWriter currencyLogWriter;
 
     @Mock
     private ExchangeRateIntegrationService exchangeRateIntegrationService;
 
+    @Mock
+    private CurrencyRegistry currencyRegistry;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private RateHistoryService rateHistoryService;
+
+    @Mock
+    private RateStreamService rateStreamService;
+
+    @Spy
+    private ProviderCircuitBreaker providerCircuitBreaker = new ProviderCircuitBreaker();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private CurrencyRateRenderer currencyRateRenderer = new CurrencyRateRenderer(Jackson2ObjectMapperBuilder.json().build());
+
     @BeforeEach
     void setUp() {
-        ((Map) ReflectionTestUtils.getField(currencyRateService, "currencyRates"))
-            .clear();
+        currencyRatesReference().set(RateSnapshot.EMPTY);
+        ReflectionTestUtils.setField(currencyRateService, "onboardingDebounce", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(currencyRateService, "refreshWaitTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(currencyRateService, "rateRepresentation", RateRepresentation.DECIMAL);
+        ReflectionTestUtils.setField(currencyRateService, "fetchFrequency", 3600L);
+        ReflectionTestUtils.setField(currencyRateService, "providerBaseCurrency", "EUR");
+        ReflectionTestUtils.setField(providerCircuitBreaker, "failureThreshold", 1);
+        ReflectionTestUtils.setField(providerCircuitBreaker, "openDuration", Duration.ofMinutes(1));
     }
 
     @Test
     @DisplayName("Should add currency")
     void shouldAddCurrency() {
         ArgumentCaptor<Currency> currencyArgumentCaptor = ArgumentCaptor.forClass(Currency.class);
+        ArgumentCaptor<Runnable> onboardingTaskCaptor = ArgumentCaptor.forClass(Runnable.class);
 
         when(currencyDao.save(currencyArgumentCaptor.capture()))
             .then(returnsFirstArg());
-        mockCurrenciesCodes();
-        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
-            .thenReturn(buildCurrencyRatesMap());
 
         currencyRateService.addCurrency("USD");
 
         assertThat(currencyArgumentCaptor.getValue())
             .extracting(Currency::getCurrencyCode)
             .isEqualTo("USD");
+        verify(currencyRegistry).register("USD");
+        verify(taskScheduler).schedule(onboardingTaskCaptor.capture(), any(Instant.class));
+        verifyNoInteractions(exchangeRateIntegrationService);
+
+        mockCurrenciesCodes();
+        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
+            .thenReturn(buildBaseExchangeRates());
+
+        onboardingTaskCaptor.getValue().run();
 
         assertThatCurrencyRatesMapEqualsToBuiltMap();
     }
 
+    @Test
+    @DisplayName("Add currency should coalesce currencies added within debounce window into single refresh")
+    void addCurrencyShouldCoalesceCurrenciesAddedWithinDebounceWindowIntoSingleRefresh() {
+        ArgumentCaptor<Runnable> onboardingTaskCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        currencyRateService.addCurrency("UAH");
+        currencyRateService.addCurrency("USD");
+
+        verify(taskScheduler, times(1)).schedule(onboardingTaskCaptor.capture(), any(Instant.class));
+
+        mockCurrenciesCodes();
+        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
+            .thenReturn(buildBaseExchangeRates());
+
+        onboardingTaskCaptor.getValue().run();
+        currencyRateService.addCurrency("EUR");
+
+        verify(exchangeRateIntegrationService, times(1)).getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD"));
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("Should get currency status")
+    void shouldGetCurrencyStatus() {
+        currencyRatesReference().set(RateSnapshot.EMPTY.next(new BaseExchangeRates("EUR", Instant.EPOCH,
+            CurrencyIndex.of(List.of("UAH", "USD")), new BigDecimal[] {null, new BigDecimal("1.05")}), Instant.EPOCH, RateRepresentation.DECIMAL));
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(true);
+        when(currencyRegistry.contains("UAH"))
+            .thenReturn(true);
+        when(currencyRegistry.contains("JPY"))
+            .thenReturn(false);
+
+        assertThat(currencyRateService.getCurrencyStatus("USD"))
+            .isEqualTo(new CurrencyStatusDTO("USD", CurrencyStatus.AVAILABLE, 1L, Instant.EPOCH));
+        assertThat(currencyRateService.getCurrencyStatus("UAH"))
+            .isEqualTo(new CurrencyStatusDTO("UAH", CurrencyStatus.PENDING, null, null));
+        assertThat(currencyRateService.getCurrencyStatus("JPY"))
+            .isEqualTo(new CurrencyStatusDTO("JPY", CurrencyStatus.NOT_TRACKED, null, null));
+    }
+
     @Test
     @DisplayName("Should get used currencies")
     void shouldGetUsedCurrencies() {
@@ -85,25 +188,164 @@ class CurrencyRateServiceTest {
         assertThat(currencyRateService.getUsedCurrencies())
             .hasSize(3)
             .containsExactly("EUR", "UAH", "USD");
+
+        verifyNoInteractions(currencyDao);
     }
 
     @Test
     @DisplayName("Should get currency rates")
     void shouldGetCurrencyRates() {
-        when(currencyDao.checkIfExistsByCurrencyCode("USD"))
+        when(currencyRegistry.contains("USD"))
             .thenReturn(true);
 
-        ((Map<String, List<CurrencyExchangeRate>>) ReflectionTestUtils.getField(currencyRateService, "currencyRates"))
-            .putAll(buildCurrencyRatesMap());
+        currencyRatesReference().set(RateSnapshot.EMPTY.next(buildBaseExchangeRates(), Instant.EPOCH, RateRepresentation.DECIMAL));
 
         assertThat(currencyRateService.getCurrencyRates("USD"))
             .extracting(
                 CurrencyRateDTO::baseCurrency,
-                CurrencyRateDTO::rates)
+                CurrencyRateDTO::rates,
+                CurrencyRateDTO::version,
+                CurrencyRateDTO::fetchedAt)
             .containsExactly(
                 "USD",
-                Map.of("UAH", RateDTO.builder().rate(new BigDecimal("41.1561")).doubleConversion(true).build(),
-                    "EUR", RateDTO.builder().rate(new BigDecimal("0.9523")).doubleConversion(false).build()));
+                Map.of("UAH", RateDTO.builder().rate(new BigDecimal("41.15619047619048")).doubleConversion(true).build(),
+                    "EUR", RateDTO.builder().rate(new BigDecimal("0.9523809523809524")).doubleConversion(false).build()),
+                1L,
+                Instant.EPOCH);
+    }
+
+    @Test
+    @DisplayName("Refresh should publish new snapshot version without modifying previous snapshot")
+    void refreshShouldPublishNewSnapshotVersionWithoutModifyingPreviousSnapshot() {
+        RateSnapshot previousSnapshot = RateSnapshot.EMPTY.next(new BaseExchangeRates("EUR", Instant.EPOCH,
+            CurrencyIndex.of(List.of("EUR", "USD")), new BigDecimal[] {BigDecimal.ONE, new BigDecimal("1.1")}), Instant.EPOCH, RateRepresentation.DECIMAL);
+        currencyRatesReference().set(previousSnapshot);
+
+        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
+            .thenReturn(buildBaseExchangeRates());
+
+        ReflectionTestUtils.invokeMethod(currencyRateService, "refreshCurrencyRates", List.of("EUR", "UAH", "USD"));
+
+        RateSnapshot currentSnapshot = currencyRatesReference().get();
+        assertThat(currentSnapshot.version())
+            .isEqualTo(2L);
+        assertThat(currentSnapshot.fetchedAt())
+            .isAfter(Instant.EPOCH);
+        assertThat(currentSnapshot.rates().getExchangeRates("USD"))
+            .extracting(CurrencyExchangeRate::rate)
+            .containsExactly(new BigDecimal("0.9523809523809524"), new BigDecimal("41.15619047619048"));
+        assertThat(previousSnapshot.rates().getExchangeRates("USD"))
+            .extracting(CurrencyExchangeRate::rate)
+            .containsExactly(new BigDecimal("0.9090909090909091"));
+    }
+
+    @Test
+    @DisplayName("Refresh should date rates without provider timestamp by fetch time")
+    void refreshShouldDateRatesWithoutProviderTimestampByFetchTime() {
+        BaseExchangeRates baseExchangeRates = buildBaseExchangeRates();
+        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
+            .thenReturn(new BaseExchangeRates("EUR", null, baseExchangeRates.currencies(), baseExchangeRates.rates()));
+
+        CrossRates rates = ReflectionTestUtils.invokeMethod(currencyRateService, "refreshCurrencyRates", List.of("EUR", "UAH", "USD"));
+
+        assertThat(rates.baseRates().dateTime())
+            .isNotNull()
+            .isEqualTo(currencyRatesReference().get().fetchedAt());
+    }
+
+    @Test
+    @DisplayName("Should get rendered currency rates of current snapshot")
+    void shouldGetRenderedCurrencyRatesOfCurrentSnapshot() {
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(true);
+        mockCurrenciesCodes();
+        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
+            .thenReturn(buildBaseExchangeRates());
+
+        RenderedCurrencyRates result = currencyRateService.getRenderedCurrencyRates("USD");
+
+        assertThat(new String(result.json(), StandardCharsets.UTF_8))
+            .contains("\"baseCurrency\":\"USD\"")
+            .contains("\"UAH\":{\"rate\":41.15619047619048,\"doubleConversion\":true}")
+            .contains("\"version\":1");
+        assertThat(result.gzippedJson())
+            .isNotEmpty();
+        assertThat(ReflectionTestUtils.getField(result, "cbor"))
+            .isNull();
+        assertThat(result.cbor())
+            .isNotEmpty()
+            .isSameAs(result.cbor());
+        assertThat(result.eTag())
+            .startsWith("\"")
+            .endsWith("\"")
+            .isNotEqualTo(result.gzippedETag());
+        assertThat(currencyRatesReference().get().renderedRates())
+            .containsOnlyKeys("USD")
+            .containsEntry("USD", result);
+        assertThat(currencyRateService.getRenderedCurrencyRates("USD"))
+            .isSameAs(result);
+        assertThat(meterRegistry.get("currency.rates.rendered").tag("cache", "miss").counter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("currency.rates.rendered").tag("cache", "hit").counter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("currency.rates.refresh").tag("outcome", "success").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should join memoized rendered rates of several base currencies")
+    void shouldJoinMemoizedRenderedRatesOfSeveralBaseCurrencies() {
+        when(currencyRegistry.contains(any()))
+            .thenReturn(true);
+        currencyRatesReference().set(RateSnapshot.EMPTY.next(buildBaseExchangeRates(), Instant.EPOCH, RateRepresentation.DECIMAL));
+        RenderedCurrencyRates usdRates = currencyRateService.getRenderedCurrencyRates("USD");
+
+        byte[] result = currencyRateService.getRenderedCurrencyRates(List.of("USD", "EUR", "USD"), ResponseFormat.JSON);
+
+        assertThat(new String(result, StandardCharsets.UTF_8))
+            .startsWith("[" + new String(usdRates.json(), StandardCharsets.UTF_8) + ",{\"baseCurrency\":\"EUR\"")
+            .endsWith("}]");
+        assertThat(currencyRatesReference().get().renderedRates())
+            .containsOnlyKeys("USD", "EUR")
+            .containsEntry("USD", usdRates);
+    }
+
+    @Test
+    @DisplayName("Get rendered currency rates should throw exception when any base currency is not used")
+    void getRenderedCurrencyRatesShouldThrowExceptionWhenAnyBaseCurrencyIsNotUsed() {
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(true);
+        when(currencyRegistry.contains("GBP"))
+            .thenReturn(false);
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> currencyRateService.getRenderedCurrencyRates(List.of("USD", "GBP"), ResponseFormat.JSON))
+            .withMessageStartingWith("Currency 'GBP' is not available for getting exchange rates.");
+        verifyNoInteractions(exchangeRateIntegrationService);
+    }
+
+    @Test
+    @DisplayName("Should get pair rate without building rates of base currency")
+    void shouldGetPairRateWithoutBuildingRatesOfBaseCurrency() {
+        when(currencyRegistry.contains(any()))
+            .thenReturn(true);
+        currencyRatesReference().set(RateSnapshot.EMPTY.next(buildBaseExchangeRates(), Instant.EPOCH, RateRepresentation.DECIMAL));
+
+        assertThat(currencyRateService.getPairRate("USD", "UAH"))
+            .isEqualTo(new PairRateDTO("USD", "UAH", new BigDecimal("41.15619047619048"), true, 1L, Instant.EPOCH));
+        verify(currencyRateRenderer, times(0)).toCurrencyRateDTO(any(), any());
+    }
+
+    @Test
+    @DisplayName("Get pair rate should throw exception when pair rate is not available")
+    void getPairRateShouldThrowExceptionWhenPairRateIsNotAvailable() {
+        when(currencyRegistry.contains(any()))
+            .thenReturn(true);
+        currencyRatesReference().set(RateSnapshot.EMPTY.next(buildBaseExchangeRates(), Instant.EPOCH, RateRepresentation.DECIMAL));
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> currencyRateService.getPairRate("USD", "USD"))
+            .withMessage("Exchange rate of 'USD' to 'USD' is not available.");
     }
 
     @Test
@@ -111,21 +353,238 @@ class CurrencyRateServiceTest {
     void getCurrencyRatesShouldRefreshCurrencyRatesWhenCurrencyRatesMapIsEmpty() {
         List<String> currenciesCodes = List.of("EUR", "UAH", "USD");
 
-        when(currencyDao.checkIfExistsByCurrencyCode("USD"))
+        when(currencyRegistry.contains("USD"))
             .thenReturn(true);
         mockCurrenciesCodes();
         when(exchangeRateIntegrationService.getExchangeRateForCurrencies(currenciesCodes))
-            .thenReturn(buildCurrencyRatesMap());
+            .thenReturn(buildBaseExchangeRates());
 
         currencyRateService.getCurrencyRates("USD");
 
         verify(exchangeRateIntegrationService).getExchangeRateForCurrencies(currenciesCodes);
     }
 
+    @Test
+    @DisplayName("Concurrent get currency rates on cold cache should share single upstream fetch")
+    void concurrentGetCurrencyRatesOnColdCacheShouldShareSingleUpstreamFetch() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        List<String> currenciesCodes = List.of("EUR", "UAH", "USD");
+
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(true);
+        mockCurrenciesCodes();
+        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(currenciesCodes))
+            .then(invocation -> {
+                fetchStarted.countDown();
+                releaseFetch.await();
+                return buildBaseExchangeRates();
+            });
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<CurrencyRateDTO> leader = executor.submit(() -> currencyRateService.getCurrencyRates("USD"));
+            fetchStarted.await();
+            List<Future<CurrencyRateDTO>> waiters = List.of(
+                executor.submit(() -> currencyRateService.getCurrencyRates("USD")),
+                executor.submit(() -> currencyRateService.getCurrencyRates("USD")),
+                executor.submit(() -> currencyRateService.getCurrencyRates("USD")));
+            releaseFetch.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS).version())
+                .isEqualTo(1L);
+            for (Future<CurrencyRateDTO> waiter : waiters) {
+                assertThat(waiter.get(5, TimeUnit.SECONDS).version())
+                    .isEqualTo(1L);
+            }
+        } finally {
+            releaseFetch.countDown();
+            executor.shutdownNow();
+        }
+
+        verify(exchangeRateIntegrationService, times(1)).getExchangeRateForCurrencies(currenciesCodes);
+    }
+
+    @Test
+    @DisplayName("Get currency rates should fail fast when in-flight refresh exceeds wait timeout")
+    void getCurrencyRatesShouldFailFastWhenInFlightRefreshExceedsWaitTimeout() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        ReflectionTestUtils.setField(currencyRateService, "refreshWaitTimeout", Duration.ofMillis(50));
+
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(true);
+        mockCurrenciesCodes();
+        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
+            .then(invocation -> {
+                fetchStarted.countDown();
+                releaseFetch.await();
+                return buildBaseExchangeRates();
+            });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CurrencyRateDTO> leader = executor.submit(() -> currencyRateService.getCurrencyRates("USD"));
+            fetchStarted.await();
+
+            assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> currencyRateService.getCurrencyRates("USD"))
+                .withMessage("Timed out waiting for currency exchange rates refresh.");
+
+            releaseFetch.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS).baseCurrency())
+                .isEqualTo("USD");
+        } finally {
+            releaseFetch.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep serving last snapshot marked as stale while provider fails")
+    void shouldKeepServingLastSnapshotMarkedAsStaleWhileProviderFails() {
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(true);
+        mockCurrenciesCodes();
+        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
+            .thenReturn(buildBaseExchangeRates())
+            .thenThrow(new RuntimeException("Unable to fetch currency exchange rates."));
+
+        ReflectionTestUtils.invokeMethod(currencyRateService, "receiveExchangeRates");
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> ReflectionTestUtils.invokeMethod(currencyRateService, "receiveExchangeRates"));
+
+        assertThat(currencyRateService.isStale())
+            .isTrue();
+        assertThat(currencyRateService.getCurrencyRates("USD").version())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Get currency rates should fail fast on cold cache while circuit is open")
+    void getCurrencyRatesShouldFailFastOnColdCacheWhileCircuitIsOpen() {
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(true);
+        mockCurrenciesCodes();
+        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
+            .thenThrow(new RuntimeException("Unable to fetch currency exchange rates."));
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> currencyRateService.getCurrencyRates("USD"))
+            .withMessage("Unable to fetch currency exchange rates.");
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> currencyRateService.getCurrencyRates("USD"))
+            .withMessageStartingWith("Exchange rates provider is unavailable");
+
+        verify(exchangeRateIntegrationService, times(1)).getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD"));
+    }
+
+    @Test
+    @DisplayName("Provider probe should refresh rates and clear staleness once provider recovers")
+    void providerProbeShouldRefreshRatesAndClearStalenessOnceProviderRecovers() {
+        ReflectionTestUtils.setField(providerCircuitBreaker, "openDuration", Duration.ZERO);
+        mockCurrenciesCodes();
+        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
+            .thenThrow(new RuntimeException("Unable to fetch currency exchange rates."))
+            .thenReturn(buildBaseExchangeRates());
+
+        ReflectionTestUtils.invokeMethod(currencyRateService, "probeProvider");
+        assertThat(currencyRateService.isStale())
+            .isFalse();
+        verifyNoInteractions(exchangeRateIntegrationService);
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> ReflectionTestUtils.invokeMethod(currencyRateService, "receiveExchangeRates"));
+        ReflectionTestUtils.invokeMethod(currencyRateService, "probeProvider");
+
+        assertThat(currencyRateService.isStale())
+            .isFalse();
+        assertThat(providerCircuitBreaker.getState())
+            .isEqualTo(CircuitState.CLOSED);
+        assertThatCurrencyRatesMapEqualsToBuiltMap();
+    }
+
+    @Test
+    @DisplayName("Should restore latest persisted rates on startup")
+    void shouldRestoreLatestPersistedRatesOnStartup() {
+        when(rateHistoryService.getLatestExchangeRates("EUR"))
+            .thenReturn(Optional.of(new StoredExchangeRates(buildBaseExchangeRates(), Instant.now())));
+
+        currencyRateService.afterSingletonsInstantiated();
+
+        assertThat(currencyRatesReference().get().version())
+            .isEqualTo(1);
+        assertThatCurrencyRatesMapEqualsToBuiltMap();
+        verify(rateStreamService).publish(currencyRatesReference().get());
+        verifyNoInteractions(exchangeRateIntegrationService);
+    }
+
+    @Test
+    @DisplayName("Scheduled refresh should be skipped while restored rates are fresh")
+    void scheduledRefreshShouldBeSkippedWhileRestoredRatesAreFresh() {
+        mockCurrenciesCodes();
+        when(rateHistoryService.getLatestExchangeRates("EUR"))
+            .thenReturn(Optional.of(new StoredExchangeRates(buildBaseExchangeRates(), Instant.now().minusSeconds(60))));
+        currencyRateService.afterSingletonsInstantiated();
+
+        ReflectionTestUtils.invokeMethod(currencyRateService, "receiveExchangeRates");
+
+        verifyNoInteractions(exchangeRateIntegrationService, currencyLogWriter);
+        assertThat(meterRegistry.get("currency.rates.scheduled.refresh").tag("outcome", "skipped").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Scheduled refresh skipped for restored rates should be deferred until they get older than fetch frequency")
+    void scheduledRefreshSkippedForRestoredRatesShouldBeDeferredUntilTheyGetOlderThanFetchFrequency() {
+        mockCurrenciesCodes();
+        Instant fetchedAt = Instant.now().minusSeconds(3000);
+        when(rateHistoryService.getLatestExchangeRates("EUR"))
+            .thenReturn(Optional.of(new StoredExchangeRates(buildBaseExchangeRates(), fetchedAt)));
+        currencyRateService.afterSingletonsInstantiated();
+        TriggerTask scheduledRefresh = registerScheduledRefresh();
+        Instant startedAt = Instant.now();
+
+        scheduledRefresh.getRunnable().run();
+
+        assertThat(scheduledRefresh.getTrigger().nextExecution(new SimpleTriggerContext(startedAt, startedAt, Instant.now())))
+            .isEqualTo(fetchedAt.plusSeconds(3600));
+        verifyNoInteractions(exchangeRateIntegrationService);
+    }
+
+    @Test
+    @DisplayName("Should get age of served rates")
+    void shouldGetAgeOfServedRates() {
+        assertThat(currencyRateService.getRatesAge())
+            .isNull();
+
+        currencyRatesReference().set(RateSnapshot.EMPTY.next(buildBaseExchangeRates(), Instant.now().minusSeconds(90), RateRepresentation.DECIMAL));
+
+        assertThat(currencyRateService.getRatesAge())
+            .isBetween(Duration.ofSeconds(90), Duration.ofSeconds(100));
+    }
+
+    @Test
+    @DisplayName("Scheduled refresh should fetch rates when restored rates are older than fetch frequency")
+    void scheduledRefreshShouldFetchRatesWhenRestoredRatesAreOlderThanFetchFrequency() {
+        mockCurrenciesCodes();
+        when(rateHistoryService.getLatestExchangeRates("EUR"))
+            .thenReturn(Optional.of(new StoredExchangeRates(buildBaseExchangeRates(), Instant.now().minusSeconds(7200))));
+        when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
+            .thenReturn(buildBaseExchangeRates());
+        currencyRateService.afterSingletonsInstantiated();
+
+        ReflectionTestUtils.invokeMethod(currencyRateService, "receiveExchangeRates");
+
+        assertThat(currencyRatesReference().get().version())
+            .isEqualTo(2);
+        verify(currencyLogWriter).enqueue(any());
+    }
+
     @Test
     @DisplayName("Get currency rates should throw exception for not used currencyCode")
     void getCurrencyRatesShouldThrowExceptionForNotUsedCurrencyCode() {
-        when(currencyDao.checkIfExistsByCurrencyCode("USD"))
+        when(currencyRegistry.contains("USD"))
             .thenReturn(false);
 
         assertThatExceptionOfType(RuntimeException.class)
@@ -139,62 +598,52 @@ class CurrencyRateServiceTest {
     @Test
     @DisplayName("Should have scheduled currency rate fetching method")
     void shouldHaveScheduledCurrencyRateFetchingMethod() {
-        ArgumentCaptor<Collection<CurrencyLog>> currencyLogsArgumentCaptor = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<CrossRates> ratesArgumentCaptor = ArgumentCaptor.forClass(CrossRates.class);
 
         mockCurrenciesCodes();
         when(exchangeRateIntegrationService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD")))
-            .thenReturn(buildCurrencyRatesMap());
-        when(currencyLogDao.saveAll(currencyLogsArgumentCaptor.capture()))
-            .then(returnsFirstArg());
-
-        ReflectionTestUtils.invokeMethod(currencyRateService, "receiveExchangeRates");
+            .thenReturn(buildBaseExchangeRates());
+        when(currencyLogWriter.enqueue(ratesArgumentCaptor.capture()))
+            .thenReturn(true);
 
-        assertThat(currencyLogsArgumentCaptor.getAllValues())
-            .hasSize(3)
-            .extracting(Collection::size)
-            .containsExactly(2, 2, 2);
-        Collection<CurrencyLog> capturedLogs = currencyLogsArgumentCaptor.getAllValues().stream()
-                                                                         .reduce(new ArrayList<>(), (identity, collection) -> {
-                                                                             identity.addAll(collection);
-                                                                             return identity;
-                                                                         });
-        assertThat(capturedLogs)
-            .hasSize(6)
-            .extracting(
-                CurrencyLog::getBaseCurrencyCode,
-                CurrencyLog::getAnotherCurrencyCode,
-                CurrencyLog::getRate,
-                CurrencyLog::getRateDateTime,
-                CurrencyLog::getDoubleConversion)
-            .containsExactlyInAnyOrder(
-                tuple("EUR", "USD", new BigDecimal("1.05"), Instant.EPOCH, false),
-                tuple("EUR", "UAH", new BigDecimal("43.214"), Instant.EPOCH, false),
-                tuple("UAH", "USD", new BigDecimal("0.0242"), Instant.EPOCH, true),
-                tuple("UAH", "EUR", new BigDecimal("0.0231"), Instant.EPOCH, false),
-                tuple("USD", "UAH", new BigDecimal("41.1561"), Instant.EPOCH, true),
-                tuple("USD", "EUR", new BigDecimal("0.9523"), Instant.EPOCH, false));
+        TriggerTask scheduledRefresh = registerScheduledRefresh();
+        SimpleTriggerContext firstRun = new SimpleTriggerContext();
+        Instant beforeFirstRun = Instant.now();
+
+        assertThat(scheduledRefresh.getTrigger().nextExecution(firstRun))
+            .isBetween(beforeFirstRun, Instant.now());
+
+        Instant startedAt = Instant.now();
+        scheduledRefresh.getRunnable().run();
+        Instant completedAt = Instant.now();
+
+        verify(currencyRegistry).reload();
+        verify(currencyLogWriter).enqueue(any());
+        assertThat(ratesArgumentCaptor.getValue())
+            .isSameAs(currencyRatesReference().get().rates());
+        verify(rateStreamService).publish(currencyRatesReference().get());
+        assertThat(ratesArgumentCaptor.getValue().pairsCount())
+            .isEqualTo(6);
+        assertThat(scheduledRefresh.getTrigger().nextExecution(new SimpleTriggerContext(startedAt, startedAt, completedAt)))
+            .isEqualTo(completedAt.plusSeconds(3600));
+    }
 
-        Method scheduledMethod = ReflectionUtils.getRequiredMethod(CurrencyRateServiceImpl.class, "receiveExchangeRates");
-        Scheduled annotation = scheduledMethod.getAnnotation(Scheduled.class);
+    private TriggerTask registerScheduledRefresh() {
+        ScheduledTaskRegistrar taskRegistrar = new ScheduledTaskRegistrar();
+        currencyRateService.configureTasks(taskRegistrar);
 
-        assertThat(annotation)
-            .isNotNull()
-            .extracting(
-                Scheduled::fixedDelayString,
-                Scheduled::timeUnit)
-            .containsExactly(
-                "${currencyRate.fetch.frequency}",
-                TimeUnit.SECONDS);
+        assertThat(taskRegistrar.getTriggerTaskList())
+            .hasSize(1);
+        return taskRegistrar.getTriggerTaskList().get(0);
     }
 
     private void assertThatCurrencyRatesMapEqualsToBuiltMap() {
-        Map<String, List<CurrencyExchangeRate>> result = (Map<String, List<CurrencyExchangeRate>>) ReflectionTestUtils.getField(currencyRateService, "currencyRates");
+        CrossRates result = currencyRatesReference().get().rates();
 
-        assertThat(result)
-            .hasSize(3)
-            .containsOnlyKeys("EUR", "UAH", "USD");
+        assertThat(result.currencies().codes())
+            .containsExactly("EUR", "UAH", "USD");
 
-        assertThat(result.get("EUR"))
+        assertThat(result.getExchangeRates("EUR"))
             .hasSize(2)
             .extracting(
                 CurrencyExchangeRate::baseCurrency,
@@ -206,7 +655,7 @@ class CurrencyRateServiceTest {
                 tuple("EUR", "USD", Instant.EPOCH, new BigDecimal("1.05"), false),
                 tuple("EUR", "UAH", Instant.EPOCH, new BigDecimal("43.214"), false));
 
-        assertThat(result.get("UAH"))
+        assertThat(result.getExchangeRates("UAH"))
             .hasSize(2)
             .extracting(
                 CurrencyExchangeRate::baseCurrency,
@@ -215,10 +664,10 @@ class CurrencyRateServiceTest {
                 CurrencyExchangeRate::rate,
                 CurrencyExchangeRate::doubleConversion)
             .containsExactlyInAnyOrder(
-                tuple("UAH", "USD", Instant.EPOCH, new BigDecimal("0.0242"), true),
-                tuple("UAH", "EUR", Instant.EPOCH, new BigDecimal("0.0231"), false));
+                tuple("UAH", "USD", Instant.EPOCH, new BigDecimal("0.02429768130698385"), true),
+                tuple("UAH", "EUR", Instant.EPOCH, new BigDecimal("0.02314064886379414"), false));
 
-        assertThat(result.get("USD"))
+        assertThat(result.getExchangeRates("USD"))
             .hasSize(2)
             .extracting(
                 CurrencyExchangeRate::baseCurrency,
@@ -227,30 +676,22 @@ class CurrencyRateServiceTest {
                 CurrencyExchangeRate::rate,
                 CurrencyExchangeRate::doubleConversion)
             .containsExactlyInAnyOrder(
-                tuple("USD", "UAH", Instant.EPOCH, new BigDecimal("41.1561"), true),
-                tuple("USD", "EUR", Instant.EPOCH, new BigDecimal("0.9523"), false));
+                tuple("USD", "UAH", Instant.EPOCH, new BigDecimal("41.15619047619048"), true),
+                tuple("USD", "EUR", Instant.EPOCH, new BigDecimal("0.9523809523809524"), false));
     }
 
-    private void mockCurrenciesCodes() {
-        when(currencyDao.getCurrencies())
-            .thenReturn(List.of(
-                new Currency("EUR"),
-                new Currency("UAH"),
-                new Currency("USD")));
+    private AtomicReference<RateSnapshot> currencyRatesReference() {
+        return (AtomicReference<RateSnapshot>) ReflectionTestUtils.getField(currencyRateService, "currencyRates");
     }
 
-    private static Map<String, List<CurrencyExchangeRate>> buildCurrencyRatesMap() {
-        return Map.of(
-            "EUR", List.of(
-                new CurrencyExchangeRate("EUR", "USD", Instant.EPOCH, new BigDecimal("1.05"), false),
-                new CurrencyExchangeRate("EUR", "UAH", Instant.EPOCH, new BigDecimal("43.214"), false)),
-            "UAH", List.of(
-                new CurrencyExchangeRate("UAH", "USD", Instant.EPOCH, new BigDecimal("0.0242"), true),
-                new CurrencyExchangeRate("UAH", "EUR", Instant.EPOCH, new BigDecimal("0.0231"), false)),
-            "USD", List.of(
-                new CurrencyExchangeRate("USD", "UAH", Instant.EPOCH, new BigDecimal("41.1561"), true),
-                new CurrencyExchangeRate("USD", "EUR", Instant.EPOCH, new BigDecimal("0.9523"), false)));
+    private void mockCurrenciesCodes() {
+        when(currencyRegistry.getCurrencyCodes())
+            .thenReturn(List.of("EUR", "UAH", "USD"));
     }
 
+    private static BaseExchangeRates buildBaseExchangeRates() {
+        return new BaseExchangeRates("EUR", Instant.EPOCH, CurrencyIndex.of(List.of("EUR", "UAH", "USD")),
+            new BigDecimal[] {BigDecimal.ONE, new BigDecimal("43.214"), new BigDecimal("1.05")});
+    }
 
 }
@@ -0,0 +1,78 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.dao.CurrencyDao;
+import com.spribe.tz.dao.entity.Currency;
+import com.spribe.tz.service.impl.CurrencyRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyRegistryTest {
+
+    @InjectMocks
+    private CurrencyRegistry currencyRegistry;
+
+    @Mock
+    private CurrencyDao currencyDao;
+
+    @BeforeEach
+    void setUp() {
+        when(currencyDao.getCurrencies())
+            .thenReturn(List.of(
+                new Currency("USD"),
+                new Currency("EUR"),
+                new Currency("UAH")));
+
+        currencyRegistry.reload();
+    }
+
+    @Test
+    @DisplayName("Should get sorted currency codes without querying database")
+    void shouldGetSortedCurrencyCodesWithoutQueryingDatabase() {
+        assertThat(currencyRegistry.getCurrencyCodes())
+            .containsExactly("EUR", "UAH", "USD");
+        assertThat(currencyRegistry.contains("USD"))
+            .isTrue();
+        assertThat(currencyRegistry.contains("JPY"))
+            .isFalse();
+
+        verify(currencyDao).getCurrencies();
+        verifyNoMoreInteractions(currencyDao);
+    }
+
+    @Test
+    @DisplayName("Should register new currency code")
+    void shouldRegisterNewCurrencyCode() {
+        currencyRegistry.register("JPY");
+        currencyRegistry.register("JPY");
+
+        assertThat(currencyRegistry.getCurrencyCodes())
+            .containsExactly("EUR", "JPY", "UAH", "USD");
+        assertThat(currencyRegistry.contains("JPY"))
+            .isTrue();
+    }
+
+    @Test
+    @DisplayName("Reload should keep currencies registered after database was read")
+    void reloadShouldKeepCurrenciesRegisteredAfterDatabaseWasRead() {
+        currencyRegistry.register("JPY");
+
+        currencyRegistry.reload();
+
+        assertThat(currencyRegistry.getCurrencyCodes())
+            .containsExactly("EUR", "JPY", "UAH", "USD");
+    }
+
+}
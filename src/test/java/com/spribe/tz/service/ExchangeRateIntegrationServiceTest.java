@@ -1,8 +1,10 @@
 package com.spribe.tz.service;
 
 import com.spribe.tz.service.impl.FixerIoExchangeRateService;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CrossRates;
 import com.spribe.tz.service.impl.model.CurrencyExchangeRate;
-import com.spribe.tz.service.impl.model.FixerIoCurrencyExchangeRateResponse;
+import com.spribe.tz.service.impl.model.RateRepresentation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,17 +12,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -36,28 +44,39 @@ class ExchangeRateIntegrationServiceTest {
 
     private static final Long EPOCH_SECONDS = 100_000L;
 
+    private static final String FIXER_RESPONSE = """
+        {"success":true,"timestamp":100000,"base":"EUR","date":"1970-01-02",\
+        "rates":{"EUR":1,"GBP":0.85,"USD":1.05,"UAH":43.214}}""";
+
     @BeforeEach
     void setUp() {
         exchangeRateService = new FixerIoExchangeRateService(
             "http://test-api-host.com",
             "test-api-key",
             "test-currency-code",
-            restTemplate);
+            restTemplate,
+            Jackson2ObjectMapperBuilder.json().build());
     }
 
     @Test
     @DisplayName("Should get exchange rate for currencies")
     void shouldGetExchangeRateForCurrencies() {
-        when(restTemplate.getForObject(anyString(), eq(FixerIoCurrencyExchangeRateResponse.class)))
-            .thenReturn(buildFixerResponse());
+        mockFixerResponse(FIXER_RESPONSE);
+
+        BaseExchangeRates baseRates = exchangeRateService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD"), "EUR");
 
-        Map<String, List<CurrencyExchangeRate>> result = exchangeRateService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD"), "EUR");
+        assertThat(baseRates.providerBase())
+            .isEqualTo("EUR");
+        assertThat(baseRates.dateTime())
+            .isEqualTo(Instant.ofEpochSecond(EPOCH_SECONDS));
+        assertThat(baseRates.currencies().codes())
+            .containsExactly("EUR", "UAH", "USD");
+        assertThat(baseRates.rates())
+            .containsExactly(BigDecimal.ONE, new BigDecimal("43.214"), new BigDecimal("1.05"));
 
-        assertThat(result)
-            .hasSize(3)
-            .containsOnlyKeys("EUR", "UAH", "USD");
+        CrossRates result = CrossRates.of(baseRates, RateRepresentation.DECIMAL);
 
-        assertThat(result.get("EUR"))
+        assertThat(result.getExchangeRates("EUR"))
             .hasSize(2)
             .extracting(
                 CurrencyExchangeRate::baseCurrency,
@@ -69,7 +88,7 @@ class ExchangeRateIntegrationServiceTest {
                 tuple("EUR", "USD", Instant.ofEpochSecond(EPOCH_SECONDS), new BigDecimal("1.05"), false),
                 tuple("EUR", "UAH", Instant.ofEpochSecond(EPOCH_SECONDS), new BigDecimal("43.214"), false));
 
-        assertThat(result.get("UAH"))
+        assertThat(result.getExchangeRates("UAH"))
             .hasSize(2)
             .extracting(
                 CurrencyExchangeRate::baseCurrency,
@@ -81,7 +100,7 @@ class ExchangeRateIntegrationServiceTest {
                 tuple("UAH", "USD", Instant.ofEpochSecond(EPOCH_SECONDS), new BigDecimal("0.02429768130698385"), true),
                 tuple("UAH", "EUR", Instant.ofEpochSecond(EPOCH_SECONDS), new BigDecimal("0.02314064886379414"), false));
 
-        assertThat(result.get("USD"))
+        assertThat(result.getExchangeRates("USD"))
             .hasSize(2)
             .extracting(
                 CurrencyExchangeRate::baseCurrency,
@@ -94,13 +113,43 @@ class ExchangeRateIntegrationServiceTest {
                 tuple("USD", "EUR", Instant.ofEpochSecond(EPOCH_SECONDS), new BigDecimal("0.9523809523809524"), false));
     }
 
+    @Test
+    @DisplayName("Get exchange rate for currencies should skip rates of not requested currencies")
+    void getExchangeRateForCurrenciesShouldSkipRatesOfNotRequestedCurrencies() {
+        mockFixerResponse(FIXER_RESPONSE);
+
+        BaseExchangeRates result = exchangeRateService.getExchangeRateForCurrencies(List.of("USD", "JPY"), "EUR");
+
+        assertThat(result.currencies().codes())
+            .containsExactly("USD", "JPY");
+        assertThat(result.rates())
+            .containsExactly(new BigDecimal("1.05"), null);
+    }
+
+    @Test
+    @DisplayName("Get exchange rate for currencies should ignore unknown fields and non-numeric rates")
+    void getExchangeRateForCurrenciesShouldIgnoreUnknownFieldsAndNonNumericRates() {
+        mockFixerResponse("""
+            {"rates":{"USD":1.05,"UAH":null,"GBP":{"nested":[1,2]}},\
+            "info":{"source":["ecb"]},"success":true,"base":"EUR","timestamp":100000}""");
+
+        BaseExchangeRates result = exchangeRateService.getExchangeRateForCurrencies(List.of("USD", "UAH"), "EUR");
+
+        assertThat(result.providerBase())
+            .isEqualTo("EUR");
+        assertThat(result.dateTime())
+            .isEqualTo(Instant.ofEpochSecond(EPOCH_SECONDS));
+        assertThat(result.rates())
+            .containsExactly(new BigDecimal("1.05"), null);
+    }
+
     @Test
     @DisplayName("Get exchange rate for currencies should call proper endpoint")
     void getExchangeRateForCurrenciesShouldCallProperEndpoint() {
         ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
 
-        when(restTemplate.getForObject(urlCaptor.capture(), eq(FixerIoCurrencyExchangeRateResponse.class)))
-            .thenReturn(buildFixerResponse());
+        when(restTemplate.execute(urlCaptor.capture(), eq(HttpMethod.GET), any(), any()))
+            .thenAnswer(invocation -> extract(invocation.getArgument(3), FIXER_RESPONSE));
 
         exchangeRateService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD"), "EUR");
 
@@ -110,21 +159,20 @@ class ExchangeRateIntegrationServiceTest {
             .contains("symbols=EUR,UAH,USD")
             .contains("base=EUR");
 
-        verify(restTemplate).getForObject(anyString(), eq(FixerIoCurrencyExchangeRateResponse.class));
+        verify(restTemplate).execute(anyString(), eq(HttpMethod.GET), any(), any());
     }
 
     @Test
-    @DisplayName("Get exchange rate for currencies should return empty map for empty currencies codes")
-    void getExchangeRateForCurrenciesShouldReturnEmptyMapForEmptyCurrenciesCodes() {
+    @DisplayName("Get exchange rate for currencies should return empty rates for empty currencies codes")
+    void getExchangeRateForCurrenciesShouldReturnEmptyRatesForEmptyCurrenciesCodes() {
         assertThat(exchangeRateService.getExchangeRateForCurrencies(Collections.emptyList(), "EUR"))
-            .isEmpty();
+            .isSameAs(BaseExchangeRates.EMPTY);
     }
 
     @Test
-    @DisplayName("Get exchange rate for currencies should throw exception when integration API response is null")
-    void getExchangeRateForCurrenciesShouldThrowExceptionWhenIntegrationApiResponseIsNull() {
-        when(restTemplate.getForObject(anyString(), eq(FixerIoCurrencyExchangeRateResponse.class)))
-            .thenReturn(null);
+    @DisplayName("Get exchange rate for currencies should throw exception when integration API response is empty")
+    void getExchangeRateForCurrenciesShouldThrowExceptionWhenIntegrationApiResponseIsEmpty() {
+        mockFixerResponse("");
         List<String> currenciesCodes = List.of("EUR", "UAH", "USD");
 
         assertThatExceptionOfType(RuntimeException.class)
@@ -135,10 +183,8 @@ class ExchangeRateIntegrationServiceTest {
     @Test
     @DisplayName("Get exchange rate for currencies should throw exception when integration API response is unsuccessful")
     void getExchangeRateForCurrenciesShouldThrowExceptionWhenIntegrationApiResponseIsUnsuccessful() {
-        when(restTemplate.getForObject(anyString(), eq(FixerIoCurrencyExchangeRateResponse.class)))
-            .thenReturn(FixerIoCurrencyExchangeRateResponse.builder()
-                                                           .success(false)
-                                                           .build());
+        mockFixerResponse("""
+            {"success":false,"error":{"code":101,"type":"invalid_access_key"}}""");
         List<String> currenciesCodes = List.of("EUR", "UAH", "USD");
 
         assertThatExceptionOfType(RuntimeException.class)
@@ -151,8 +197,8 @@ class ExchangeRateIntegrationServiceTest {
     void shouldCallGetExchangeRateMethodWithBaseCurrencyCodeDefinedInConstructor() {
         ArgumentCaptor<String> urlCaptor = ArgumentCaptor.forClass(String.class);
 
-        when(restTemplate.getForObject(urlCaptor.capture(), eq(FixerIoCurrencyExchangeRateResponse.class)))
-            .thenReturn(buildFixerResponse());
+        when(restTemplate.execute(urlCaptor.capture(), eq(HttpMethod.GET), any(), any()))
+            .thenAnswer(invocation -> extract(invocation.getArgument(3), FIXER_RESPONSE));
 
         exchangeRateService.getExchangeRateForCurrencies(List.of("EUR", "UAH", "USD"));
 
@@ -161,15 +207,13 @@ class ExchangeRateIntegrationServiceTest {
             .contains("base=test-currency-code");
     }
 
-    private static FixerIoCurrencyExchangeRateResponse buildFixerResponse() {
-        return FixerIoCurrencyExchangeRateResponse.builder()
-                                                  .success(true)
-                                                  .timestamp(EPOCH_SECONDS)
-                                                  .base("EUR")
-                                                  .rates(Map.of(
-                                                      "EUR", BigDecimal.ONE,
-                                                      "USD", new BigDecimal("1.05"),
-                                                      "UAH", new BigDecimal("43.214")))
-                                                  .build();
+    private void mockFixerResponse(final String body) {
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(), any()))
+            .thenAnswer(invocation -> extract(invocation.getArgument(3), body));
     }
+
+    private static Object extract(final ResponseExtractor<?> extractor, final String body) throws Exception {
+        return extractor.extractData(new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+    }
+
 }
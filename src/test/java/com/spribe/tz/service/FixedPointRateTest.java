@@ -0,0 +1,123 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.service.impl.model.FixedPointRate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class FixedPointRateTest {
+
+    private static final List<BigDecimal> PROVIDER_RATES = List.of(
+        BigDecimal.ONE,
+        new BigDecimal("1.05"),
+        new BigDecimal("43.214"),
+        new BigDecimal("0.854312"),
+        new BigDecimal("161.921874"),
+        new BigDecimal("17385.402471"),
+        new BigDecimal("27215.5"),
+        new BigDecimal("0.0016"),
+        new BigDecimal("0.0015"),
+        new BigDecimal("3.673001"));
+
+    @Test
+    @DisplayName("Fixed-point cross rates should be exactly rounded and match DECIMAL64 results within one unit of the coarser precision")
+    void fixedPointCrossRatesShouldBeExactlyRoundedAndMatchDecimal64ResultsWithinOneUnitOfCoarserPrecision() {
+        BigDecimal unit = BigDecimal.ONE.movePointLeft(FixedPointRate.SCALE);
+
+        for (BigDecimal baseRate : PROVIDER_RATES) {
+            for (BigDecimal anotherRate : PROVIDER_RATES) {
+                BigDecimal exactRate = anotherRate.divide(baseRate, FixedPointRate.SCALE, RoundingMode.HALF_UP);
+                BigDecimal decimal64Rate = anotherRate.divide(baseRate, MathContext.DECIMAL64);
+                // unit of the 16th significant digit
+                BigDecimal decimal64Unit = BigDecimal.ONE.scaleByPowerOfTen(
+                    decimal64Rate.precision() - decimal64Rate.scale() - MathContext.DECIMAL64.getPrecision());
+
+                BigDecimal fixedPointRate = FixedPointRate.toDecimal(
+                    FixedPointRate.divide(FixedPointRate.fromDecimal(anotherRate), FixedPointRate.fromDecimal(baseRate)));
+
+                assertThat(fixedPointRate)
+                    .isEqualByComparingTo(exactRate);
+                assertThat(fixedPointRate.subtract(decimal64Rate).abs())
+                    .isLessThanOrEqualTo(unit.max(decimal64Unit));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Fixed-point cross rate of 1e6 and above should keep more digits than DECIMAL64")
+    void fixedPointCrossRateOfMillionAndAboveShouldKeepMoreDigitsThanDecimal64() {
+        BigDecimal fixedPointRate = FixedPointRate.toDecimal(FixedPointRate.divide(
+            FixedPointRate.fromDecimal(new BigDecimal("27215.5")), FixedPointRate.fromDecimal(new BigDecimal("0.0015"))));
+
+        assertThat(fixedPointRate.toPlainString())
+            .isEqualTo("18143666.6666666667");
+        assertThat(new BigDecimal("27215.5").divide(new BigDecimal("0.0015"), MathContext.DECIMAL64).toPlainString())
+            .isEqualTo("18143666.66666667");
+    }
+
+    @Test
+    @DisplayName("Should round rates below half of fixed-point unit to zero")
+    void shouldRoundRatesBelowHalfOfFixedPointUnitToZero() {
+        assertThat(FixedPointRate.fromDecimal(new BigDecimal("0.00000000004999")))
+            .isZero();
+        assertThat(FixedPointRate.fromDecimal(new BigDecimal("0.00000000005")))
+            .isEqualTo(1L);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "1, 1",
+        "1.05, 1.05",
+        "160, 160",
+        "0.0000000001, 0.0000000001",
+        "41.1561904762, 41.1561904762",
+        "922337203.6854775807, 922337203.6854775807"
+    })
+    @DisplayName("Should convert fixed-point rate to exact decimal without trailing zeros")
+    void shouldConvertFixedPointRateToExactDecimalWithoutTrailingZeros(final BigDecimal rate, final String expected) {
+        BigDecimal result = FixedPointRate.toDecimal(FixedPointRate.fromDecimal(rate));
+
+        assertThat(result.toPlainString())
+            .isEqualTo(expected);
+        assertThat(result.scale())
+            .isNotNegative();
+    }
+
+    @Test
+    @DisplayName("Should round provider rates with more than fixed-point scale digits half up")
+    void shouldRoundProviderRatesWithMoreThanFixedPointScaleDigitsHalfUp() {
+        assertThat(FixedPointRate.fromDecimal(new BigDecimal("1.00000000005")))
+            .isEqualTo(10_000_000_001L);
+        assertThat(FixedPointRate.fromDecimal(new BigDecimal("1.00000000004")))
+            .isEqualTo(10_000_000_000L);
+    }
+
+    @Test
+    @DisplayName("Should tell whether rate is representable as fixed-point rate")
+    void shouldTellWhetherRateIsRepresentableAsFixedPointRate() {
+        assertThat(FixedPointRate.isRepresentable(new BigDecimal("922337203.6854775807")))
+            .isTrue();
+        assertThat(FixedPointRate.isRepresentable(new BigDecimal("922337203.6854775808")))
+            .isFalse();
+    }
+
+    @Test
+    @DisplayName("Divide should throw exception when result exceeds fixed-point range")
+    void divideShouldThrowExceptionWhenResultExceedsFixedPointRange() {
+        long numerator = FixedPointRate.fromDecimal(new BigDecimal("27215.5"));
+        long denominator = FixedPointRate.fromDecimal(new BigDecimal("0.000016"));
+
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> FixedPointRate.divide(numerator, denominator));
+    }
+
+}
@@ -0,0 +1,231 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.service.impl.HedgedExchangeRateService;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class HedgedExchangeRateServiceTest {
+
+    private static final List<String> CURRENCIES_CODES = List.of("EUR", "UAH", "USD");
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HedgedExchangeRateService hedgedExchangeRateService;
+
+    @AfterEach
+    void tearDown() {
+        hedgedExchangeRateService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should return rates of first provider when it answers within hedging delay")
+    void shouldReturnRatesOfFirstProviderWhenItAnswersWithinHedgingDelay() {
+        TestProvider primary = new TestProvider("primary", Duration.ZERO, false);
+        TestProvider secondary = new TestProvider("secondary", Duration.ZERO, false);
+        createService(primary, secondary);
+
+        BaseExchangeRates result = hedgedExchangeRateService.getExchangeRateForCurrencies(CURRENCIES_CODES);
+
+        assertThat(result.providerBase())
+            .isEqualTo("primary");
+        assertThat(secondary.calls)
+            .hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Should hedge with next provider when first one exceeds hedging delay")
+    void shouldHedgeWithNextProviderWhenFirstOneExceedsHedgingDelay() {
+        TestProvider slow = new TestProvider("slow", Duration.ofSeconds(5), false);
+        TestProvider fast = new TestProvider("fast", Duration.ZERO, false);
+        createService(slow, fast);
+
+        long start = System.nanoTime();
+        BaseExchangeRates result = hedgedExchangeRateService.getExchangeRateForCurrencies(CURRENCIES_CODES);
+
+        assertThat(result.providerBase())
+            .isEqualTo("fast");
+        assertThat(Duration.ofNanos(System.nanoTime() - start))
+            .isLessThan(Duration.ofSeconds(2));
+        assertThat(slow.calls)
+            .hasValue(1);
+        assertThat(fast.calls)
+            .hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should time cancelled hedged call as cancelled when provider clears interrupt flag")
+    void shouldTimeCancelledHedgedCallAsCancelledWhenProviderClearsInterruptFlag() throws InterruptedException {
+        TestProvider slow = new TestProvider("slow", Duration.ZERO, false) {
+            @Override
+            public BaseExchangeRates getExchangeRateForCurrencies(final Collection<String> currenciesCodes) {
+                try {
+                    Thread.sleep(Duration.ofSeconds(5));
+                } catch (InterruptedException e) {
+                    // like blocking I/O failing on interrupt, the flag is not restored
+                    throw new RuntimeException("Interrupted.", e);
+                }
+                return super.getExchangeRateForCurrencies(currenciesCodes);
+            }
+        };
+        createService(slow, new TestProvider("fast", Duration.ZERO, false));
+
+        assertThat(hedgedExchangeRateService.getExchangeRateForCurrencies(CURRENCIES_CODES).providerBase())
+            .isEqualTo("fast");
+
+        // the cancelled call is timed once its thread observes the interrupt
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (meterRegistry.find("exchange.rates.provider.calls").tags("provider", "slow", "outcome", "cancelled").timer().count() == 0
+            && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get("exchange.rates.provider.calls").tags("provider", "slow", "outcome", "cancelled").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("exchange.rates.provider.calls").tags("provider", "slow", "outcome", "failure").timer().count())
+            .isZero();
+    }
+
+    @Test
+    @DisplayName("Should fail over to next provider immediately when provider fails")
+    void shouldFailOverToNextProviderImmediatelyWhenProviderFails() {
+        TestProvider failing = new TestProvider("failing", Duration.ZERO, true);
+        TestProvider working = new TestProvider("working", Duration.ZERO, false);
+        createService(Duration.ofSeconds(5), Duration.ofHours(6), failing, working);
+        ReflectionTestUtils.setField(hedgedExchangeRateService, "minHedgingDelay", Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        BaseExchangeRates result = hedgedExchangeRateService.getExchangeRateForCurrencies(CURRENCIES_CODES);
+
+        assertThat(result.providerBase())
+            .isEqualTo("working");
+        assertThat(Duration.ofNanos(System.nanoTime() - start))
+            .isLessThan(Duration.ofSeconds(2));
+        assertThat(hedgedExchangeRateService.getOrderedProviders())
+            .extracting(ExchangeRateProvider::getName)
+            .containsExactly("working", "failing");
+        assertThat(meterRegistry.get("exchange.rates.provider.calls").tags("provider", "failing", "outcome", "failure").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("exchange.rates.provider.calls").tags("provider", "working", "outcome", "success").timer().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should throw last failure when all providers fail")
+    void shouldThrowLastFailureWhenAllProvidersFail() {
+        createService(new TestProvider("first", Duration.ZERO, true), new TestProvider("second", Duration.ZERO, true));
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> hedgedExchangeRateService.getExchangeRateForCurrencies(CURRENCIES_CODES))
+            .withMessage("Unable to fetch currency exchange rates.");
+    }
+
+    @Test
+    @DisplayName("Should reject answer without rates")
+    void shouldRejectAnswerWithoutRates() {
+        createService(new TestProvider("empty", Duration.ZERO, false) {
+            @Override
+            public BaseExchangeRates getExchangeRateForCurrencies(final Collection<String> currenciesCodes) {
+                return new BaseExchangeRates("EUR", Instant.EPOCH, CurrencyIndex.of(currenciesCodes), new BigDecimal[currenciesCodes.size()]);
+            }
+        });
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> hedgedExchangeRateService.getExchangeRateForCurrencies(CURRENCIES_CODES))
+            .withMessage("Provider 'empty' returned no exchange rates.");
+    }
+
+    private void createService(final ExchangeRateProvider... providers) {
+        createService(Duration.ofMillis(200), Duration.ofHours(6), providers);
+    }
+
+    @Test
+    @DisplayName("Should move fast provider behind another one soon after it degrades")
+    void shouldMoveFastProviderBehindAnotherOneSoonAfterItDegrades() {
+        TestProvider primary = new TestProvider("primary", Duration.ZERO, false);
+        TestProvider secondary = new TestProvider("secondary", Duration.ZERO, false);
+        createService(Duration.ofMillis(200), Duration.ofMillis(100), primary, secondary);
+        for (int i = 0; i < 1000; i++) {
+            hedgedExchangeRateService.getExchangeRateForCurrencies(CURRENCIES_CODES);
+        }
+
+        // without decay ~1000 fast samples would keep p95 of primary low for another ~50 slow calls
+        primary.latency = Duration.ofSeconds(5);
+        int degradedCalls = 0;
+        while (hedgedExchangeRateService.getOrderedProviders().get(0) == primary && degradedCalls < 20) {
+            assertThat(hedgedExchangeRateService.getExchangeRateForCurrencies(CURRENCIES_CODES).providerBase())
+                .isEqualTo("secondary");
+            degradedCalls++;
+        }
+
+        assertThat(hedgedExchangeRateService.getOrderedProviders())
+            .extracting(ExchangeRateProvider::getName)
+            .containsExactly("secondary", "primary");
+    }
+
+    private void createService(final Duration maxHedgingDelay,
+                               final Duration latencyDecayInterval,
+                               final ExchangeRateProvider... providers) {
+        hedgedExchangeRateService = new HedgedExchangeRateService(List.of(providers), meterRegistry, maxHedgingDelay, latencyDecayInterval);
+        ReflectionTestUtils.setField(hedgedExchangeRateService, "hedgingPercentile", 0.95);
+        ReflectionTestUtils.setField(hedgedExchangeRateService, "minHedgingDelay", Duration.ofMillis(50));
+    }
+
+    private static class TestProvider implements ExchangeRateProvider {
+
+        private final String name;
+        private volatile Duration latency;
+        private final boolean failing;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private TestProvider(final String name, final Duration latency, final boolean failing) {
+            this.name = name;
+            this.latency = latency;
+            this.failing = failing;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public BaseExchangeRates getExchangeRateForCurrencies(final Collection<String> currenciesCodes) {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted.", e);
+            }
+            if (failing) {
+                throw new RuntimeException("Unable to fetch currency exchange rates.");
+            }
+
+            return new BaseExchangeRates(name, Instant.EPOCH, CurrencyIndex.of(currenciesCodes),
+                currenciesCodes.stream().map(code -> BigDecimal.ONE).toArray(BigDecimal[]::new));
+        }
+
+        @Override
+        public BaseExchangeRates getExchangeRateForCurrencies(final Collection<String> currenciesCodes,
+                                                              final String baseCurrencyCode) {
+            return getExchangeRateForCurrencies(currenciesCodes);
+        }
+
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.service.impl.IntegrationHttpInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class IntegrationHttpInterceptorTest {
+
+    private static final String BODY = "{\"success\":true}";
+
+    private final IntegrationHttpInterceptor interceptor = new IntegrationHttpInterceptor();
+
+    private final MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://test-api-host.com/latest?access_key=key"));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(interceptor, "totalTimeout", Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        interceptor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should request gzip and return decompressed body")
+    void shouldRequestGzipAndReturnDecompressedBody() throws IOException {
+        byte[] compressedBody = gzip(BODY);
+        MockClientHttpResponse compressed = new MockClientHttpResponse(compressedBody, HttpStatus.OK);
+        compressed.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        try (ClientHttpResponse response = interceptor.intercept(request, new byte[0], (req, body) -> compressed)) {
+            assertThat(request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING))
+                .isEqualTo("gzip");
+            assertThat(response.getBody().readAllBytes())
+                .asString(StandardCharsets.UTF_8)
+                .isEqualTo(BODY);
+            assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING))
+                .isFalse();
+            assertThat(interceptor.getStats().calls())
+                .isZero();
+        }
+        assertThat(compressed.isClosed())
+            .isTrue();
+        assertThat(interceptor.getStats().calls())
+            .isEqualTo(1);
+        assertThat(interceptor.getStats().failedCalls())
+            .isZero();
+        assertThat(interceptor.getStats().receivedBytes())
+            .isEqualTo(compressedBody.length);
+    }
+
+    @Test
+    @DisplayName("Should record call once when both body and response are closed")
+    void shouldRecordCallOnceWhenBothBodyAndResponseAreClosed() throws IOException {
+        ClientHttpResponse response = interceptor.intercept(request, new byte[0],
+            (req, body) -> new MockClientHttpResponse(BODY.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+
+        try (InputStream body = response.getBody()) {
+            body.readAllBytes();
+        }
+        response.close();
+
+        assertThat(interceptor.getStats().calls())
+            .isEqualTo(1);
+        assertThat(interceptor.getStats().receivedBytes())
+            .isEqualTo(BODY.length());
+    }
+
+    @Test
+    @DisplayName("Should fail call trickling body beyond total timeout")
+    void shouldFailCallTricklingBodyBeyondTotalTimeout() throws IOException {
+        InputStream trickling = new InputStream() {
+            @Override
+            public int read() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 'a';
+            }
+
+            @Override
+            public int read(final byte[] buffer, final int offset, final int length) {
+                buffer[offset] = (byte) read();
+                return 1;
+            }
+        };
+
+        try (ClientHttpResponse response = interceptor.intercept(request, new byte[0],
+            (req, body) -> new MockClientHttpResponse(trickling, HttpStatus.OK))) {
+            assertThatExceptionOfType(HttpTimeoutException.class)
+                .isThrownBy(() -> response.getBody().readAllBytes())
+                .withMessage("Request to test-api-host.com did not complete in PT0.2S.");
+        }
+
+        assertThat(interceptor.getStats().failedCalls())
+            .isEqualTo(1);
+        assertThat(interceptor.getStats().maxLatency())
+            .isGreaterThanOrEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    @DisplayName("Should fail call stalled mid-body once total timeout expires")
+    void shouldFailCallStalledMidBodyOnceTotalTimeoutExpires() throws IOException {
+        CountDownLatch closed = new CountDownLatch(1);
+        InputStream stalled = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                try {
+                    closed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("closed");
+            }
+
+            @Override
+            public void close() {
+                closed.countDown();
+            }
+        };
+
+        long start = System.nanoTime();
+        try (ClientHttpResponse response = interceptor.intercept(request, new byte[0],
+            (req, body) -> new MockClientHttpResponse(stalled, HttpStatus.OK))) {
+            assertThatExceptionOfType(HttpTimeoutException.class)
+                .isThrownBy(() -> response.getBody().readAllBytes())
+                .withMessage("Request to test-api-host.com did not complete in PT0.2S.")
+                .withCauseInstanceOf(IOException.class);
+        }
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start))
+            .isLessThan(Duration.ofSeconds(2));
+        assertThat(interceptor.getStats().failedCalls())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count call failed on I/O")
+    void shouldCountCallFailedOnIo() {
+        assertThatExceptionOfType(IOException.class)
+            .isThrownBy(() -> interceptor.intercept(request, new byte[0], (req, body) -> {
+                throw new IOException("Connection reset");
+            }));
+
+        assertThat(interceptor.getStats().calls())
+            .isEqualTo(1);
+        assertThat(interceptor.getStats().failedCalls())
+            .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should count error status as failed call")
+    void shouldCountErrorStatusAsFailedCall() throws IOException {
+        interceptor.intercept(request, new byte[0], (req, body) -> new MockClientHttpResponse(new byte[0], HttpStatus.BAD_GATEWAY))
+                   .close();
+
+        assertThat(interceptor.getStats().failedCalls())
+            .isEqualTo(1);
+    }
+
+    private static byte[] gzip(final String body) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return outputStream.toByteArray();
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.service.impl.model.LatencyHistogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private final LatencyHistogram histogram = new LatencyHistogram(Duration.ofMinutes(1), nanoTime::get);
+
+    @Test
+    @DisplayName("Should return null percentile when nothing was recorded")
+    void shouldReturnNullPercentileWhenNothingWasRecorded() {
+        assertThat(histogram.percentile(0.95))
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("Should return upper bound of bucket holding percentile")
+    void shouldReturnUpperBoundOfBucketHoldingPercentile() {
+        for (int i = 0; i < 90; i++) {
+            histogram.record(Duration.ofMillis(3));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(Duration.ofMillis(900));
+        }
+
+        assertThat(histogram.percentile(0.5))
+            .isEqualTo(Duration.ofMillis(4));
+        assertThat(histogram.percentile(0.95))
+            .isEqualTo(Duration.ofMillis(1024));
+    }
+
+    @Test
+    @DisplayName("Should let recent latencies outweigh old ones")
+    void shouldLetRecentLatenciesOutweighOldOnes() {
+        for (int i = 0; i < 10_000; i++) {
+            histogram.record(Duration.ofMillis(10));
+        }
+
+        // degraded provider, without decay the old samples would hold p90 at 16 ms for another ~1000 slow calls
+        for (int minute = 1; minute <= 6; minute++) {
+            nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+            for (int i = 0; i < 20; i++) {
+                histogram.record(Duration.ofSeconds(1));
+            }
+        }
+
+        assertThat(histogram.percentile(0.9))
+            .isEqualTo(Duration.ofMillis(1024));
+    }
+
+    @Test
+    @DisplayName("Should forget latencies after many idle intervals")
+    void shouldForgetLatenciesAfterManyIdleIntervals() {
+        histogram.record(Duration.ofSeconds(1));
+        histogram.record(Duration.ofSeconds(1));
+
+        nanoTime.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertThat(histogram.percentile(0.95))
+            .isNull();
+    }
+
+    @Test
+    @DisplayName("Should not decay within interval")
+    void shouldNotDecayWithinInterval() {
+        histogram.record(Duration.ofMillis(3));
+
+        nanoTime.addAndGet(Duration.ofSeconds(59).toNanos());
+
+        assertThat(histogram.percentile(0.95))
+            .isEqualTo(Duration.ofMillis(4));
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.service.impl.ProviderCircuitBreaker;
+import com.spribe.tz.service.impl.model.CircuitState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ProviderCircuitBreakerTest {
+
+    private final ProviderCircuitBreaker circuitBreaker = new ProviderCircuitBreaker();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(circuitBreaker, "failureThreshold", 2);
+        ReflectionTestUtils.setField(circuitBreaker, "openDuration", Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Should open circuit after consecutive failures and fail fast")
+    void shouldOpenCircuitAfterConsecutiveFailuresAndFailFast() {
+        failingCall();
+        assertThat(circuitBreaker.getState())
+            .isEqualTo(CircuitState.CLOSED);
+        failingCall();
+
+        assertThat(circuitBreaker.getState())
+            .isEqualTo(CircuitState.OPEN);
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> circuitBreaker.call(calls::incrementAndGet))
+            .withMessageStartingWith("Exchange rates provider is unavailable, calls are suspended until");
+        assertThat(calls)
+            .hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should reset failures count after successful call")
+    void shouldResetFailuresCountAfterSuccessfulCall() {
+        failingCall();
+        circuitBreaker.call(calls::incrementAndGet);
+        failingCall();
+
+        assertThat(circuitBreaker.getState())
+            .isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Should close circuit when probe succeeds")
+    void shouldCloseCircuitWhenProbeSucceeds() {
+        ReflectionTestUtils.setField(circuitBreaker, "openDuration", Duration.ZERO);
+        failingCall();
+        failingCall();
+
+        assertThat(circuitBreaker.call(() -> "probe"))
+            .isEqualTo("probe");
+        assertThat(circuitBreaker.getState())
+            .isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Should open circuit again when probe fails")
+    void shouldOpenCircuitAgainWhenProbeFails() {
+        failingCall();
+        failingCall();
+        ReflectionTestUtils.setField(circuitBreaker, "openDuration", Duration.ZERO);
+
+        failingCall();
+
+        assertThat(circuitBreaker.getState())
+            .isEqualTo(CircuitState.OPEN);
+        assertThat(calls)
+            .hasValue(3);
+    }
+
+    @Test
+    @DisplayName("Should open circuit again when probe ends with error")
+    void shouldOpenCircuitAgainWhenProbeEndsWithError() {
+        failingCall();
+        failingCall();
+        ReflectionTestUtils.setField(circuitBreaker, "openDuration", Duration.ZERO);
+
+        assertThatExceptionOfType(StackOverflowError.class)
+            .isThrownBy(() -> circuitBreaker.call(() -> {
+                throw new StackOverflowError();
+            }));
+
+        assertThat(circuitBreaker.getState())
+            .isEqualTo(CircuitState.OPEN);
+        assertThat(circuitBreaker.call(() -> "probe"))
+            .isEqualTo("probe");
+    }
+
+    private void failingCall() {
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> circuitBreaker.call(() -> {
+                calls.incrementAndGet();
+                throw new RuntimeException("Unable to fetch currency exchange rates.");
+            }));
+    }
+
+}
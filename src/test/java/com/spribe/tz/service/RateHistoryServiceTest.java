@@ -0,0 +1,371 @@
+package com.spribe.tz.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORMapper;
+import com.spribe.tz.controller.dto.HistoryRateDTO;
+import com.spribe.tz.controller.dto.RateHistoryDTO;
+import com.spribe.tz.controller.dto.RateRollupDTO;
+import com.spribe.tz.controller.dto.RateRollupsDTO;
+import com.spribe.tz.dao.CurrencyLogDao;
+import com.spribe.tz.dao.CurrencyRateRollupDao;
+import com.spribe.tz.dao.CurrencyRateSnapshotDao;
+import com.spribe.tz.dao.entity.CurrencyLog;
+import com.spribe.tz.dao.entity.CurrencyRateSnapshot;
+import com.spribe.tz.dao.model.CurrencyLogEntry;
+import com.spribe.tz.dao.model.CurrencyRateRollup;
+import com.spribe.tz.dao.model.RollupInterval;
+import com.spribe.tz.dao.model.SnapshotPairEntry;
+import com.spribe.tz.service.impl.CurrencyRegistry;
+import com.spribe.tz.service.impl.RateHistoryServiceImpl;
+import com.spribe.tz.service.impl.model.HistoryCursor;
+import com.spribe.tz.service.impl.model.HistoryStorage;
+import com.spribe.tz.service.impl.model.RateHistory;
+import com.spribe.tz.service.impl.model.ResponseFormat;
+import com.spribe.tz.service.impl.model.StoredExchangeRates;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateHistoryServiceTest {
+
+    private static final Instant FROM = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant UNTIL = Instant.parse("2024-02-01T00:00:00Z");
+
+    @InjectMocks
+    private RateHistoryServiceImpl rateHistoryService;
+
+    @Mock
+    private CurrencyLogDao currencyLogDao;
+
+    @Mock
+    private CurrencyRateRollupDao currencyRateRollupDao;
+
+    @Mock
+    private CurrencyRateSnapshotDao currencyRateSnapshotDao;
+
+    @Mock
+    private CurrencyRegistry currencyRegistry;
+
+    @Spy
+    private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rateHistoryService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(rateHistoryService, "historyStorage", HistoryStorage.PAIRS);
+    }
+
+    @Test
+    @DisplayName("Should start history from range start when cursor is absent")
+    void shouldStartHistoryFromRangeStartWhenCursorIsAbsent() {
+        mockTrackedCurrencies();
+
+        RateHistory rateHistory = rateHistoryService.getRateHistory("USD", "UAH", FROM, UNTIL, null, 10);
+
+        assertThat(rateHistory)
+            .isEqualTo(new RateHistory("USD", "UAH", new HistoryCursor(FROM, 0L), UNTIL, 10));
+    }
+
+    @Test
+    @DisplayName("Should continue history from cursor position")
+    void shouldContinueHistoryFromCursorPosition() {
+        mockTrackedCurrencies();
+        String cursor = new HistoryCursor(Instant.parse("2024-01-15T10:00:00Z"), 42L).encode();
+
+        RateHistory rateHistory = rateHistoryService.getRateHistory("USD", "UAH", FROM, UNTIL, cursor, 10);
+
+        assertThat(rateHistory.after())
+            .isEqualTo(new HistoryCursor(Instant.parse("2024-01-15T10:00:00Z"), 42L));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when currency is not tracked")
+    void shouldThrowExceptionWhenCurrencyIsNotTracked() {
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(true);
+        when(currencyRegistry.contains("JPY"))
+            .thenReturn(false);
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> rateHistoryService.getRateHistory("USD", "JPY", FROM, UNTIL, null, 10))
+            .withMessage("""
+                Currency 'JPY' is not available for getting exchange rates history.
+                Please try to add currencyCode using existing API.
+                """);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when limit exceeds max page size")
+    void shouldThrowExceptionWhenLimitExceedsMaxPageSize() {
+        mockTrackedCurrencies();
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> rateHistoryService.getRateHistory("USD", "UAH", FROM, UNTIL, null, 101))
+            .withMessage("History page limit should be between 1 and 100.");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when cursor is malformed")
+    void shouldThrowExceptionWhenCursorIsMalformed() {
+        mockTrackedCurrencies();
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> rateHistoryService.getRateHistory("USD", "UAH", FROM, UNTIL, "not-a-cursor", 10))
+            .withMessage("Invalid history cursor 'not-a-cursor'.");
+    }
+
+    @Test
+    @DisplayName("Should write history page with next cursor when more rates available")
+    void shouldWriteHistoryPageWithNextCursorWhenMoreRatesAvailable() throws Exception {
+        RateHistory rateHistory = new RateHistory("USD", "UAH", HistoryCursor.startingAt(FROM), UNTIL, 2);
+        mockHistory(rateHistory,
+            new CurrencyLogEntry(1L, new BigDecimal("41.1"), FROM, true),
+            new CurrencyLogEntry(5L, new BigDecimal("41.2"), Instant.parse("2024-01-01T01:00:00Z"), true),
+            new CurrencyLogEntry(9L, new BigDecimal("41.3"), Instant.parse("2024-01-01T02:00:00Z"), true));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        rateHistoryService.writeRateHistory(rateHistory, ResponseFormat.JSON, outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8))
+            .isEqualTo("""
+                {"baseCurrency":"USD","anotherCurrency":"UAH","rates":[\
+                {"rate":41.1,"dateTime":"2024-01-01T00:00:00Z","doubleConversion":true},\
+                {"rate":41.2,"dateTime":"2024-01-01T01:00:00Z","doubleConversion":true}],\
+                "nextCursor":"%s"}""".formatted(new HistoryCursor(Instant.parse("2024-01-01T01:00:00Z"), 5L).encode()));
+    }
+
+    @Test
+    @DisplayName("Should write last history page without next cursor")
+    void shouldWriteLastHistoryPageWithoutNextCursor() throws Exception {
+        RateHistory rateHistory = new RateHistory("USD", "UAH", HistoryCursor.startingAt(FROM), UNTIL, 2);
+        mockHistory(rateHistory,
+            new CurrencyLogEntry(1L, new BigDecimal("41.1"), FROM, true));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        rateHistoryService.writeRateHistory(rateHistory, ResponseFormat.JSON, outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8))
+            .isEqualTo("""
+                {"baseCurrency":"USD","anotherCurrency":"UAH","rates":[\
+                {"rate":41.1,"dateTime":"2024-01-01T00:00:00Z","doubleConversion":true}],\
+                "nextCursor":null}""");
+    }
+
+    @Test
+    @DisplayName("Should write history page as CBOR")
+    void shouldWriteHistoryPageAsCbor() throws Exception {
+        RateHistory rateHistory = new RateHistory("USD", "UAH", HistoryCursor.startingAt(FROM), UNTIL, 2);
+        mockHistory(rateHistory,
+            new CurrencyLogEntry(1L, new BigDecimal("41.1"), FROM, true));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        rateHistoryService.writeRateHistory(rateHistory, ResponseFormat.CBOR, outputStream);
+
+        RateHistoryDTO result = new CBORMapper().findAndRegisterModules().readValue(outputStream.toByteArray(), RateHistoryDTO.class);
+        assertThat(result)
+            .isEqualTo(new RateHistoryDTO("USD", "UAH", List.of(new HistoryRateDTO(new BigDecimal("41.1"), FROM, true)), null));
+    }
+
+    @Test
+    @DisplayName("Should reconstruct history page from snapshots with snapshot storage")
+    @SuppressWarnings("unchecked")
+    void shouldReconstructHistoryPageFromSnapshotsWithSnapshotStorage() throws Exception {
+        ReflectionTestUtils.setField(rateHistoryService, "historyStorage", HistoryStorage.SNAPSHOT);
+        RateHistory rateHistory = new RateHistory("USD", "UAH", HistoryCursor.startingAt(FROM), UNTIL, 2);
+        doAnswer(invocation -> {
+            Consumer<SnapshotPairEntry> consumer = invocation.getArgument(6);
+            consumer.accept(new SnapshotPairEntry(7L, FROM, "EUR", new BigDecimal("1.05"), new BigDecimal("43.214")));
+            return null;
+        }).when(currencyRateSnapshotDao).streamPairHistory(eq("USD"), eq("UAH"), eq(FROM), eq(0L), eq(UNTIL), eq(3), any());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        rateHistoryService.writeRateHistory(rateHistory, ResponseFormat.JSON, outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8))
+            .isEqualTo("""
+                {"baseCurrency":"USD","anotherCurrency":"UAH","rates":[\
+                {"rate":41.15619047619048,"dateTime":"2024-01-01T00:00:00Z","doubleConversion":true}],\
+                "nextCursor":null}""");
+    }
+
+    @Test
+    @DisplayName("Should get currency pair rollups")
+    void shouldGetCurrencyPairRollups() {
+        mockTrackedCurrencies();
+        when(currencyRateRollupDao.getRollups("USD", "UAH", RollupInterval.DAY, FROM, UNTIL))
+            .thenReturn(List.of(CurrencyRateRollup.builder()
+                                                  .baseCurrencyCode("USD")
+                                                  .anotherCurrencyCode("UAH")
+                                                  .bucketStart(FROM)
+                                                  .openRate(new BigDecimal("41.2"))
+                                                  .highRate(new BigDecimal("41.5"))
+                                                  .lowRate(new BigDecimal("41.1"))
+                                                  .closeRate(new BigDecimal("41.3"))
+                                                  .openDateTime(FROM)
+                                                  .closeDateTime(FROM)
+                                                  .build()));
+
+        RateRollupsDTO result = rateHistoryService.getRateRollups("USD", "UAH", RollupInterval.DAY, FROM, UNTIL);
+
+        assertThat(result)
+            .isEqualTo(new RateRollupsDTO("USD", "UAH", RollupInterval.DAY, List.of(
+                new RateRollupDTO(FROM, new BigDecimal("41.2"), new BigDecimal("41.5"), new BigDecimal("41.1"), new BigDecimal("41.3")))));
+    }
+
+    @Test
+    @DisplayName("Should aggregate currency pair rollups from snapshots with snapshot storage")
+    @SuppressWarnings("unchecked")
+    void shouldAggregateCurrencyPairRollupsFromSnapshotsWithSnapshotStorage() {
+        ReflectionTestUtils.setField(rateHistoryService, "historyStorage", HistoryStorage.SNAPSHOT);
+        mockTrackedCurrencies();
+        Instant secondDay = FROM.plus(1, ChronoUnit.DAYS);
+        doAnswer(invocation -> {
+            Consumer<SnapshotPairEntry> consumer = invocation.getArgument(6);
+            consumer.accept(new SnapshotPairEntry(1L, FROM.plusSeconds(3600), "USD", BigDecimal.ONE, new BigDecimal("41.2")));
+            consumer.accept(new SnapshotPairEntry(2L, FROM.plusSeconds(7200), "USD", BigDecimal.ONE, new BigDecimal("41.5")));
+            consumer.accept(new SnapshotPairEntry(3L, FROM.plusSeconds(10800), "USD", BigDecimal.ONE, new BigDecimal("41.3")));
+            consumer.accept(new SnapshotPairEntry(4L, secondDay, "USD", BigDecimal.ONE, new BigDecimal("41.1")));
+            return null;
+        }).when(currencyRateSnapshotDao).streamPairHistory(eq("USD"), eq("UAH"), eq(FROM), eq(0L), eq(UNTIL), eq(Integer.MAX_VALUE), any());
+
+        RateRollupsDTO result = rateHistoryService.getRateRollups("USD", "UAH", RollupInterval.DAY, FROM, UNTIL);
+
+        assertThat(result)
+            .isEqualTo(new RateRollupsDTO("USD", "UAH", RollupInterval.DAY, List.of(
+                new RateRollupDTO(FROM, new BigDecimal("41.2"), new BigDecimal("41.5"), new BigDecimal("41.2"), new BigDecimal("41.3")),
+                new RateRollupDTO(secondDay, new BigDecimal("41.1"), new BigDecimal("41.1"), new BigDecimal("41.1"), new BigDecimal("41.1")))));
+        verifyNoInteractions(currencyRateRollupDao);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when rollups range exceeds max page size")
+    void shouldThrowExceptionWhenRollupsRangeExceedsMaxPageSize() {
+        mockTrackedCurrencies();
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> rateHistoryService.getRateRollups("USD", "UAH", RollupInterval.HOUR, FROM, UNTIL))
+            .withMessage("Rollups range should not exceed 100 HOUR intervals.");
+    }
+
+    @Test
+    @DisplayName("Should restore latest provider rates from currency logs")
+    void shouldRestoreLatestProviderRatesFromCurrencyLogs() {
+        Instant fetchedAt = Instant.parse("2024-01-01T10:00:05Z");
+        when(currencyLogDao.findLatestRates("EUR"))
+            .thenReturn(List.of(
+                buildCurrencyLog(1L, "USD", "1.04", fetchedAt.minusSeconds(600)),
+                buildCurrencyLog(2L, "UAH", "43.214", fetchedAt),
+                buildCurrencyLog(3L, "USD", "1.05", fetchedAt)));
+
+        Optional<StoredExchangeRates> result = rateHistoryService.getLatestExchangeRates("EUR");
+
+        assertThat(result)
+            .isPresent();
+        assertThat(result.get().fetchedAt())
+            .isEqualTo(fetchedAt);
+        assertThat(result.get().rates().providerBase())
+            .isEqualTo("EUR");
+        assertThat(result.get().rates().dateTime())
+            .isEqualTo(FROM);
+        assertThat(result.get().rates().currencies().codes())
+            .containsExactly("EUR", "UAH", "USD");
+        assertThat(result.get().rates().rates())
+            .containsExactly(BigDecimal.ONE, new BigDecimal("43.214"), new BigDecimal("1.05"));
+    }
+
+    @Test
+    @DisplayName("Should not restore rates when provider base rates were not written")
+    void shouldNotRestoreRatesWhenProviderBaseRatesWereNotWritten() {
+        when(currencyLogDao.findLatestRates("EUR"))
+            .thenReturn(List.of());
+
+        assertThat(rateHistoryService.getLatestExchangeRates("EUR"))
+            .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should restore latest provider rates from snapshot with snapshot storage")
+    void shouldRestoreLatestProviderRatesFromSnapshotWithSnapshotStorage() {
+        ReflectionTestUtils.setField(rateHistoryService, "historyStorage", HistoryStorage.SNAPSHOT);
+        Instant fetchedAt = Instant.parse("2024-01-01T10:00:05Z");
+        when(currencyRateSnapshotDao.findLatest())
+            .thenReturn(Optional.of(CurrencyRateSnapshot.builder()
+                                                        .id(7L)
+                                                        .providerBase("EUR")
+                                                        .rateDateTime(FROM)
+                                                        .currencyCodes(new String[] {"EUR", "UAH", "USD"})
+                                                        .rates(new BigDecimal[] {BigDecimal.ONE, new BigDecimal("43.214"), null})
+                                                        .creationDate(fetchedAt)
+                                                        .build()));
+
+        Optional<StoredExchangeRates> result = rateHistoryService.getLatestExchangeRates("EUR");
+
+        assertThat(result)
+            .isPresent();
+        assertThat(result.get().fetchedAt())
+            .isEqualTo(fetchedAt);
+        assertThat(result.get().rates().currencies().codes())
+            .containsExactly("EUR", "UAH", "USD");
+        assertThat(result.get().rates().rates())
+            .containsExactly(BigDecimal.ONE, new BigDecimal("43.214"), null);
+    }
+
+    private static CurrencyLog buildCurrencyLog(final Long id,
+                                                final String anotherCurrencyCode,
+                                                final String rate,
+                                                final Instant creationDate) {
+        return CurrencyLog.builder()
+                          .id(id)
+                          .baseCurrencyCode("EUR")
+                          .anotherCurrencyCode(anotherCurrencyCode)
+                          .rate(new BigDecimal(rate))
+                          .rateDateTime(FROM)
+                          .doubleConversion(false)
+                          .creationDate(creationDate)
+                          .build();
+    }
+
+    private void mockTrackedCurrencies() {
+        when(currencyRegistry.contains(any()))
+            .thenReturn(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockHistory(final RateHistory rateHistory, final CurrencyLogEntry... entries) {
+        doAnswer(invocation -> {
+            Consumer<CurrencyLogEntry> consumer = invocation.getArgument(6);
+            for (CurrencyLogEntry entry : entries) {
+                consumer.accept(entry);
+            }
+            return null;
+        }).when(currencyLogDao).streamHistory(eq(rateHistory.baseCurrency()), eq(rateHistory.anotherCurrency()),
+            eq(rateHistory.after().rateDateTime()), eq(rateHistory.after().id()), eq(rateHistory.until()),
+            eq(rateHistory.limit() + 1), any());
+    }
+
+}
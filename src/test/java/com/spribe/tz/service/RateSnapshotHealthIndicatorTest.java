@@ -0,0 +1,75 @@
+package com.spribe.tz.service;
+
+import com.spribe.tz.service.impl.RateSnapshotHealthIndicator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateSnapshotHealthIndicatorTest {
+
+    @InjectMocks
+    private RateSnapshotHealthIndicator rateSnapshotHealthIndicator;
+
+    @Mock
+    private CurrencyRateService currencyRateService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rateSnapshotHealthIndicator, "maxRatesAge", Duration.ofHours(2));
+    }
+
+    @Test
+    @DisplayName("Should be up while rates are younger than max age")
+    void shouldBeUpWhileRatesAreYoungerThanMaxAge() {
+        when(currencyRateService.getRatesAge())
+            .thenReturn(Duration.ofMinutes(30));
+
+        Health health = rateSnapshotHealthIndicator.health();
+
+        assertThat(health.getStatus())
+            .isEqualTo(Status.UP);
+        assertThat(health.getDetails())
+            .containsEntry("ratesAge", "PT30M")
+            .containsEntry("stale", false);
+    }
+
+    @Test
+    @DisplayName("Should be down when rates are older than max age")
+    void shouldBeDownWhenRatesAreOlderThanMaxAge() {
+        when(currencyRateService.getRatesAge())
+            .thenReturn(Duration.ofHours(3));
+        when(currencyRateService.isStale())
+            .thenReturn(true);
+
+        Health health = rateSnapshotHealthIndicator.health();
+
+        assertThat(health.getStatus())
+            .isEqualTo(Status.DOWN);
+        assertThat(health.getDetails())
+            .containsEntry("ratesAge", "PT3H")
+            .containsEntry("stale", true);
+    }
+
+    @Test
+    @DisplayName("Should be down when no rates are fetched yet")
+    void shouldBeDownWhenNoRatesAreFetchedYet() {
+        Health health = rateSnapshotHealthIndicator.health();
+
+        assertThat(health.getStatus())
+            .isEqualTo(Status.DOWN);
+    }
+
+}
@@ -0,0 +1,196 @@
+package com.spribe.tz.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spribe.tz.service.impl.CurrencyRegistry;
+import com.spribe.tz.service.impl.RateStreamServiceImpl;
+import com.spribe.tz.service.impl.model.BaseExchangeRates;
+import com.spribe.tz.service.impl.model.CurrencyIndex;
+import com.spribe.tz.service.impl.model.RateRepresentation;
+import com.spribe.tz.service.impl.model.RateSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateStreamServiceTest {
+
+    private static final RateSnapshot FIRST_SNAPSHOT = RateSnapshot.EMPTY.next(new BaseExchangeRates("EUR", Instant.EPOCH,
+        CurrencyIndex.of(List.of("EUR", "UAH", "USD", "GBP")),
+        new BigDecimal[] {BigDecimal.ONE, new BigDecimal("43.214"), new BigDecimal("1.05"), new BigDecimal("0.84")}), Instant.EPOCH, RateRepresentation.DECIMAL);
+    private static final RateSnapshot SECOND_SNAPSHOT = FIRST_SNAPSHOT.next(new BaseExchangeRates("EUR", Instant.EPOCH,
+        CurrencyIndex.of(List.of("EUR", "UAH", "USD", "GBP")),
+        new BigDecimal[] {BigDecimal.ONE, new BigDecimal("43.214"), new BigDecimal("1.050"), null}), Instant.EPOCH.plusSeconds(60), RateRepresentation.DECIMAL);
+
+    @InjectMocks
+    private RateStreamServiceImpl rateStreamService;
+
+    @Mock
+    private CurrencyRegistry currencyRegistry;
+
+    @Spy
+    private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rateStreamService, "retainedVersions", 2);
+        ReflectionTestUtils.setField(rateStreamService, "timeout", Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        rateStreamService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should render all rates of base currency for new subscriber")
+    void shouldRenderAllRatesOfBaseCurrencyForNewSubscriber() {
+        String event = ReflectionTestUtils.invokeMethod(rateStreamService, "renderEvent", "EUR", null, FIRST_SNAPSHOT);
+
+        assertThat(event)
+            .isEqualTo("""
+                {"baseCurrency":"EUR","fromVersion":null,"version":1,"fetchedAt":"1970-01-01T00:00:00Z","rates":{\
+                "GBP":{"rate":0.84,"doubleConversion":false},\
+                "UAH":{"rate":43.214,"doubleConversion":false},\
+                "USD":{"rate":1.05,"doubleConversion":false}}}""");
+    }
+
+    @Test
+    @DisplayName("Should render only changed and removed rates since subscriber version")
+    void shouldRenderOnlyChangedAndRemovedRatesSinceSubscriberVersion() {
+        String event = ReflectionTestUtils.invokeMethod(rateStreamService, "renderEvent", "USD", FIRST_SNAPSHOT, SECOND_SNAPSHOT);
+
+        assertThat(event)
+            .isEqualTo("""
+                {"baseCurrency":"USD","fromVersion":1,"version":2,"fetchedAt":"1970-01-01T00:01:00Z","rates":{\
+                "GBP":null}}""");
+    }
+
+    @Test
+    @DisplayName("Should retain configured number of latest snapshots")
+    void shouldRetainConfiguredNumberOfLatestSnapshots() {
+        RateSnapshot thirdSnapshot = SECOND_SNAPSHOT.next(FIRST_SNAPSHOT.rates().baseRates(), Instant.now(), RateRepresentation.DECIMAL);
+
+        rateStreamService.publish(FIRST_SNAPSHOT);
+        rateStreamService.publish(SECOND_SNAPSHOT);
+        rateStreamService.publish(thirdSnapshot);
+        rateStreamService.publish(FIRST_SNAPSHOT);
+
+        assertThat((Map<Long, ?>) ReflectionTestUtils.getField(rateStreamService, "retainedSnapshots"))
+            .containsOnlyKeys(60_000L, thirdSnapshot.fetchedAt().toEpochMilli());
+    }
+
+    @Test
+    @DisplayName("Should push all rates to new subscriber and only changes on publish")
+    void shouldPushAllRatesToNewSubscriberAndOnlyChangesOnPublish() {
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(true);
+        rateStreamService.publish(FIRST_SNAPSHOT);
+
+        SseEmitter emitter = rateStreamService.subscribe("USD", null);
+        assertThat(awaitEvents(emitter, 1))
+            .startsWith("id:0\nevent:snapshot\ndata:{\"baseCurrency\":\"USD\",\"fromVersion\":null,\"version\":1,");
+
+        rateStreamService.publish(SECOND_SNAPSHOT);
+
+        assertThat(awaitEvents(emitter, 2))
+            .endsWith("""
+                id:60000
+                event:delta
+                data:{"baseCurrency":"USD","fromVersion":1,"version":2,"fetchedAt":"1970-01-01T00:01:00Z","rates":{"GBP":null}}
+
+                """);
+    }
+
+    @Test
+    @DisplayName("Should resume with changes since retained last event id")
+    void shouldResumeWithChangesSinceRetainedLastEventId() {
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(true);
+        rateStreamService.publish(FIRST_SNAPSHOT);
+        rateStreamService.publish(SECOND_SNAPSHOT);
+
+        SseEmitter emitter = rateStreamService.subscribe("USD", 0L);
+
+        assertThat(awaitEvents(emitter, 1))
+            .startsWith("id:60000\nevent:delta\ndata:{\"baseCurrency\":\"USD\",\"fromVersion\":1,");
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {30_000L, 90_000L})
+    @DisplayName("Should resume with all rates for unknown or newer last event id")
+    void shouldResumeWithAllRatesForUnknownOrNewerLastEventId(final long lastEventId) {
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(true);
+        rateStreamService.publish(FIRST_SNAPSHOT);
+        rateStreamService.publish(SECOND_SNAPSHOT);
+
+        SseEmitter emitter = rateStreamService.subscribe("USD", lastEventId);
+
+        assertThat(awaitEvents(emitter, 1))
+            .startsWith("id:60000\nevent:snapshot\ndata:{\"baseCurrency\":\"USD\",\"fromVersion\":null,");
+    }
+
+    @Test
+    @DisplayName("Subscribe should throw exception for not used currencyCode")
+    void subscribeShouldThrowExceptionForNotUsedCurrencyCode() {
+        when(currencyRegistry.contains("USD"))
+            .thenReturn(false);
+
+        assertThatExceptionOfType(RuntimeException.class)
+            .isThrownBy(() -> rateStreamService.subscribe("USD", null))
+            .withMessage("""
+                Currency 'USD' is not available for getting exchange rates.
+                Please try to add currencyCode using existing API.
+                """);
+    }
+
+    /**
+     * Events sent before the emitter is bound to a response are kept by it in order, pushes run on virtual threads.
+     */
+    @SuppressWarnings("unchecked")
+    private static String awaitEvents(final SseEmitter emitter, final int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            String events;
+            try {
+                events = ((Collection<ResponseBodyEmitter.DataWithMediaType>) ReflectionTestUtils.getField(emitter, "earlySendAttempts"))
+                    .stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining());
+            } catch (ConcurrentModificationException e) {
+                continue;
+            }
+            if (events.split("\n\n", -1).length - 1 >= count || System.nanoTime() > deadline) {
+                return events;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+}
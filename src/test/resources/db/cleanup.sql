@@ -1 +1 @@
-TRUNCATE TABLE CURRENCY, CURRENCY_LOG RESTART IDENTITY CASCADE;
\ No newline at end of file
+TRUNCATE TABLE CURRENCY, CURRENCY_LOG, CURRENCY_RATE_HOURLY, CURRENCY_RATE_DAILY, CURRENCY_RATE_SNAPSHOT RESTART IDENTITY CASCADE;
\ No newline at end of file